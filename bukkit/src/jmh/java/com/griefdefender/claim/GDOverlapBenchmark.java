@@ -0,0 +1,205 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.api.claim.Claim;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the overlap checks that ran before {@link GDOverlapReport}
+ * against the report for a large claim resized over a crowded area.
+ *
+ * <p>Claims are allocated without running their constructor, which needs a
+ * running server. Only the boundary corners and id are set, which is all
+ * the overlap predicates read for top level claims.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GDOverlapBenchmark {
+
+    // Side length, in blocks, of the area claims are placed in
+    private static final int WORLD_SIZE = 4096;
+
+    @Param({"500", "2000"})
+    public int claimCount;
+
+    @Param({"256", "1024"})
+    public int resizeSize;
+
+    private GDClaim resized;
+    private Set<Claim> candidates;
+    private Long2ObjectOpenHashMap<List<GDClaim>> chunksToClaims;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        final Unsafe unsafe = getUnsafe();
+        final Random random = new Random(42);
+        final List<GDClaim> claims = new ArrayList<>();
+        for (int i = 0; i < this.claimCount; i++) {
+            final int width = 8 + random.nextInt(120);
+            final int depth = 8 + random.nextInt(120);
+            final int x = random.nextInt(WORLD_SIZE - width) - WORLD_SIZE / 2;
+            final int z = random.nextInt(WORLD_SIZE - depth) - WORLD_SIZE / 2;
+            claims.add(createClaim(unsafe, x, z, x + width - 1, z + depth - 1));
+        }
+
+        final int half = this.resizeSize / 2;
+        this.resized = createClaim(unsafe, -half, -half, half - 1, half - 1);
+
+        this.chunksToClaims = new Long2ObjectOpenHashMap<>();
+        for (GDClaim claim : claims) {
+            for (Vector3i chunkPos : claim.getChunkPositions()) {
+                List<GDClaim> chunkClaims = this.chunksToClaims.get(getChunkKey(chunkPos.getX(), chunkPos.getZ()));
+                if (chunkClaims == null) {
+                    chunkClaims = new ArrayList<>();
+                    this.chunksToClaims.put(getChunkKey(chunkPos.getX(), chunkPos.getZ()), chunkClaims);
+                }
+                chunkClaims.add(claim);
+            }
+        }
+
+        // Same candidates GDClaimManager#getClaimsInChunkArea returns
+        this.candidates = new LinkedHashSet<>();
+        for (Vector3i chunkPos : this.resized.getChunkPositions()) {
+            final List<GDClaim> chunkClaims = this.chunksToClaims.get(getChunkKey(chunkPos.getX(), chunkPos.getZ()));
+            if (chunkClaims != null) {
+                this.candidates.addAll(chunkClaims);
+            }
+        }
+
+        final Set<GDClaim> expected = new HashSet<>(perCandidate());
+        if (!expected.equals(new HashSet<>(chunkScan())) || !expected.equals(new HashSet<>(overlapReport()))) {
+            throw new IllegalStateException("Overlap checks disagree for " + this.claimCount + " claims");
+        }
+    }
+
+    /**
+     * Checks every claim in every chunk of the resized claim, retesting
+     * claims once per shared chunk.
+     */
+    @Benchmark
+    public List<GDClaim> chunkScan() {
+        final List<GDClaim> overlaps = new ArrayList<>();
+        for (Vector3i chunkPos : this.resized.getChunkPositions()) {
+            final List<GDClaim> chunkClaims = this.chunksToClaims.get(getChunkKey(chunkPos.getX(), chunkPos.getZ()));
+            if (chunkClaims == null) {
+                continue;
+            }
+            for (GDClaim chunkClaim : chunkClaims) {
+                if (isLegacyOverlap(chunkClaim)) {
+                    overlaps.add(chunkClaim);
+                }
+            }
+        }
+        return overlaps;
+    }
+
+    /**
+     * Checks each distinct candidate with the banding and inside predicates
+     * only.
+     */
+    @Benchmark
+    public List<GDClaim> perCandidate() {
+        final List<GDClaim> overlaps = new ArrayList<>();
+        for (Claim candidate : this.candidates) {
+            final GDClaim chunkClaim = (GDClaim) candidate;
+            if (isLegacyOverlap(chunkClaim)) {
+                overlaps.add(chunkClaim);
+            }
+        }
+        return overlaps;
+    }
+
+    @Benchmark
+    public List<GDClaim> overlapReport() {
+        final List<GDClaim> overlaps = new ArrayList<>();
+        for (GDOverlapReport.Overlap overlap : GDOverlapReport.collect(this.resized, this.candidates).getOverlaps()) {
+            overlaps.add(overlap.getClaim());
+        }
+        return overlaps;
+    }
+
+    private boolean isLegacyOverlap(GDClaim chunkClaim) {
+        if (chunkClaim.equals(this.resized)) {
+            return false;
+        }
+        return this.resized.isBandingAcross(chunkClaim) || chunkClaim.isBandingAcross(this.resized)
+                || chunkClaim.isInside(this.resized) || this.resized.isInside(chunkClaim);
+    }
+
+    private static GDClaim createClaim(Unsafe unsafe, int minX, int minZ, int maxX, int maxZ) throws Exception {
+        final GDClaim claim = (GDClaim) unsafe.allocateInstance(GDClaim.class);
+        final UUID id = UUID.randomUUID();
+        claim.lesserBoundaryCorner = new Vector3i(minX, 0, minZ);
+        claim.greaterBoundaryCorner = new Vector3i(maxX, 255, maxZ);
+        setField(claim, "id", id);
+        setField(claim, "hashCode", id.hashCode());
+        return claim;
+    }
+
+    private static void setField(GDClaim claim, String name, Object value) throws Exception {
+        final Field field = GDClaim.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(claim, value);
+    }
+
+    private static Unsafe getUnsafe() throws Exception {
+        final Field field = Unsafe.class.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        return (Unsafe) field.get(null);
+    }
+
+    private static long getChunkKey(int chunkX, int chunkZ) {
+        return (long) chunkX & 0xffffffffL | ((long) chunkZ & 0xffffffffL) << 32;
+    }
+}
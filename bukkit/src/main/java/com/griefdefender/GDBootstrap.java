@@ -55,9 +55,12 @@
 public class GDBootstrap extends JavaPlugin {
 
     private Map<String, File> jarMap = new HashMap<>();
+    // Library name -> expected SHA-1
+    private Map<String, String> hashMap = new HashMap<>();
     private List<String> relocateList = new ArrayList<>();
     private static GDBootstrap instance;
     private static final String LIB_ROOT_PATH = "./plugins/GriefDefender/lib/";
+    private static final String MANIFEST_FILE = "manifest.json";
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/535.7 (KHTML, like Gecko) Chrome/16.0.912.75 Safari/535.7";
 
     public static GDBootstrap getInstance() {
@@ -74,7 +77,7 @@ public void onEnable() {
         }
 
         instance = this;
-        final JSONParser parser = new JSONParser();
+        final long start = System.nanoTime();
         String bukkitJsonVersion = null;
         this.getLogger().info("Loading libraries...");
         if (Bukkit.getVersion().contains("1.8.8")) {
@@ -99,6 +102,32 @@ public void onEnable() {
             this.getLogger().severe("Detected unsupported version '" + Bukkit.getVersion() + "'. GriefDefender only supports 1.8.8, 1.12.2, 1.13.2, 1.14.x, 1.15.0-1.15.2, 1.16.1. GriefDefender will NOT load.");
             return;
         }
+        final String pluginVersion = this.getDescription().getVersion();
+        final Path manifestPath = Paths.get(LIB_ROOT_PATH).resolve(MANIFEST_FILE);
+        final GDLibraryManifest manifest = GDLibraryManifest.read(manifestPath);
+        if (manifest != null && manifest.isCurrent(pluginVersion, bukkitJsonVersion)) {
+            // Nothing changed since the last boot so the shaded jars can be loaded directly
+            this.relocateList.addAll(manifest.getRelocateList());
+            for (GDLibraryManifest.Library library : manifest.getLibraries()) {
+                this.jarMap.put(library.name, library.input);
+            }
+            injectRelocatorDeps();
+            for (GDLibraryManifest.Library library : manifest.getLibraries()) {
+                BootstrapUtil.addUrlToClassLoader(library.name, library.shaded);
+            }
+            this.logPhase("Loaded " + this.jarMap.size() + " cached libraries", start);
+        } else if (!this.loadLibraries(bukkitJsonVersion, pluginVersion, manifest, manifestPath)) {
+            return;
+        }
+        // Boot GD
+        final long enableStart = System.nanoTime();
+        GriefDefenderPlugin.getInstance().onEnable();
+        this.logPhase("Enabled GriefDefender", enableStart);
+    }
+
+    private boolean loadLibraries(String bukkitJsonVersion, String pluginVersion, GDLibraryManifest previous, Path manifestPath) {
+        final long start = System.nanoTime();
+        final JSONParser parser = new JSONParser();
         try {
             final InputStream in = getClass().getResourceAsStream("/" + bukkitJsonVersion + ".json");
             final BufferedReader reader = new BufferedReader(new InputStreamReader(in));
@@ -106,7 +135,7 @@ public void onEnable() {
             final JSONArray libraries = (JSONArray) a.get("libraries");
             if (libraries == null) {
                 this.getLogger().severe("Resource " + bukkitJsonVersion + ".json is corrupted!. Please contact author for assistance.");
-                return;
+                return false;
             }
             final Iterator<JSONObject> iterator = libraries.iterator();
             while (iterator.hasNext()) {
@@ -123,12 +152,21 @@ public void onEnable() {
         } catch (Throwable t) {
             t.printStackTrace();
         }
+        this.logPhase("Checked " + this.jarMap.size() + " libraries", start);
         // Inject jar-relocator and asm debug
         injectRelocatorDeps();
         // Relocate all GD dependencies and inject
-        GDRelocator.getInstance().relocateJars(this.jarMap);
-        // Boot GD
-        GriefDefenderPlugin.getInstance().onEnable();
+        final Map<String, GDLibraryManifest.Library> libraries = GDRelocator.getInstance().relocateJars(this.jarMap, this.hashMap, previous);
+        try {
+            new GDLibraryManifest(pluginVersion, bukkitJsonVersion, this.relocateList, libraries).write(manifestPath);
+        } catch (IOException e) {
+            this.getLogger().warning("Could not write library manifest, libraries will be checked again on next boot.");
+        }
+        return true;
+    }
+
+    void logPhase(String phase, long start) {
+        this.getLogger().info(phase + " in " + ((System.nanoTime() - start) / 1000000L) + "ms");
     }
 
     public List<String> getRelocateList() {
@@ -161,6 +199,7 @@ private void injectRelocatorDeps() {
     public void downloadLibrary(String name, String relocate, String sha1, String url, Path libPath) {
         final File file = libPath.toFile();
         this.jarMap.put(name, file);
+        this.hashMap.put(name, sha1);
         if (relocate != null && !relocate.isEmpty() && relocate.contains(":")) {
             this.relocateList.add(relocate);
         }
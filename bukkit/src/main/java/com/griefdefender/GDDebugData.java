@@ -24,14 +24,21 @@
  */
 package com.griefdefender;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -52,6 +59,7 @@
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.MessageStorage;
+import com.griefdefender.configuration.category.DebugCategory;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.util.HttpClient;
 
@@ -80,6 +88,13 @@ public class GDDebugData {
     private final List<String> header;
     private final List<String> records;
     private final long startTime = System.currentTimeMillis();
+    // Recorder drops before this session started
+    private final long droppedAtStart = GriefDefenderPlugin.getInstance().getDebugRecorder().getDroppedCount();
+    // Records past MAX_LINES when spill-to-disk is enabled
+    private Path spillPath;
+    private DataOutputStream spillOutput;
+    private int spillCount;
+    private boolean limitReached;
     private boolean verbose;
     private GDPermissionUser user;
     private String filter;
@@ -132,19 +147,75 @@ public GDDebugData(CommandSender source, String filter, boolean verbose) {
         this.header.add("| " + PlainComponentSerializer.INSTANCE.serialize(MessageCache.getInstance().DEBUG_RECORD_START) + " | " + DATE_FORMAT.format(new Date(this.startTime)) + "|");
     }
 
+    // Called from the debug recorder thread
     public void addRecord(String flag, String trust, String source, String target, String location, String user, String contexts, Tristate result) {
         // markdown uses '__' for strong formatting, so underscores must be escaped
         user = user.replace("_", "\\_");
-        if (this.records.size() < MAX_LINES) {
-            this.records.add("| " + flag + " | " + trust + " | " + source + " | " + target + " | " + location + " | " + user + " | " + contexts + " | " + result + " | ");
-        } else {
+        final String record = "| " + flag + " | " + trust + " | " + source + " | " + target + " | " + location + " | " + user + " | " + contexts + " | " + result + " | ";
+        synchronized (this) {
+            if (this.limitReached) {
+                return;
+            }
+            if (this.records.size() < MAX_LINES) {
+                this.records.add(record);
+                return;
+            }
+            if (this.spillRecord(record)) {
+                return;
+            }
+            this.limitReached = true;
+        }
+
+        Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> {
             TextAdapter.sendComponent(this.source, TextComponent.builder("").append("MAX DEBUG LIMIT REACHED!").append("\n")
                     .append("Pasting output...", TextColor.GREEN).build());
             this.pasteRecords();
-            this.records.clear();
             GriefDefenderPlugin.getInstance().getDebugUserMap().clear();
             GriefDefenderPlugin.debugActive = false;
             TextAdapter.sendComponent(this.source, TextComponent.builder("").append(GD_TEXT).append("Debug ", TextColor.GRAY).append("OFF", TextColor.RED).build());
+        });
+    }
+
+    private boolean spillRecord(String record) {
+        final DebugCategory debugConfig = GriefDefenderPlugin.getGlobalConfig().getConfig().debug;
+        if (!debugConfig.spillToDisk || this.spillCount >= debugConfig.maxSpillLines) {
+            return false;
+        }
+        try {
+            if (this.spillOutput == null) {
+                final Path debugDir = GriefDefenderPlugin.getInstance().getConfigPath().resolve("debug");
+                Files.createDirectories(debugDir);
+                this.spillPath = Files.createTempFile(debugDir, "record-", ".bin");
+                this.spillOutput = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.spillPath)));
+            }
+            final byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+            this.spillOutput.writeInt(bytes.length);
+            this.spillOutput.write(bytes);
+            this.spillCount++;
+            return true;
+        } catch (IOException e) {
+            GriefDefenderPlugin.getInstance().getLogger().warning("Could not write debug records to disk: " + e.getMessage());
+            this.closeSpill(true);
+            return false;
+        }
+    }
+
+    private void closeSpill(boolean delete) {
+        if (this.spillOutput != null) {
+            try {
+                this.spillOutput.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            this.spillOutput = null;
+        }
+        if (delete && this.spillPath != null) {
+            try {
+                Files.deleteIfExists(this.spillPath);
+            } catch (IOException e) {
+                // ignore
+            }
+            this.spillPath = null;
         }
     }
 
@@ -169,12 +240,28 @@ public boolean isRecording() {
     }
 
     public void pasteRecords() {
-        if (this.records.isEmpty()) {
-            TextAdapter.sendComponent(this.source, MessageCache.getInstance().DEBUG_NO_RECORDS);
+        final long endTime = System.currentTimeMillis();
+        // Events fired before the paste may still be queued, so the paste is built once the recorder
+        // has caught up and uploaded from the executor without waiting on the main thread
+        GriefDefenderPlugin.getInstance().getDebugRecorder().whenProcessed(() -> GriefDefenderPlugin.getInstance().executor.execute(() -> this.paste(endTime)));
+    }
+
+    private void paste(long endTime) {
+        final List<String> records;
+        final Path spillPath;
+        synchronized (this) {
+            records = new ArrayList<>(this.records);
+            this.closeSpill(false);
+            spillPath = this.spillPath;
+            this.spillPath = null;
+            this.spillCount = 0;
+            this.records.clear();
+        }
+        if (records.isEmpty()) {
+            this.sendComponent(MessageCache.getInstance().DEBUG_NO_RECORDS);
             return;
         }
 
-        final long endTime = System.currentTimeMillis();
         List<String> debugOutput = new ArrayList<>(this.header);
         final String RECORD_END = PlainComponentSerializer.INSTANCE.serialize(MessageCache.getInstance().DEBUG_RECORD_END);
         final String TIME_ELAPSED = PlainComponentSerializer.INSTANCE.serialize(MessageCache.getInstance().DEBUG_TIME_ELAPSED);
@@ -190,21 +277,28 @@ public void pasteRecords() {
         debugOutput.add("| " + RECORD_END + " | " + DATE_FORMAT.format(new Date(endTime)) + "|");
         long elapsed = (endTime - startTime) / 1000L; 
         debugOutput.add("| " + TIME_ELAPSED + " | " + elapsed + " seconds" + "|");
+        final long dropped = GriefDefenderPlugin.getInstance().getDebugRecorder().getDroppedCount() - this.droppedAtStart;
+        if (dropped > 0) {
+            debugOutput.add("| Dropped Events | " + dropped + "|");
+        }
         debugOutput.add("");
         debugOutput.add("### " + OUTPUT) ;
         debugOutput.add("| " + FLAG + " | " + TRUST + " | " + SOURCE + " | " + TARGET + " | " + LOCATION + " | " + USER + " | " + CONTEXT + " | " + RESULT + " |");
         debugOutput.add("|------|-------|--------|--------|----------|------|----------|--------|");
 
-        debugOutput.addAll(this.records);
+        debugOutput.addAll(records);
 
+        if (spillPath != null) {
+            readSpill(spillPath, debugOutput);
+        }
         String content = String.join("\n", debugOutput);
 
         String pasteId;
         try {
             pasteId = postContent(content);
         } catch (Exception e) {
-            TextAdapter.sendComponent(this.source, GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.DEBUG_ERROR_UPLOAD,
-                    ImmutableMap.of("content", TextComponent.of(e.getMessage(), TextColor.WHITE))));
+            this.sendComponent(GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.DEBUG_ERROR_UPLOAD,
+                    ImmutableMap.of("content", TextComponent.of(String.valueOf(e.getMessage()), TextColor.WHITE))));
             return;
         }
 
@@ -217,14 +311,46 @@ public void pasteRecords() {
             throw new RuntimeException(e);
         }
 
-        TextAdapter.sendComponent(this.source, TextComponent.builder()
+        this.sendComponent(TextComponent.builder()
                 .append(MessageCache.getInstance().DEBUG_PASTE_SUCCESS)
                 .append(" : " + url, TextColor.GREEN)
                 .clickEvent(ClickEvent.openUrl(jUrl.toString())).build());
     }
 
-    public void stop() {
+    private static void readSpill(Path spillPath, List<String> output) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillPath)))) {
+            while (true) {
+                final int length;
+                try {
+                    length = input.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                final byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                output.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            GriefDefenderPlugin.getInstance().getLogger().warning("Could not read debug records from disk: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(spillPath);
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    private void sendComponent(Component component) {
+        Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> TextAdapter.sendComponent(this.source, component));
+    }
+
+    public synchronized void stop() {
         this.records.clear();
+        this.closeSpill(true);
+        this.spillCount = 0;
+        // Ignore records still queued in the recorder
+        this.limitReached = true;
     }
 
     private static String postContent(String content) throws IOException {
@@ -0,0 +1,470 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import com.griefdefender.cache.MessageCache;
+import com.griefdefender.permission.GDPermissionHolder;
+import com.griefdefender.permission.GDPermissionManager;
+import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.registry.FlagRegistryModule;
+import com.griefdefender.util.PermissionUtil;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.adapter.bukkit.TextAdapter;
+import net.kyori.text.format.TextColor;
+import net.kyori.text.serializer.plain.PlainComponentSerializer;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.command.CommandSender;
+import org.bukkit.event.Event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Processes debug event log entries off the main thread.
+ *
+ * <p>The permission hot path only captures an immutable {@link Entry} into a
+ * bounded ring buffer. Filtering against each {@link GDDebugData} and formatting
+ * are done by the recorder thread, which parks while there is nothing to do.
+ * Entries are dropped if the buffer is full.</p>
+ */
+public class GDDebugRecorder {
+
+    private final int mask;
+    private final AtomicReferenceArray<Entry> buffer;
+    // Slot sequence numbers, a slot is writable at sequence == position and readable at position + 1
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Queue<Callback> callbacks = new ConcurrentLinkedQueue<>();
+    // Only advanced by the recorder thread
+    private volatile long head;
+    private volatile boolean running = true;
+    // Set by the recorder thread before it parks, producers unpark it when set
+    private volatile boolean idle;
+    private volatile Thread thread;
+
+    public GDDebugRecorder(int capacity) {
+        int size = 64;
+        while (size < capacity && size < (1 << 20)) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    public void record(Event event, Claim claim, Location location, String sourceId, String targetId, GDPermissionHolder permissionSubject, String permission, String trust, Tristate result, Set<Context> contexts) {
+        if (!this.running) {
+            return;
+        }
+        if (!this.offer(new Entry(event, claim, location, sourceId, targetId, permissionSubject, permission, trust, result, contexts))) {
+            this.dropped.incrementAndGet();
+            return;
+        }
+        this.wakeUp();
+    }
+
+    private void wakeUp() {
+        final Thread thread = this.thread;
+        if (thread == null) {
+            this.start();
+        } else if (this.idle) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private synchronized void start() {
+        if (this.thread != null || !this.running) {
+            return;
+        }
+        this.thread = new Thread(this::run, "GriefDefender Debug Recorder");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    // Total since startup, sessions keep their own starting count
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    /**
+     * Runs the task on the recorder thread once every entry recorded so far
+     * has been processed. The caller never waits.
+     *
+     * @param task The task to run
+     */
+    public void whenProcessed(Runnable task) {
+        final long target = this.tail.get();
+        if (this.head >= target) {
+            task.run();
+            return;
+        }
+        this.callbacks.add(new Callback(target, task));
+        this.wakeUp();
+    }
+
+    public void shutdown() {
+        this.running = false;
+        this.callbacks.clear();
+        final Thread thread = this.thread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean offer(Entry entry) {
+        long position = this.tail.get();
+        int index;
+        while (true) {
+            index = (int) (position & this.mask);
+            final long difference = this.sequences.get(index) - position;
+            if (difference == 0) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+            position = this.tail.get();
+        }
+        this.buffer.set(index, entry);
+        // A full write so the recorder cannot miss it between checking the buffer and parking
+        this.sequences.set(index, position + 1);
+        return true;
+    }
+
+    private boolean isEmpty() {
+        final long position = this.head;
+        return this.sequences.get((int) (position & this.mask)) != position + 1;
+    }
+
+    private Entry poll() {
+        if (this.isEmpty()) {
+            return null;
+        }
+        final long position = this.head;
+        final int index = (int) (position & this.mask);
+        final Entry entry = this.buffer.get(index);
+        this.buffer.set(index, null);
+        this.sequences.lazySet(index, position + this.mask + 1);
+        return entry;
+    }
+
+    private void run() {
+        final List<Message> messages = new ArrayList<>();
+        while (this.running) {
+            final Entry entry = this.poll();
+            if (entry == null) {
+                this.sendMessages(messages);
+                this.runCallbacks();
+                this.idle = true;
+                if (this.isEmpty() && this.callbacks.isEmpty() && this.running) {
+                    LockSupport.park(this);
+                }
+                this.idle = false;
+                continue;
+            }
+            try {
+                this.process(entry, messages);
+            } catch (Throwable t) {
+                GriefDefenderPlugin.getInstance().getLogger().warning("Could not process debug entry: " + t);
+            }
+            this.head = this.head + 1;
+            if (!this.callbacks.isEmpty()) {
+                this.runCallbacks();
+            }
+        }
+        this.sendMessages(messages);
+    }
+
+    private void runCallbacks() {
+        final Iterator<Callback> iterator = this.callbacks.iterator();
+        while (iterator.hasNext()) {
+            final Callback callback = iterator.next();
+            if (this.head < callback.target) {
+                continue;
+            }
+            iterator.remove();
+            try {
+                callback.task.run();
+            } catch (Throwable t) {
+                GriefDefenderPlugin.getInstance().getLogger().warning("Could not run debug callback: " + t);
+            }
+        }
+    }
+
+    // Verbose output is sent from the main thread in batches
+    private void sendMessages(List<Message> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        final List<Message> batch = new ArrayList<>(messages);
+        messages.clear();
+        Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> {
+            for (Message message : batch) {
+                TextAdapter.sendComponent(message.target, message.text);
+            }
+        });
+    }
+
+    private void process(Entry entry, List<Message> messages) {
+        final String eventLocation = entry.worldName == null ? "none" : new Vector3i(entry.x, entry.y, entry.z).toString();
+        for (GDDebugData debugEntry : GriefDefenderPlugin.getInstance().getDebugUserMap().values()) {
+            if (!this.matches(debugEntry, entry)) {
+                continue;
+            }
+
+            String messageUser = entry.permissionSubject == null ? "none" : entry.permissionSubject.getFriendlyName();
+            if (entry.permissionSubject instanceof GDPermissionUser) {
+                messageUser = ((GDPermissionUser) entry.permissionSubject).getName();
+            }
+
+            if (debugEntry.isRecording()) {
+                this.addRecord(debugEntry, entry, eventLocation, messageUser);
+                continue;
+            }
+
+            final Component textEvent = TextComponent.builder("")
+                    .append(GriefDefenderPlugin.GD_TEXT)
+                    .append("Event: ", TextColor.GRAY)
+                    .append(entry.eventName == null ? TextComponent.of("Plugin").color(TextColor.GRAY) : TextComponent.of(entry.eventName).color(TextColor.GRAY))
+                    .append("\n").build();
+            final Component textCause = TextComponent.builder("")
+                    .append(GriefDefenderPlugin.GD_TEXT)
+                    .append("Cause: ", TextColor.GRAY)
+                    .append(entry.sourceId, TextColor.LIGHT_PURPLE)
+                    .append("\n").build();
+            final Component textLocation = TextComponent.builder("")
+                    .append(GriefDefenderPlugin.GD_TEXT)
+                    .append("Location: ", TextColor.GRAY)
+                    .append(eventLocation == null ? "NONE" : eventLocation).build();
+            final Component textUser = TextComponent.builder("")
+                    .append("User: ", TextColor.GRAY)
+                    .append(messageUser, TextColor.GOLD)
+                    .append("\n").build();
+            final Component textLocationAndUser = TextComponent.builder("")
+                    .append(textLocation)
+                    .append(" ")
+                    .append(textUser).build();
+            Component textContext = null;
+            Component textPermission = null;
+            if (entry.targetId != null) {
+                textContext = TextComponent.builder("")
+                        .append(GriefDefenderPlugin.GD_TEXT)
+                        .append("Target: ", TextColor.GRAY)
+                        .append(GDPermissionManager.getInstance().getPermissionIdentifier(entry.targetId), TextColor.YELLOW)
+                        .append("\n").build();
+            }
+            if (entry.permission != null) {
+                textPermission = TextComponent.builder("")
+                        .append(GriefDefenderPlugin.GD_TEXT)
+                        .append("Permission: ", TextColor.GRAY)
+                        .append(entry.permission, TextColor.RED)
+                        .append("\n").build();
+            }
+            TextComponent.Builder textBuilder = TextComponent.builder("").append(textEvent);
+            if (textContext != null) {
+                textBuilder.append(textContext);
+            } else {
+                textBuilder.append(textCause);
+            }
+            if (textPermission != null) {
+                textBuilder.append(textPermission);
+            }
+            textBuilder.append(textLocationAndUser);
+            messages.add(new Message(debugEntry.getSource(), textBuilder.build()));
+        }
+    }
+
+    private boolean matches(GDDebugData debugEntry, Entry entry) {
+        final GDPermissionUser debugUser = debugEntry.getUser();
+        if (debugUser != null) {
+            // Check event source user
+            return entry.permissionSubject != null && entry.permissionSubject.getIdentifier().equals(debugUser.getUniqueId().toString());
+        }
+        if (debugEntry.getClaimUniqueId() != null) {
+            return debugEntry.getClaimUniqueId().equals(entry.claimUniqueId);
+        }
+        final String filter = debugEntry.getFilter();
+        if (filter == null) {
+            return true;
+        }
+        if ((entry.permission != null && entry.permission.contains(filter))
+                || (entry.targetId != null && entry.targetId.contains(filter))
+                || (entry.sourceId != null && entry.sourceId.contains(filter))) {
+            return true;
+        }
+        // check contexts
+        for (Context context : entry.contexts) {
+            if (context.getKey().contains(filter) || context.getValue().contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addRecord(GDDebugData debugEntry, Entry entry, String eventLocation, String messageUser) {
+        final String permission = entry.permission.replace("griefdefender.flag.", "");
+        String messageFlag = permission;
+        final Flag flag = FlagRegistryModule.getInstance().getById(permission).orElse(null);
+        if (flag != null) {
+            messageFlag = flag.toString();
+        }
+        String messageSource = entry.sourceId == null ? "none" : entry.sourceId;
+        String messageTarget = entry.targetId == null ? "none" : entry.targetId;
+        if (messageTarget.endsWith(".0")) {
+            messageTarget = messageTarget.substring(0, messageTarget.length() - 2);
+        }
+        final String trust = entry.trust == null ? "none" : entry.trust;
+        // Strip minecraft id on bukkit
+        String[] parts = messageSource.split(":");
+        if (parts.length > 1 && parts[0].equalsIgnoreCase("minecraft")) {
+            messageSource = parts[1];
+        }
+        parts = messageTarget.split(":");
+        if (parts.length > 1 && parts[0].equalsIgnoreCase("minecraft")) {
+            messageTarget = parts[1];
+        }
+        final List<String> contextList = new ArrayList<>();
+        for (Context context : entry.contexts) {
+            contextList.add("<b>" + context.getKey() + "</b>=" + context.getValue());
+        }
+        final String serverName = PermissionUtil.getInstance().getServerName();
+        if (serverName != null) {
+            contextList.add("<b>server</b>=" + serverName);
+        } else {
+            contextList.add("<b>server</b>=global");
+        }
+        Collections.sort(contextList);
+        final StringBuilder contextStr = new StringBuilder();
+        for (int i = 0; i < contextList.size(); i++) {
+            contextStr.append(contextList.get(i));
+            if (i % 2 != 0) {
+                contextStr.append("<br />");
+            } else if (i != contextList.size() - 1) {
+                contextStr.append(", ");
+            }
+        }
+
+        final String locationStr = "<b>claim_uuid</b>=" + entry.claimUniqueId + "<br />"
+                + "<b>claim_type</b>=" + entry.claimType + "<br />"
+                + "<b>location</b>=" + eventLocation + "<br />"
+                + "<b>world</b>=" + (entry.worldName == null ? "none" : entry.worldName.toLowerCase()) + "<br />";
+        final String clickToExpand = PlainComponentSerializer.INSTANCE.serialize(MessageCache.getInstance().DEBUG_CLICK_TO_EXPAND);
+        final String messageContexts = "<details>" + 
+                "  <summary><i>" + clickToExpand + "</i></summary>" + 
+                contextStr +
+                "</details>";
+        final String messageLocation = "<details>" + 
+                "  <summary><i>" + clickToExpand + "</i></summary>" + 
+                locationStr +
+                "</details>";
+        debugEntry.addRecord(messageFlag, trust, messageSource, messageTarget, messageLocation, messageUser, messageContexts, entry.result);
+    }
+
+    private static final class Callback {
+
+        private final long target;
+        private final Runnable task;
+
+        Callback(long target, Runnable task) {
+            this.target = target;
+            this.task = task;
+        }
+    }
+
+    private static final class Message {
+
+        private final CommandSender target;
+        private final Component text;
+
+        Message(CommandSender target, Component text) {
+            this.target = target;
+            this.text = text;
+        }
+    }
+
+    // Everything needed later, captured on the thread that made the permission check
+    private static final class Entry {
+
+        private final String eventName;
+        private final UUID claimUniqueId;
+        private final String claimType;
+        private final String worldName;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final String sourceId;
+        private final String targetId;
+        private final GDPermissionHolder permissionSubject;
+        private final String permission;
+        private final String trust;
+        private final Tristate result;
+        private final List<Context> contexts;
+
+        Entry(Event event, Claim claim, Location location, String sourceId, String targetId, GDPermissionHolder permissionSubject, String permission, String trust, Tristate result, Set<Context> contexts) {
+            this.eventName = event == null ? null : event.getClass().getSimpleName().replace('$', '.').replace(".Impl", "");
+            this.claimUniqueId = claim == null ? null : claim.getUniqueId();
+            this.claimType = claim == null ? "none" : claim.getType().getName().toLowerCase();
+            this.worldName = location == null || location.getWorld() == null ? null : location.getWorld().getName();
+            this.x = location == null ? 0 : location.getBlockX();
+            this.y = location == null ? 0 : location.getBlockY();
+            this.z = location == null ? 0 : location.getBlockZ();
+            this.sourceId = sourceId;
+            this.targetId = targetId;
+            this.permissionSubject = permissionSubject;
+            this.permission = permission;
+            this.trust = trust;
+            this.result = result;
+            this.contexts = contexts == null ? Collections.emptyList() : new ArrayList<>(contexts);
+        }
+    }
+}
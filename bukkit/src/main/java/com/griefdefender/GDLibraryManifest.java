@@ -0,0 +1,168 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+/**
+ * Record of the libraries loaded on the last boot.
+ *
+ * <p>If the plugin version, server version and library files are unchanged,
+ * the recorded shaded jars are loaded as is. The library list is not
+ * parsed and nothing is relocated.</p>
+ */
+class GDLibraryManifest {
+
+    static final class Library {
+
+        final String name;
+        // Library SHA-1 and relocation rule hash the shaded jar was built with
+        final String key;
+        final File input;
+        final File shaded;
+        final long size;
+        final long modified;
+
+        Library(String name, String key, File input, File shaded) {
+            this(name, key, input, shaded, input.length(), input.lastModified());
+        }
+
+        Library(String name, String key, File input, File shaded, long size, long modified) {
+            this.name = name;
+            this.key = key;
+            this.input = input;
+            this.shaded = shaded;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        // Size and modified time stand in for the hash so warm boots never read the jars
+        boolean isCurrent() {
+            return this.input.exists() && this.input.length() == this.size && this.input.lastModified() == this.modified
+                    && this.shaded.exists();
+        }
+    }
+
+    private final String pluginVersion;
+    private final String serverVersion;
+    private final List<String> relocateList;
+    private final Map<String, Library> libraries;
+
+    GDLibraryManifest(String pluginVersion, String serverVersion, List<String> relocateList, Map<String, Library> libraries) {
+        this.pluginVersion = pluginVersion;
+        this.serverVersion = serverVersion;
+        this.relocateList = relocateList;
+        this.libraries = libraries;
+    }
+
+    List<String> getRelocateList() {
+        return this.relocateList;
+    }
+
+    Collection<Library> getLibraries() {
+        return this.libraries.values();
+    }
+
+    boolean isCurrent(String pluginVersion, String serverVersion) {
+        if (this.libraries.isEmpty() || !this.pluginVersion.equals(pluginVersion) || !this.serverVersion.equals(serverVersion)) {
+            return false;
+        }
+        for (Library library : this.libraries.values()) {
+            if (!library.isCurrent()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Whether the shaded jar built on a previous boot can be used again
+    boolean canReuse(String name, String key, File shaded) {
+        final Library library = this.libraries.get(name);
+        return library != null && library.key.equals(key) && library.shaded.equals(shaded) && library.isCurrent();
+    }
+
+    static GDLibraryManifest read(Path path) {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final JSONObject root = (JSONObject) new JSONParser().parse(reader);
+            final List<String> relocateList = new ArrayList<>();
+            for (Object relocate : (JSONArray) root.get("relocate")) {
+                relocateList.add((String) relocate);
+            }
+            final Map<String, Library> libraries = new LinkedHashMap<>();
+            final Iterator<JSONObject> iterator = ((JSONArray) root.get("libraries")).iterator();
+            while (iterator.hasNext()) {
+                final JSONObject lib = iterator.next();
+                final String name = (String) lib.get("name");
+                libraries.put(name, new Library(name, (String) lib.get("key"), new File((String) lib.get("path")), new File((String) lib.get("shaded")),
+                        (Long) lib.get("size"), (Long) lib.get("modified")));
+            }
+            return new GDLibraryManifest((String) root.get("plugin-version"), (String) root.get("server-version"), relocateList, libraries);
+        } catch (Throwable t) {
+            // An unreadable manifest only costs a cold boot
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void write(Path path) throws IOException {
+        final JSONObject root = new JSONObject();
+        root.put("plugin-version", this.pluginVersion);
+        root.put("server-version", this.serverVersion);
+        final JSONArray relocateList = new JSONArray();
+        relocateList.addAll(this.relocateList);
+        root.put("relocate", relocateList);
+        final JSONArray libraries = new JSONArray();
+        for (Library library : this.libraries.values()) {
+            final JSONObject lib = new JSONObject();
+            lib.put("name", library.name);
+            lib.put("key", library.key);
+            lib.put("path", library.input.getPath());
+            lib.put("shaded", library.shaded.getPath());
+            lib.put("size", library.size);
+            lib.put("modified", library.modified);
+            libraries.add(lib);
+        }
+        root.put("libraries", libraries);
+        Files.write(path, root.toJSONString().getBytes(StandardCharsets.UTF_8));
+    }
+}
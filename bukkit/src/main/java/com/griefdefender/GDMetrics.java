@@ -0,0 +1,268 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.griefdefender.cache.PermissionHolderCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-process performance metrics read by {@code /gd perf}.
+ *
+ * <p>Listener latencies are recorded through {@link GDTimings}, claim lookups
+ * and permission checks are counted at their entry points and cache hit
+ * ratios come from the caffeine caches in {@link PermissionHolderCache}.</p>
+ */
+public class GDMetrics {
+
+    public static final LongAdder CLAIM_LOOKUPS = new LongAdder();
+    public static final LongAdder PERMISSION_CHECKS = new LongAdder();
+
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Map<String, Supplier<CacheStats>> CACHES = new LinkedHashMap<>();
+    // Cache stats cannot be cleared so resets are applied as a baseline
+    private static final Map<String, CacheStats> CACHE_BASELINES = new ConcurrentHashMap<>();
+    private static volatile long resetTime = System.currentTimeMillis();
+
+    static {
+        CACHES.put("users", () -> PermissionHolderCache.getInstance().getUserCacheStats());
+        CACHES.put("permissions", () -> PermissionHolderCache.getInstance().getPermissionCacheStats());
+        CACHES.put("options", () -> PermissionHolderCache.getInstance().getOptionCacheStats());
+    }
+
+    public static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, Histogram::new);
+    }
+
+    public static List<Histogram> getHistograms() {
+        final List<Histogram> histograms = new ArrayList<>(HISTOGRAMS.values());
+        histograms.removeIf(histogram -> histogram.getCount() == 0);
+        Collections.sort(histograms, (a, b) -> Long.compare(b.getTotalNanos(), a.getTotalNanos()));
+        return histograms;
+    }
+
+    public static Map<String, CacheStats> getCacheStats() {
+        final Map<String, CacheStats> stats = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<CacheStats>> entry : CACHES.entrySet()) {
+            final CacheStats current = entry.getValue().get();
+            final CacheStats baseline = CACHE_BASELINES.get(entry.getKey());
+            stats.put(entry.getKey(), baseline == null ? current : current.minus(baseline));
+        }
+        return stats;
+    }
+
+    public static int getSaveQueueDepth() {
+        final GriefDefenderPlugin plugin = GriefDefenderPlugin.getInstance();
+        return plugin.claimWriteQueue == null ? 0 : plugin.claimWriteQueue.getPendingCount();
+    }
+
+    public static long getUptimeMillis() {
+        return System.currentTimeMillis() - resetTime;
+    }
+
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+        CLAIM_LOOKUPS.reset();
+        PERMISSION_CHECKS.reset();
+        for (Map.Entry<String, Supplier<CacheStats>> entry : CACHES.entrySet()) {
+            CACHE_BASELINES.put(entry.getKey(), entry.getValue().get());
+        }
+        resetTime = System.currentTimeMillis();
+    }
+
+    public static String toPrometheus() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("# TYPE griefdefender_listener_seconds summary\n");
+        for (Histogram histogram : getHistograms()) {
+            final String label = "{name=\"" + histogram.getName() + "\"";
+            for (double quantile : new double[] {0.5, 0.95, 0.99}) {
+                builder.append("griefdefender_listener_seconds").append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(toSeconds(histogram.getPercentile(quantile))).append('\n');
+            }
+            builder.append("griefdefender_listener_seconds_sum").append(label).append("} ").append(toSeconds(histogram.getTotalNanos())).append('\n');
+            builder.append("griefdefender_listener_seconds_count").append(label).append("} ").append(histogram.getCount()).append('\n');
+        }
+        builder.append("# TYPE griefdefender_claim_lookups_total counter\n");
+        builder.append("griefdefender_claim_lookups_total ").append(CLAIM_LOOKUPS.sum()).append('\n');
+        builder.append("# TYPE griefdefender_permission_checks_total counter\n");
+        builder.append("griefdefender_permission_checks_total ").append(PERMISSION_CHECKS.sum()).append('\n');
+        builder.append("# TYPE griefdefender_cache_hit_ratio gauge\n");
+        for (Map.Entry<String, CacheStats> entry : getCacheStats().entrySet()) {
+            builder.append("griefdefender_cache_hit_ratio{cache=\"").append(entry.getKey()).append("\"} ").append(entry.getValue().hitRate()).append('\n');
+        }
+        builder.append("# TYPE griefdefender_save_queue_depth gauge\n");
+        builder.append("griefdefender_save_queue_depth ").append(getSaveQueueDepth()).append('\n');
+        return builder.toString();
+    }
+
+    public static String toJson() {
+        final JsonObject root = new JsonObject();
+        root.addProperty("uptime_ms", getUptimeMillis());
+        final JsonObject listeners = new JsonObject();
+        for (Histogram histogram : getHistograms()) {
+            final JsonObject entry = new JsonObject();
+            entry.addProperty("count", histogram.getCount());
+            entry.addProperty("total_ms", toMillis(histogram.getTotalNanos()));
+            entry.addProperty("p50_ms", toMillis(histogram.getPercentile(0.5)));
+            entry.addProperty("p95_ms", toMillis(histogram.getPercentile(0.95)));
+            entry.addProperty("p99_ms", toMillis(histogram.getPercentile(0.99)));
+            entry.addProperty("max_ms", toMillis(histogram.getMaxNanos()));
+            listeners.add(histogram.getName(), entry);
+        }
+        root.add("listeners", listeners);
+        root.addProperty("claim_lookups", CLAIM_LOOKUPS.sum());
+        root.addProperty("permission_checks", PERMISSION_CHECKS.sum());
+        final JsonObject caches = new JsonObject();
+        for (Map.Entry<String, CacheStats> entry : getCacheStats().entrySet()) {
+            final JsonObject cache = new JsonObject();
+            cache.addProperty("hits", entry.getValue().hitCount());
+            cache.addProperty("misses", entry.getValue().missCount());
+            cache.addProperty("hit_ratio", entry.getValue().hitRate());
+            caches.add(entry.getKey(), cache);
+        }
+        root.add("caches", caches);
+        root.addProperty("save_queue_depth", getSaveQueueDepth());
+        return new GsonBuilder().setPrettyPrinting().create().toJson(root);
+    }
+
+    public static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Log-linear latency histogram.
+     *
+     * <p>Each power of two range is split into 8 linear sub-buckets, giving
+     * roughly 12% precision with a fixed 512 bucket footprint.</p>
+     */
+    public static class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(64 * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        Histogram(String name) {
+            this.name = name;
+        }
+
+        public void record(long nanos) {
+            if (nanos < 0) {
+                return;
+            }
+            this.buckets.incrementAndGet(bucketIndex(nanos));
+            this.count.increment();
+            this.total.add(nanos);
+            long currentMax = this.max.get();
+            while (nanos > currentMax && !this.max.compareAndSet(currentMax, nanos)) {
+                currentMax = this.max.get();
+            }
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public long getCount() {
+            return this.count.sum();
+        }
+
+        public long getTotalNanos() {
+            return this.total.sum();
+        }
+
+        public long getMaxNanos() {
+            return this.max.get();
+        }
+
+        // Returns the upper bound of the bucket containing the percentile
+        public long getPercentile(double percentile) {
+            final long count = this.getCount();
+            if (count == 0) {
+                return 0;
+            }
+            final long target = Math.max(1, (long) Math.ceil(count * percentile));
+            long seen = 0;
+            for (int i = 0; i < this.buckets.length(); i++) {
+                seen += this.buckets.get(i);
+                if (seen >= target) {
+                    return Math.min(bucketUpperBound(i), this.getMaxNanos());
+                }
+            }
+            return this.getMaxNanos();
+        }
+
+        void reset() {
+            for (int i = 0; i < this.buckets.length(); i++) {
+                this.buckets.set(i, 0);
+            }
+            this.count.reset();
+            this.total.reset();
+            this.max.set(0);
+        }
+
+        private static int bucketIndex(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+            final int subBucket = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        private static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            final int magnitude = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            final long subBucket = index % SUB_BUCKETS;
+            final int shift = magnitude - SUB_BUCKET_BITS;
+            return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+        }
+    }
+}
@@ -37,6 +37,7 @@
 import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.command.CommandSender;
@@ -61,18 +62,20 @@
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.configuration.MessageStorage;
 import com.griefdefender.internal.block.BlockSnapshot;
 import com.griefdefender.internal.block.BlockTransaction;
-import com.griefdefender.internal.util.NMSUtil;
 import com.griefdefender.permission.GDPermissionManager;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.permission.GDPermissions;
+import com.griefdefender.permission.option.GDOptionSnapshot;
 import com.griefdefender.permission.option.GDOptions;
 import com.griefdefender.provider.VaultProvider;
 import com.griefdefender.storage.BaseStorage;
 import com.griefdefender.task.ClaimVisualRevertTask;
 import com.griefdefender.util.PermissionUtil;
+import it.unimi.dsi.fastutil.longs.LongSet;
 
 import net.kyori.text.Component;
 
@@ -98,7 +101,7 @@ public class GDPlayerData implements PlayerData {
     public Map<UUID, List<BlockTransaction>> createBlockVisualTransactions = new HashMap<>();
     public Map<UUID, BukkitTask> claimVisualRevertTasks = new HashMap<>();
     public Map<UUID, List<BlockTransaction>> visualClaimBlocks = new HashMap<>();
-    public List<BlockSnapshot> queuedVisuals = new ArrayList<>();
+    public final GDVisualQueue visualQueue = new GDVisualQueue();
     public UUID tempVisualUniqueId = null;
     public UUID petRecipientUniqueId;
     private final VaultProvider vaultProvider = GriefDefenderPlugin.getInstance().getVaultProvider();
@@ -131,6 +134,15 @@ public class GDPlayerData implements PlayerData {
 
     public GameModeType lastGameMode = GameModeTypes.UNDEFINED;
 
+    // Resolved options of the claim the player was last checked in
+    private GDOptionSnapshot optionSnapshot;
+    // Claim the player was last seen standing in, see getCurrentClaim
+    private volatile CurrentClaim currentClaim;
+    // Reused on the main thread to read the player position without allocating
+    private final Location currentLocation = new Location(null, 0, 0, 0);
+    // Bumped when accrued or bonus blocks are set so cached balances can be validated
+    private volatile int claimBlockVersion;
+
     // teleport data
     public int teleportDelay = 0;
     public Location teleportSourceLocation;
@@ -343,8 +355,13 @@ private void revertVisualBlocks(Player player, GDClaim claim, UUID visualUniqueI
             }
         }
 
+        // Blocks still queued were never seen by the client
+        final LongSet unsent = this.visualQueue.removeVisual(visualUniqueId);
         for (int i = 0; i < visualTransactions.size(); i++) {
             BlockSnapshot snapshot = visualTransactions.get(i).getOriginal();
+            if (!unsent.isEmpty() && unsent.contains(GDVisualQueue.blockKey(snapshot.getPosition()))) {
+                continue;
+            }
             // If original block does not exist, do not send to player
             if (!snapshot.matchesWorldState()) {
                 if (claim != null) {
@@ -362,7 +379,7 @@ private void revertVisualBlocks(Player player, GDClaim claim, UUID visualUniqueI
             if (ignoreVisual) {
                 continue;
             }
-            NMSUtil.getInstance().sendBlockChange(player, snapshot);
+            this.visualQueue.queueRevert(snapshot);
         }
         if (claim != null) {
             claim.playersWatching.remove(this.playerID);
@@ -374,6 +391,74 @@ private void revertVisualBlocks(Player player, GDClaim claim, UUID visualUniqueI
         this.createBlockVisualTransactions.remove(visualUniqueId);
     }
 
+    public GDOptionSnapshot getOptionSnapshot(GDClaim claim, Player player) {
+        final GameMode gameMode = player.getGameMode();
+        if (this.optionSnapshot == null || !this.optionSnapshot.isValid(claim, gameMode)) {
+            this.optionSnapshot = new GDOptionSnapshot(this.getSubject(), claim, gameMode);
+        }
+        return this.optionSnapshot;
+    }
+
+    /**
+     * Gets the claim the player is standing in.
+     *
+     * <p>The claim resolved by the last move, teleport or lookup is reused until
+     * the player changes block or claims in the world are changed.</p>
+     *
+     * @param player The player
+     * @return The current claim
+     */
+    public GDClaim getCurrentClaim(Player player) {
+        if (!Bukkit.isPrimaryThread()) {
+            // Context calculation may run async so the cache is only read here
+            final Location location = player.getLocation();
+            final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(location.getWorld().getUID());
+            final CurrentClaim current = this.currentClaim;
+            if (current != null && current.matches(claimManager, location)) {
+                return current.claim;
+            }
+            return (GDClaim) claimManager.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        }
+        return this.updateCurrentClaim(player.getLocation(this.currentLocation));
+    }
+
+    // Called from the move and teleport handlers with the target location
+    public GDClaim updateCurrentClaim(Location location) {
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(location.getWorld().getUID());
+        final CurrentClaim current = this.currentClaim;
+        if (current != null && current.matches(claimManager, location)) {
+            return current.claim;
+        }
+
+        final GDClaim claim = (GDClaim) claimManager.getClaimAt(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        this.currentClaim = new CurrentClaim(claim, claimManager, location);
+        return claim;
+    }
+
+    private static final class CurrentClaim {
+
+        private final GDClaim claim;
+        private final GDClaimManager claimManager;
+        private final int claimVersion;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        CurrentClaim(GDClaim claim, GDClaimManager claimManager, Location location) {
+            this.claim = claim;
+            this.claimManager = claimManager;
+            this.claimVersion = claimManager.getClaimVersion();
+            this.x = location.getBlockX();
+            this.y = location.getBlockY();
+            this.z = location.getBlockZ();
+        }
+
+        boolean matches(GDClaimManager claimManager, Location location) {
+            return this.claimManager == claimManager && this.claimVersion == claimManager.getClaimVersion()
+                    && this.x == location.getBlockX() && this.y == location.getBlockY() && this.z == location.getBlockZ();
+        }
+    }
+
     @Override
     public int getBlocksAccruedPerHour() {
         final Integer value = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), this.getSubject(), Options.BLOCKS_ACCRUED_PER_HOUR);
@@ -526,6 +611,7 @@ public boolean setAccruedClaimBlocks(int newAccruedClaimBlocks, boolean checkMax
         }
 
         GDPermissionManager.getInstance().setOption(Options.ACCRUED_BLOCKS, this.getSubject(), String.valueOf(newAccruedClaimBlocks), new HashSet<>(this.optionContexts));
+        this.claimBlockVersion++;
         return true;
     }
 
@@ -535,6 +621,11 @@ public int getBonusClaimBlocks() {
 
     public void setBonusClaimBlocks(int bonusClaimBlocks) {
         GDPermissionManager.getInstance().setOption(Options.BONUS_BLOCKS, this.getSubject(), String.valueOf(bonusClaimBlocks), new HashSet<>(this.optionContexts));
+        this.claimBlockVersion++;
+    }
+
+    public int getClaimBlockVersion() {
+        return this.claimBlockVersion;
     }
 
     public CreateModeType getClaimCreateMode() {
@@ -852,11 +943,12 @@ public void onClaimDelete() {
     }
 
     public void onDisconnect() {
+        this.currentClaim = null;
         this.claimVisualRevertTasks.clear();
         this.visualClaimBlocks.clear();
         this.createBlockVisualTransactions.clear();
         this.createBlockVisualRevertRunnables.clear();
-        this.queuedVisuals.clear();
+        this.visualQueue.clear();
         this.claimMode = false;
         this.debugClaimPermissions = false;
         this.ignoreClaims = false;
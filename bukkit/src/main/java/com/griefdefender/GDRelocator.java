@@ -26,10 +26,20 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import com.griefdefender.util.BootstrapUtil;
 
@@ -40,6 +50,7 @@ public class GDRelocator {
 
     private static GDRelocator instance;
     private List<Relocation> rules;
+    private final String ruleHash;
 
     public static GDRelocator getInstance() {
         if (instance == null) {
@@ -49,31 +60,112 @@ public static GDRelocator getInstance() {
     }
 
     public GDRelocator() {
+        this(GDBootstrap.getInstance().getRelocateList());
+    }
+
+    GDRelocator(List<String> relocateList) {
         this.rules = new ArrayList<>();
-        for (String name : GDBootstrap.getInstance().getRelocateList()) {
+        for (String name : relocateList) {
             final String[] parts = name.split(":");
             final String key = parts[0];
             final String relocated = parts[1];
             this.rules.add(new Relocation(key, "com.griefdefender.lib." + relocated));
         }
+        this.ruleHash = hashRules(relocateList);
+    }
+
+    /**
+     * Relocates and injects each library.
+     *
+     * <p>Shaded jars recorded in the previous manifest with the same library
+     * hash and rules are reused, the rest are relocated in parallel.</p>
+     *
+     * @param jarMap The library name to jar map
+     * @param hashMap The library name to SHA-1 map
+     * @param previous The manifest of the previous boot, can be null
+     * @return The library name to manifest entry map
+     */
+    public Map<String, GDLibraryManifest.Library> relocateJars(Map<String, File> jarMap, Map<String, String> hashMap, GDLibraryManifest previous) {
+        final long start = System.nanoTime();
+        final Map<String, GDLibraryManifest.Library> libraries = new LinkedHashMap<>();
+        final List<GDLibraryManifest.Library> relocated = this.relocateStale(jarMap, hashMap, previous, libraries);
+        if (!relocated.isEmpty()) {
+            GDBootstrap.getInstance().logPhase("Relocated " + relocated.size() + " libraries", start);
+        }
+
+        for (GDLibraryManifest.Library library : libraries.values()) {
+            BootstrapUtil.addUrlToClassLoader(library.name, library.shaded);
+        }
+        return libraries;
     }
 
-    public void relocateJars(Map<String, File> jarMap) {
+    // Fills the manifest entries and returns the libraries that had to be relocated
+    List<GDLibraryManifest.Library> relocateStale(Map<String, File> jarMap, Map<String, String> hashMap, GDLibraryManifest previous,
+            Map<String, GDLibraryManifest.Library> libraries) {
+        final List<GDLibraryManifest.Library> pending = new ArrayList<>();
         for (Map.Entry<String, File> mapEntry : jarMap.entrySet()) {
             final String name = mapEntry.getKey();
             final File input = mapEntry.getValue();
             final File output = Paths.get(input.getParentFile().getPath()).resolve(input.getName().replace(".jar", "") + "-shaded.jar").toFile();
-            if (!output.exists()) {
-                // Relocate
-                JarRelocator relocator = new JarRelocator(input, output, this.rules);
-        
-                try {
-                    relocator.run();
-                } catch (IOException e) {
-                    throw new RuntimeException("Unable to relocate", e);
+            final GDLibraryManifest.Library library = new GDLibraryManifest.Library(name, hashMap.get(name) + ":" + this.ruleHash, input, output);
+            if (previous == null || !previous.canReuse(name, library.key, output)) {
+                pending.add(library);
+            }
+            libraries.put(name, library);
+        }
+
+        if (!pending.isEmpty()) {
+            final int threads = Math.min(pending.size(), Runtime.getRuntime().availableProcessors());
+            final ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                final List<Future<?>> futures = new ArrayList<>();
+                for (GDLibraryManifest.Library library : pending) {
+                    futures.add(executor.submit(() -> {
+                        this.relocate(library.input, library.shaded);
+                        return null;
+                    }));
                 }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Unable to relocate", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Unable to relocate", e);
+            } finally {
+                executor.shutdown();
+            }
+        }
+        return pending;
+    }
+
+    private void relocate(File input, File output) throws IOException {
+        // Write to a temporary file so an interrupted boot never leaves a partial jar behind
+        final File temp = new File(output.getPath() + ".tmp");
+        final JarRelocator relocator = new JarRelocator(input, temp, this.rules);
+        try {
+            relocator.run();
+            Files.move(temp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static String hashRules(List<String> relocateList) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance("SHA-1");
+            for (String relocate : relocateList) {
+                md.update(relocate.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) '\n');
+            }
+            final StringBuilder builder = new StringBuilder();
+            for (byte b : md.digest()) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
             }
-            BootstrapUtil.addUrlToClassLoader(name, output);
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
         }
     }
 }
@@ -0,0 +1,69 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import co.aikar.timings.lib.MCTiming;
+import org.bukkit.Bukkit;
+
+import java.util.Arrays;
+
+/**
+ * Forwards to the server timing and records the latency in {@link GDMetrics}.
+ *
+ * <p>Only main thread timings are recorded, nested starts of the same timing
+ * are tracked with a small stack.</p>
+ */
+class GDTiming extends MCTiming {
+
+    private final MCTiming timing;
+    private final GDMetrics.Histogram histogram;
+    private long[] startTimes = new long[4];
+    private int depth;
+
+    GDTiming(String name, MCTiming timing) {
+        this.timing = timing;
+        this.histogram = GDMetrics.histogram(name);
+    }
+
+    @Override
+    public MCTiming startTiming() {
+        this.timing.startTiming();
+        if (Bukkit.isPrimaryThread()) {
+            if (this.depth == this.startTimes.length) {
+                this.startTimes = Arrays.copyOf(this.startTimes, this.depth * 2);
+            }
+            this.startTimes[this.depth++] = System.nanoTime();
+        }
+        return this;
+    }
+
+    @Override
+    public void stopTiming() {
+        if (this.depth > 0 && Bukkit.isPrimaryThread()) {
+            this.histogram.record(System.nanoTime() - this.startTimes[--this.depth]);
+        }
+        this.timing.stopTiming();
+    }
+}
@@ -73,7 +73,7 @@ public class GDTimings {
     public static final MCTiming PROJECTILE_IMPACT_ENTITY_EVENT = GriefDefenderPlugin.timing("onProjectileImpactEntity");
     public static final MCTiming EXPLOSION_EVENT = GriefDefenderPlugin.timing("onExplosion");
     public static final MCTiming CLAIM_GETCLAIM = GriefDefenderPlugin.timing("getClaimAt");
-    public static final MCTiming WORLD_LOAD_EVENT = GriefDefenderPlugin.timing("onWorldSave");
+    public static final MCTiming WORLD_LOAD_EVENT = GriefDefenderPlugin.timing("onWorldLoad");
     public static final MCTiming WORLD_SAVE_EVENT = GriefDefenderPlugin.timing("onWorldSave");
-    public static final MCTiming WORLD_UNLOAD_EVENT = GriefDefenderPlugin.timing("onWorldSave");
+    public static final MCTiming WORLD_UNLOAD_EVENT = GriefDefenderPlugin.timing("onWorldUnload");
 }
@@ -0,0 +1,225 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import com.flowpowered.math.vector.Vector3i;
+import com.griefdefender.internal.block.BlockSnapshot;
+import com.griefdefender.internal.block.BlockTransaction;
+import com.griefdefender.internal.util.NMSUtil;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Client side block changes waiting to be sent to a player.
+ *
+ * <p>Changes are grouped by chunk section and sent a section at a time, limited
+ * to a number of blocks per tick. Visuals in sections outside the server view
+ * distance are held back until the player comes in range, and reverts for them
+ * are dropped since the client no longer has those chunks loaded. Held back
+ * visuals are dropped when their visual is reverted and do not count as an
+ * update in progress.</p>
+ *
+ * <p>Reverts may be queued from the async visual revert task so access is
+ * synchronized.</p>
+ */
+public class GDVisualQueue {
+
+    private final Long2ObjectLinkedOpenHashMap<List<Change>> sections = new Long2ObjectLinkedOpenHashMap<>();
+    private int size;
+    // Changes skipped for being out of range by the last send
+    private int heldBack;
+
+    public synchronized void queueVisual(UUID visualUniqueId, List<BlockTransaction> transactions) {
+        for (BlockTransaction transaction : transactions) {
+            this.queue(new Change(visualUniqueId, transaction.getFinal()));
+        }
+    }
+
+    public synchronized void queueRevert(BlockSnapshot snapshot) {
+        this.queue(new Change(null, snapshot));
+    }
+
+    private void queue(Change change) {
+        final Vector3i pos = change.snapshot.getPosition();
+        final long key = sectionKey(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4);
+        List<Change> changes = this.sections.get(key);
+        if (changes == null) {
+            changes = new ArrayList<>();
+            this.sections.put(key, changes);
+        }
+        changes.add(change);
+        this.size++;
+    }
+
+    /**
+     * Removes the visual changes of a visual that have not been sent yet.
+     *
+     * @param visualUniqueId The visual id
+     * @return The packed positions removed, these do not need to be reverted
+     */
+    public synchronized LongSet removeVisual(UUID visualUniqueId) {
+        final LongSet removed = new LongOpenHashSet();
+        final ObjectIterator<Long2ObjectMap.Entry<List<Change>>> iterator = this.sections.long2ObjectEntrySet().fastIterator();
+        while (iterator.hasNext()) {
+            final List<Change> changes = iterator.next().getValue();
+            final Iterator<Change> changeIterator = changes.iterator();
+            while (changeIterator.hasNext()) {
+                final Change change = changeIterator.next();
+                if (visualUniqueId.equals(change.visualUniqueId)) {
+                    removed.add(blockKey(change.snapshot.getPosition()));
+                    changeIterator.remove();
+                    this.size--;
+                }
+            }
+            if (changes.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        if (!removed.isEmpty()) {
+            // Recounted by the next send
+            this.heldBack = 0;
+        }
+        return removed;
+    }
+
+    /**
+     * Sends queued changes near the player.
+     *
+     * @param player The player
+     * @param budget The maximum amount of blocks to send
+     */
+    public synchronized void send(Player player, int budget) {
+        this.heldBack = 0;
+        if (this.size == 0) {
+            return;
+        }
+        final int viewDistance = Bukkit.getServer().getViewDistance();
+        final Location location = player.getLocation();
+        final int playerChunkX = location.getBlockX() >> 4;
+        final int playerChunkZ = location.getBlockZ() >> 4;
+        int sent = 0;
+        final ObjectIterator<Long2ObjectMap.Entry<List<Change>>> iterator = this.sections.long2ObjectEntrySet().fastIterator();
+        while (iterator.hasNext() && sent < budget) {
+            final Long2ObjectMap.Entry<List<Change>> entry = iterator.next();
+            final long key = entry.getLongKey();
+            final int distance = Math.max(Math.abs(sectionX(key) - playerChunkX), Math.abs(sectionZ(key) - playerChunkZ));
+            final List<Change> changes = entry.getValue();
+            if (distance > viewDistance) {
+                if (distance > viewDistance + 1) {
+                    this.dropReverts(changes);
+                    if (changes.isEmpty()) {
+                        iterator.remove();
+                    }
+                }
+                this.heldBack += changes.size();
+                continue;
+            }
+
+            final int count = Math.min(changes.size(), budget - sent);
+            for (int i = 0; i < count; i++) {
+                NMSUtil.getInstance().sendBlockChange(player, changes.get(i).snapshot);
+            }
+            changes.subList(0, count).clear();
+            this.size -= count;
+            sent += count;
+            if (changes.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void dropReverts(List<Change> changes) {
+        final Iterator<Change> iterator = changes.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().visualUniqueId == null) {
+                iterator.remove();
+                this.size--;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    public synchronized boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the amount of queued changes that are in range of the player, or
+     * are new since the last send.
+     *
+     * @return The amount of changes still being sent
+     */
+    public synchronized int getSendingCount() {
+        return this.size - this.heldBack;
+    }
+
+    public synchronized void clear() {
+        this.sections.clear();
+        this.size = 0;
+        this.heldBack = 0;
+    }
+
+    public static long blockKey(Vector3i pos) {
+        return ((long) pos.getX() & 0x3FFFFFF) << 38 | ((long) pos.getZ() & 0x3FFFFFF) << 12 | (pos.getY() & 0xFFF);
+    }
+
+    private static long sectionKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFF) << 42 | ((long) z & 0x3FFFFF) << 20 | (y & 0xFFFFF);
+    }
+
+    private static int sectionX(long key) {
+        return (int) (key >> 42);
+    }
+
+    private static int sectionZ(long key) {
+        return (int) (key << 22 >> 42);
+    }
+
+    private static class Change {
+
+        // Null for reverts
+        private final UUID visualUniqueId;
+        private final BlockSnapshot snapshot;
+
+        Change(UUID visualUniqueId, BlockSnapshot snapshot) {
+            this.visualUniqueId = visualUniqueId;
+            this.snapshot = snapshot;
+        }
+    }
+}
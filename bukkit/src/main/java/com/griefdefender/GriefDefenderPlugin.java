@@ -30,7 +30,6 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -38,13 +37,13 @@
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 
 import com.griefdefender.provider.permissionsex.PermissionsExProvider;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.LocaleUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
@@ -134,6 +133,7 @@
 import com.griefdefender.command.CommandClaimWorldEdit;
 import com.griefdefender.command.CommandDebug;
 import com.griefdefender.command.CommandGDReload;
+import com.griefdefender.command.CommandGDPerf;
 import com.griefdefender.command.CommandGDVersion;
 import com.griefdefender.command.CommandGiveBlocks;
 import com.griefdefender.command.CommandGivePet;
@@ -183,11 +183,11 @@
 import com.griefdefender.internal.registry.ItemTypeRegistryModule;
 import com.griefdefender.internal.schematic.GDClaimSchematic;
 import com.griefdefender.internal.util.NMSUtil;
-import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.listener.BlockEventHandler;
 import com.griefdefender.listener.BlockEventTracker;
 import com.griefdefender.listener.CommandEventHandler;
 import com.griefdefender.listener.EntityEventHandler;
+import com.griefdefender.listener.LuckPermsEventHandler;
 import com.griefdefender.listener.PlayerEventHandler;
 import com.griefdefender.listener.WorldEventHandler;
 import com.griefdefender.permission.ContextGroupKeys;
@@ -215,7 +215,10 @@
 import com.griefdefender.registry.TrustTypeRegistryModule;
 import com.griefdefender.registry.WeatherTypeRegistryModule;
 import com.griefdefender.storage.BaseStorage;
+import com.griefdefender.storage.BinaryStorage;
+import com.griefdefender.storage.ClaimWriteQueue;
 import com.griefdefender.storage.FileStorage;
+import com.griefdefender.storage.SqlStorage;
 import com.griefdefender.task.ClaimBlockTask;
 import com.griefdefender.task.ClaimCleanupTask;
 import com.griefdefender.task.PlayerTickTask;
@@ -223,6 +226,7 @@
 import com.griefdefender.task.RentDelinquentApplyTask;
 import com.griefdefender.task.SignUpdateTask;
 import com.griefdefender.task.TaxApplyTask;
+import com.griefdefender.util.BlacklistMatcher;
 import com.griefdefender.util.PermissionUtil;
 
 import co.aikar.commands.BaseCommand;
@@ -286,14 +290,16 @@ public class GriefDefenderPlugin {
     private List<BukkitRunnable> runningTasks = new ArrayList<>();
 
     public Executor executor;
+    public ClaimWriteQueue claimWriteQueue;
 
     public GDBlockType createVisualBlock;
     public GDItemType modificationTool;
     public GDItemType investigationTool;
 
     public static boolean debugLogging = false;
-    public static boolean debugActive = false;
-    private Map<String, GDDebugData> debugUserMap = new HashMap<>();
+    public static volatile boolean debugActive = false;
+    private Map<String, GDDebugData> debugUserMap = new ConcurrentHashMap<>();
+    private volatile GDDebugRecorder debugRecorder;
     public static final Component GD_TEXT = TextComponent.builder("").append("[").append("GD", TextColor.AQUA).append("] ").build();
     public static final List<String> ID_MAP = new ArrayList<>();
     public static List<Component> helpComponents = new ArrayList<>();
@@ -310,172 +316,19 @@ public Path getConfigPath() {
     }
 
     public static void addEventLogEntry(Event event, Claim claim, Location location, String sourceId, String targetId, GDPermissionHolder permissionSubject, String permission, String trust, Tristate result, Set<Context> contexts) {
-        final String eventName = event.getClass().getSimpleName().replace('$', '.').replace(".Impl", "");
-        final String eventLocation = location == null ? "none" : VecHelper.toVector3i(location).toString();
-        for (GDDebugData debugEntry : GriefDefenderPlugin.getInstance().getDebugUserMap().values()) {
-            final CommandSender debugSource = debugEntry.getSource();
-            final GDPermissionUser debugUser = debugEntry.getUser();
-            if (debugUser != null) {
-                if (permissionSubject == null) {
-                    continue;
-                }
-                // Check event source user
-                if (!permissionSubject.getIdentifier().equals(debugUser.getUniqueId().toString())) {
-                    continue;
-                }
-            } else if (debugEntry.getClaimUniqueId() != null) {
-                if (!claim.getUniqueId().equals(debugEntry.getClaimUniqueId())) {
-                    continue;
-                }
-            } else if (debugEntry.getFilter() != null) {
-                //check filter
-                final String filter = debugEntry.getFilter();
-                boolean match = false;
-                if (permission.contains(filter)) {
-                    match = true;
-                } else if (targetId.contains(filter)) {
-                    match = true;
-                } else if (sourceId.contains(filter)) {
-                    match = true;
-                } else {
-                    // check contexts
-                    for (Context context : contexts) {
-                        if (context.getKey().contains(filter)) {
-                            match = true;
-                            break;
-                        }
-                        if (context.getValue().contains(filter)) {
-                            match = true;
-                            break;
-                        }
-                    }
-                }
-                if (!match) {
-                    continue;
-                }
-            }
-
-            String messageUser = permissionSubject.getFriendlyName();
-            if (permissionSubject instanceof GDPermissionUser) {
-                messageUser = ((GDPermissionUser) permissionSubject).getName();
-            }
+        // Filtering and formatting are handled by the recorder thread
+        getInstance().getDebugRecorder().record(event, claim, location, sourceId, targetId, permissionSubject, permission, trust, result, contexts);
+    }
 
-            // record
-            if (debugEntry.isRecording()) {
-                permission = permission.replace("griefdefender.flag.", "");
-                String messageFlag = permission;
-                final Flag flag = FlagRegistryModule.getInstance().getById(permission).orElse(null);
-                if (flag != null) {
-                    messageFlag = flag.toString();
-                }
-                String messageSource = sourceId == null ? "none" : sourceId;
-                String messageTarget = targetId == null ? "none" : targetId;
-                if (messageTarget.endsWith(".0")) {
-                    messageTarget = messageTarget.substring(0, messageTarget.length() - 2);
-                }
-                if (trust == null) {
-                    trust = "none";
+    public GDDebugRecorder getDebugRecorder() {
+        if (this.debugRecorder == null) {
+            synchronized (this) {
+                if (this.debugRecorder == null) {
+                    this.debugRecorder = new GDDebugRecorder(getGlobalConfig().getConfig().debug.bufferSize);
                 }
-                // Strip minecraft id on bukkit
-                String[] parts = messageSource.split(":");
-                if (parts.length > 1 && parts[0].equalsIgnoreCase("minecraft")) {
-                    messageSource = parts[1];
-                }
-                parts = messageTarget.split(":");
-                if (parts.length > 1 && parts[0].equalsIgnoreCase("minecraft")) {
-                    messageTarget = parts[1];
-                }
-                String contextStr = "";
-                final List<String> contextList = new ArrayList<>();
-                for (Context context : contexts) {
-                    contextList.add("<b>" + context.getKey() + "</b>=" + context.getValue());
-                }
-                final String serverName = PermissionUtil.getInstance().getServerName();
-                if (serverName != null) {
-                    contextList.add("<b>server</b>=" + serverName);
-                } else {
-                    contextList.add("<b>server</b>=global");
-                }
-                Collections.sort(contextList);
-                for (int i = 0; i < contextList.size(); i++) { 
-                    contextStr += contextList.get(i);
-                    if (i % 2 != 0) {
-                        contextStr += "<br />";
-                    } else {
-                        if (i != contextList.size() - 1) {
-                            contextStr += ", ";
-                        }
-                    }
-                }
-
-                String locationStr = "";
-                locationStr += "<b>claim_uuid</b>=" + claim.getUniqueId() + "<br />";
-                locationStr += "<b>claim_type</b>=" + claim.getType().getName().toLowerCase() + "<br />";
-                locationStr += "<b>location</b>=" + eventLocation + "<br />";
-                locationStr += "<b>world</b>=" + location.getWorld().getName().toLowerCase() + "<br />";
-
-                String messageContexts = "<details>" + 
-                        "  <summary><i>" + PlainComponentSerializer.INSTANCE.serialize(MessageCache.getInstance().DEBUG_CLICK_TO_EXPAND) + "</i></summary>" + 
-                        contextStr +
-                        "</details>";
-                String messageLocation = "<details>" + 
-                        "  <summary><i>" + PlainComponentSerializer.INSTANCE.serialize(MessageCache.getInstance().DEBUG_CLICK_TO_EXPAND) + "</i></summary>" + 
-                        locationStr +
-                        "</details>";
-                debugEntry.addRecord(messageFlag, trust, messageSource, messageTarget, messageLocation, messageUser, messageContexts, result);
-                continue;
             }
-
-            final Component textEvent = TextComponent.builder("")
-                    .append(GD_TEXT)
-                    .append("Event: ", TextColor.GRAY)
-                    .append(eventName == null ? TextComponent.of("Plugin").color(TextColor.GRAY) : TextComponent.of(eventName).color(TextColor.GRAY))
-                    .append("\n").build();
-            final Component textCause = TextComponent.builder("")
-                    .append(GD_TEXT)
-                    .append("Cause: ", TextColor.GRAY)
-                    .append(sourceId, TextColor.LIGHT_PURPLE)
-                    .append("\n").build();
-            final Component textLocation = TextComponent.builder("")
-                    .append(GD_TEXT)
-                    .append("Location: ", TextColor.GRAY)
-                    .append(eventLocation == null ? "NONE" : eventLocation).build();
-            final Component textUser = TextComponent.builder("")
-                    .append("User: ", TextColor.GRAY)
-                    .append(messageUser, TextColor.GOLD)
-                    .append("\n").build();
-            final Component textLocationAndUser = TextComponent.builder("")
-                    .append(textLocation)
-                    .append(" ")
-                    .append(textUser).build();
-            Component textContext = null;
-            Component textPermission = null;
-            if (targetId != null) {
-                textContext = TextComponent.builder("")
-                        .append(GD_TEXT)
-                        .append("Target: ", TextColor.GRAY)
-                        .append(GDPermissionManager.getInstance().getPermissionIdentifier(targetId), TextColor.YELLOW)
-                        .append("\n").build();
-            }
-            if (permission != null) {
-                textPermission = TextComponent.builder("")
-                        .append(GD_TEXT)
-                        .append("Permission: ", TextColor.GRAY)
-                        .append(permission, TextColor.RED)
-                        .append("\n").build();
-            }
-            TextComponent.Builder textBuilder = TextComponent.builder("").append(textEvent);
-            if (textContext != null) {
-                textBuilder.append(textContext);
-            } else {
-                textBuilder.append(textCause);
-            }
-            if (textPermission != null) {
-                textBuilder.append(textPermission);
-            }
-            textBuilder.append(textLocationAndUser);
-            TextAdapter.sendComponent(debugSource, textBuilder.build());
         }
+        return this.debugRecorder;
     }
 
     public void onEnable() {
@@ -521,11 +374,17 @@ public void onEnable(boolean reload) {
             GriefDefender.getRegistry().registerBuilderSupplier(Claim.Builder.class, GDClaim.ClaimBuilder::new);
             GriefDefender.getRegistry().registerBuilderSupplier(FlagData.Builder.class, GDFlagData.FlagDataBuilder::new);
             GriefDefender.getRegistry().registerBuilderSupplier(FlagDefinition.Builder.class, GDFlagDefinition.FlagDefinitionBuilder::new);
+            if (this.permissionProvider instanceof LuckPermsProvider) {
+                new LuckPermsEventHandler(((LuckPermsProvider) this.permissionProvider).getApi());
+            }
         }
 
         this.loadConfig();
 
         this.executor = Executors.newFixedThreadPool(GriefDefenderPlugin.getGlobalConfig().getConfig().thread.numExecutorThreads);
+        if (this.claimWriteQueue == null) {
+            this.claimWriteQueue = new ClaimWriteQueue(GriefDefenderPlugin.getGlobalConfig().getConfig().thread.numExecutorThreads);
+        }
 
         if (Bukkit.getPluginManager().getPlugin("Vault") != null) {
             this.vaultProvider = new VaultProvider();
@@ -571,10 +430,17 @@ public void onEnable(boolean reload) {
 
         if (this.dataStore == null) {
             try {
-                this.dataStore = new FileStorage();
+                final String storageType = GriefDefenderPlugin.getGlobalConfig().getConfig().storage.type;
+                if (storageType.equalsIgnoreCase("binary")) {
+                    this.dataStore = new BinaryStorage();
+                } else if (storageType.equalsIgnoreCase("sql")) {
+                    this.dataStore = new SqlStorage();
+                } else {
+                    this.dataStore = new FileStorage();
+                }
                 this.dataStore.initialize();
             } catch (Exception e) {
-                this.getLogger().info("Unable to initialize file storage.");
+                this.getLogger().info("Unable to initialize claim storage.");
                 this.getLogger().info(e.getMessage());
                 e.printStackTrace();
                 return;
@@ -675,6 +541,17 @@ public void onDisable() {
     
             claimWorldManager.save();
         }
+        if (this.dataStore != null) {
+            this.dataStore.shutdown();
+        }
+        if (this.claimWriteQueue != null) {
+            this.claimWriteQueue.shutdown();
+            this.claimWriteQueue = null;
+        }
+        if (this.debugRecorder != null) {
+            this.debugRecorder.shutdown();
+            this.debugRecorder = null;
+        }
         this.getLogger().info("Save complete.");
     }
 
@@ -754,6 +631,7 @@ public void registerBaseCommands() {
         manager.registerCommand(new CommandDebug());
         manager.registerCommand(new CommandGDReload());
         manager.registerCommand(new CommandGDVersion());
+        manager.registerCommand(new CommandGDPerf());
         manager.registerCommand(new CommandGiveBlocks());
         manager.registerCommand(new CommandGivePet());
         manager.registerCommand(new CommandHelp());
@@ -1018,7 +896,7 @@ public void loadConfig() {
             BaseStorage.globalConfig.save();
             BaseStorage.USE_GLOBAL_PLAYER_STORAGE = !BaseStorage.globalConfig.getConfig().playerdata.useWorldPlayerData();
             GDFlags.populateFlagStatus();
-            PermissionHolderCache.getInstance().getOrCreatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER).invalidateAll();
+            PermissionHolderCache.getInstance().invalidateAllPermissionCache();
             CLAIM_BLOCK_SYSTEM = BaseStorage.globalConfig.getConfig().playerdata.claimBlockSystem;
             final GDBlockType defaultCreateVisualBlock = BlockTypeRegistryModule.getInstance().getById("minecraft:diamond_block").orElse(null);
             this.createVisualBlock = BlockTypeRegistryModule.getInstance().getById(BaseStorage.globalConfig.getConfig().visual.claimCreateStartBlock).orElse(defaultCreateVisualBlock);
@@ -1044,6 +922,7 @@ public void loadConfig() {
     
                     // refresh player data
                     final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+                    claimManager.refreshConfig();
                     for (GDPlayerData playerData : claimManager.getPlayerDataMap().values()) {
                         if (playerData.playerID.equals(WORLD_USER_UUID) || playerData.playerID.equals(ADMIN_USER_UUID) || playerData.playerID.equals(PUBLIC_UUID)) {
                             continue;
@@ -1150,89 +1029,49 @@ public static GDPermissionUser getOrCreateUser(UUID uuid) {
     }
 
     public static boolean isSourceIdBlacklisted(String flag, Object source, UUID worldUniqueId) {
-        final List<String> flagList = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.flagIdBlacklist.get(flag);
-        final boolean checkFlag = flagList != null && !flagList.isEmpty();
-        final boolean checkGlobal = !GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.globalSourceBlacklist.isEmpty();
-        if (!checkFlag && !checkGlobal) {
+        final BlacklistCategory globalBlacklist = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist;
+        final BlacklistMatcher flagMatcher = globalBlacklist.getFlagMatcher(flag);
+        final boolean checkGlobal = !globalBlacklist.globalSourceBlacklist.isEmpty();
+        if (flagMatcher == null && !checkGlobal) {
             return false;
         }
 
-        final GriefDefenderConfig<?> activeConfig = GriefDefenderPlugin.getActiveConfig(worldUniqueId);
         final String id = GDPermissionManager.getInstance().getPermissionIdentifier(source);
-        final String idNoMeta = GDPermissionManager.getInstance().getIdentifierWithoutMeta(id);
-
         // Check global
         if (checkGlobal) {
-            final BlacklistCategory blacklistCategory = activeConfig.getConfig().blacklist;
-            final List<String> globalSourceBlacklist = blacklistCategory.getGlobalSourceBlacklist();
-            if (globalSourceBlacklist == null) {
+            final BlacklistMatcher globalMatcher = GriefDefenderPlugin.getActiveConfig(worldUniqueId).getConfig().blacklist.getGlobalSourceMatcher();
+            if (globalMatcher == null) {
                 return false;
             }
-            for (String str : globalSourceBlacklist) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
+            if (globalMatcher.matches(id)) {
+                return true;
             }
         }
         // Check flag
-        if (checkFlag) {
-            for (String str : flagList) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return flagMatcher != null && flagMatcher.matches(id);
     }
 
     public static boolean isTargetIdBlacklisted(String flag, Object target, UUID worldUniqueId) {
-        final List<String> flagList = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.flagIdBlacklist.get(flag);
-        final boolean checkFlag = flagList != null && !flagList.isEmpty();
-        final boolean checkGlobal = !GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist.globalTargetBlacklist.isEmpty();
-        if (!checkFlag && !checkGlobal) {
+        final BlacklistCategory globalBlacklist = GriefDefenderPlugin.getGlobalConfig().getConfig().blacklist;
+        final BlacklistMatcher flagMatcher = globalBlacklist.getFlagMatcher(flag);
+        final boolean checkGlobal = !globalBlacklist.globalTargetBlacklist.isEmpty();
+        if (flagMatcher == null && !checkGlobal) {
             return false;
         }
 
-        final GriefDefenderConfig<?> activeConfig = GriefDefenderPlugin.getActiveConfig(worldUniqueId);
         final String id = GDPermissionManager.getInstance().getPermissionIdentifier(target);
-        final String idNoMeta = GDPermissionManager.getInstance().getIdentifierWithoutMeta(id);
-
         // Check global
         if (checkGlobal) {
-            final BlacklistCategory blacklistCategory = activeConfig.getConfig().blacklist;
-            final List<String> globalTargetBlacklist = blacklistCategory.getGlobalTargetBlacklist();
-            if (globalTargetBlacklist == null) {
+            final BlacklistMatcher globalMatcher = GriefDefenderPlugin.getActiveConfig(worldUniqueId).getConfig().blacklist.getGlobalTargetMatcher();
+            if (globalMatcher == null) {
                 return false;
             }
-            for (String str : globalTargetBlacklist) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
+            if (globalMatcher.matches(id)) {
+                return true;
             }
         }
         // Check flag
-        if (checkFlag) {
-            for (String str : flagList) {
-                if (FilenameUtils.wildcardMatch(id, str)) {
-                    return true;
-                }
-                if (FilenameUtils.wildcardMatch(idNoMeta, str)) {
-                    return true;
-                }
-            }
-        }
-
-        return false;
+        return flagMatcher != null && flagMatcher.matches(id);
     }
 
     public boolean isEconomyModeEnabled() {
@@ -1292,6 +1131,6 @@ public static int getMajorMinecraftVersion() {
     }
 
     public static MCTiming timing(String name) {
-        return timingManager.of(name);
+        return new GDTiming(name, timingManager.of(name));
     }
 }
@@ -0,0 +1,76 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.cache;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.permission.Context;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+public class PermissionCacheKey {
+
+    // Null for lookups that do not target a claim
+    private final UUID claimUniqueId;
+    private final String permission;
+    // Includes source, target, world and player contexts of the event
+    private final Set<Context> contexts;
+    private final int hashCode;
+
+    public PermissionCacheKey(UUID claimUniqueId, String permission, Set<Context> contexts) {
+        this.claimUniqueId = claimUniqueId;
+        this.permission = permission;
+        this.contexts = ImmutableSet.copyOf(contexts);
+        int result = Objects.hashCode(claimUniqueId);
+        result = 31 * result + permission.hashCode();
+        result = 31 * result + this.contexts.hashCode();
+        this.hashCode = result;
+    }
+
+    public UUID getClaimUniqueId() {
+        return this.claimUniqueId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PermissionCacheKey)) {
+            return false;
+        }
+        final PermissionCacheKey that = (PermissionCacheKey) o;
+        return this.hashCode == that.hashCode
+                && Objects.equals(this.claimUniqueId, that.claimUniqueId)
+                && this.permission.equals(that.permission)
+                && this.contexts.equals(that.contexts);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+}
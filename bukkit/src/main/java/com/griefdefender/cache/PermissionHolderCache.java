@@ -26,6 +26,9 @@
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.Tristate;
 import com.griefdefender.permission.GDPermissionGroup;
@@ -36,18 +39,30 @@
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
+import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class PermissionHolderCache {
 
     private static PermissionHolderCache instance;
+    // Bounds for the per holder result caches
+    private static final int MAX_CACHED_HOLDERS = 1000;
+    private static final int MAX_CACHED_RESULTS = 2000;
     private final Cache<UUID, GDPermissionUser> userCache = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
-            .build();
+            .recordStats().build();
     private final Cache<String, GDPermissionGroup> groupCache = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES)
             .build();
-    private final ConcurrentHashMap<GDPermissionHolder, Cache<Integer, Tristate>> permissionCache = new ConcurrentHashMap<>();
+    private final Cache<GDPermissionHolder, Cache<PermissionCacheKey, Tristate>> permissionCache = Caffeine.newBuilder().maximumSize(MAX_CACHED_HOLDERS)
+            .expireAfterAccess(10, TimeUnit.MINUTES).build();
+    private final Cache<GDPermissionHolder, Cache<PermissionCacheKey, Object>> optionCache = Caffeine.newBuilder().maximumSize(MAX_CACHED_HOLDERS)
+            .expireAfterAccess(10, TimeUnit.MINUTES).build();
+    // Shared by every holder cache so stats survive invalidation
+    private final StatsCounter permissionCacheStats = new ConcurrentStatsCounter();
+    private final StatsCounter optionCacheStats = new ConcurrentStatsCounter();
+    // Incremented on every invalidation so snapshots built from cached data can detect staleness
+    private final AtomicInteger cacheVersion = new AtomicInteger();
 
     public GDPermissionUser getOrCreateUser(OfflinePlayer user) {
         if (user == null) {
@@ -68,14 +83,7 @@ public GDPermissionUser getOrCreateUser(UUID uuid) {
             return GriefDefenderPlugin.WORLD_USER;
         }
 
-        GDPermissionUser holder = this.userCache.getIfPresent(uuid);
-        if (holder != null) {
-            return holder;
-        }
-
-        holder = new GDPermissionUser(uuid);
-        this.userCache.put(uuid, holder);
-        return holder;
+        return this.userCache.get(uuid, GDPermissionUser::new);
     }
 
     public GDPermissionUser getOrCreateUser(String username) {
@@ -96,14 +104,7 @@ public GDPermissionGroup getOrCreateGroup(String groupName) {
         if (groupName == null) {
             return null;
         }
-        GDPermissionGroup holder = this.groupCache.getIfPresent(groupName);
-        if (holder != null) {
-            return holder;
-        }
-
-        holder = new GDPermissionGroup(groupName);
-        this.groupCache.put(groupName, holder);
-        return holder;
+        return this.groupCache.get(groupName, GDPermissionGroup::new);
     }
 
     public GDPermissionHolder getOrCreateHolder(String identifier) {
@@ -120,19 +121,67 @@ public GDPermissionHolder getOrCreateHolder(String identifier) {
         return this.getOrCreateUser(uuid);
     }
 
-    public Cache<Integer, Tristate> getOrCreatePermissionCache(GDPermissionHolder holder) {
-        Cache<Integer, Tristate> cache = this.permissionCache.get(holder);
-        if (cache == null) {
-            cache = Caffeine.newBuilder().expireAfterAccess(10, TimeUnit.MINUTES).build();
-            this.permissionCache.put(holder, cache);
+    public Cache<PermissionCacheKey, Tristate> getOrCreatePermissionCache(GDPermissionHolder holder) {
+        return this.permissionCache.get(holder, k -> Caffeine.newBuilder().maximumSize(MAX_CACHED_RESULTS).expireAfterAccess(10, TimeUnit.MINUTES)
+                .recordStats(() -> this.permissionCacheStats).build());
+    }
+
+    public Cache<PermissionCacheKey, Object> getOrCreateOptionCache(GDPermissionHolder holder) {
+        return this.optionCache.get(holder, k -> Caffeine.newBuilder().maximumSize(MAX_CACHED_RESULTS).expireAfterAccess(10, TimeUnit.MINUTES)
+                .recordStats(() -> this.optionCacheStats).build());
+    }
+
+    public CacheStats getUserCacheStats() {
+        return this.userCache.stats();
+    }
+
+    public CacheStats getPermissionCacheStats() {
+        return this.permissionCacheStats.snapshot();
+    }
+
+    public CacheStats getOptionCacheStats() {
+        return this.optionCacheStats.snapshot();
+    }
+
+    public int getCacheVersion() {
+        return this.cacheVersion.get();
+    }
+
+    public void invalidatePermissionCache(GDPermissionHolder holder) {
+        final Cache<PermissionCacheKey, Tristate> cache = this.permissionCache.getIfPresent(holder);
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+        final Cache<PermissionCacheKey, Object> options = this.optionCache.getIfPresent(holder);
+        if (options != null) {
+            options.invalidateAll();
         }
-        return cache;
+        this.cacheVersion.incrementAndGet();
+    }
+
+    /**
+     * Removes the cached results of every holder for the given claims only.
+     *
+     * @param claimUniqueIds The claims whose results are stale
+     */
+    public void invalidateClaimPermissionCache(Set<UUID> claimUniqueIds) {
+        for (Cache<PermissionCacheKey, Tristate> cache : this.permissionCache.asMap().values()) {
+            cache.asMap().keySet().removeIf(key -> claimUniqueIds.contains(key.getClaimUniqueId()));
+        }
+        for (Cache<PermissionCacheKey, Object> cache : this.optionCache.asMap().values()) {
+            cache.asMap().keySet().removeIf(key -> claimUniqueIds.contains(key.getClaimUniqueId()));
+        }
+        this.cacheVersion.incrementAndGet();
     }
 
     public void invalidateAllPermissionCache() {
-        for (Cache<Integer, Tristate> cache : this.permissionCache.values()) {
+        for (Cache<PermissionCacheKey, Tristate> cache : this.permissionCache.asMap().values()) {
+            cache.invalidateAll();
+        }
+        for (Cache<PermissionCacheKey, Object> cache : this.optionCache.asMap().values()) {
             cache.invalidateAll();
         }
+        this.cacheVersion.incrementAndGet();
     }
 
     static {
@@ -46,7 +46,7 @@ public void calculate(@NonNull Player player, @NonNull ContextConsumer contextSe
             return;
         }
 
-        GDClaim sourceClaim = GriefDefenderPlugin.getInstance().dataStore.getClaimAtPlayer(playerData, player.getLocation());
+        GDClaim sourceClaim = playerData.getCurrentClaim(player);
         if (sourceClaim != null) {
             if (playerData == null || playerData.canIgnoreClaim(sourceClaim)) {
                 return;
@@ -61,7 +61,6 @@
 import com.griefdefender.configuration.IClaimData;
 import com.griefdefender.configuration.MessageStorage;
 import com.griefdefender.configuration.TownDataConfig;
-import com.griefdefender.configuration.TownStorageData;
 import com.griefdefender.event.GDCauseStackManager;
 import com.griefdefender.event.GDChangeClaimEvent;
 import com.griefdefender.event.GDCreateClaimEvent;
@@ -86,6 +85,8 @@
 import com.griefdefender.util.EconomyUtil;
 import com.griefdefender.util.PermissionUtil;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.kyori.text.Component;
 import net.kyori.text.TextComponent;
 import net.kyori.text.format.TextColor;
@@ -149,7 +150,8 @@ public class GDClaim implements Claim {
     public Map<String, ClaimSchematic> schematics = new HashMap<>();
     public Set<UUID> playersWatching = new HashSet<>();
     public Set<Claim> children = new HashSet<>();
-    public Set<Long> loadedChunkHashes = new HashSet<>();
+    public final LongSet loadedChunkHashes = new LongOpenHashSet();
+    public final GDEntityCounter entityCounter = new GDEntityCounter(this);
 
     private GDPlayerData ownerPlayerData;
 
@@ -225,19 +227,8 @@ public void initializeClaimData(GDClaim parent) {
         } else {
             claimDataFolderPath = BaseStorage.worldConfigMap.get(this.world.getUID()).getPath().getParent().resolve("ClaimData").resolve(this.type.getName().toLowerCase());
         }
-        try {
-            if (Files.notExists(claimDataFolderPath)) {
-                Files.createDirectories(claimDataFolderPath);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        File claimFile = new File(claimDataFolderPath + File.separator + this.id);
-        if (this.isTown()) {
-            this.claimStorage = new TownStorageData(claimFile.toPath(), this.world.getUID(), this.ownerUniqueId, this.cuboid);
-        } else {
-            this.claimStorage = new ClaimStorageData(claimFile.toPath(), this.world.getUID(), this.ownerUniqueId, this.type, this.cuboid);
-        }
+        final Path claimFilePath = claimDataFolderPath.resolve(this.id.toString());
+        this.claimStorage = GriefDefenderPlugin.getInstance().dataStore.createClaimStorage(claimFilePath, this.world.getUID(), this.ownerUniqueId, this.type, this.cuboid);
         this.claimData = this.claimStorage.getConfig();
         this.parent = parent;
         if (parent != null) {
@@ -596,7 +587,7 @@ public boolean contains(Vector3i pos, GDPlayerData playerData, boolean useBorder
     public boolean contains(int x, int y, int z, boolean excludeChildren, GDPlayerData playerData, boolean useBorderBlockRadius) {
         int borderBlockRadius = 0;
         if (useBorderBlockRadius && (playerData != null && !playerData.bypassBorderCheck)) {
-            final int borderRadiusConfig = GriefDefenderPlugin.getActiveConfig(this.world.getUID()).getConfig().claim.borderBlockRadius;
+            final int borderRadiusConfig = this.worldClaimManager.getBorderBlockRadius();
             if (borderRadiusConfig > 0 && !this.isUserTrusted(playerData.getSubject(), TrustTypes.BUILDER)) {
                 borderBlockRadius = borderRadiusConfig;
             }
@@ -763,11 +754,18 @@ public ArrayList<Vector3i> getChunkPositions() {
 
     public List<Chunk> getLoadedChunks() {
         List<Chunk> chunks = new ArrayList<>();
-        for (long chunkHash : this.getChunkHashes()) {
-            final GDChunk gdChunk = this.worldClaimManager.getChunk(chunkHash);
-            if (gdChunk != null) {
-                chunks.add(gdChunk.getHandle());
+        if (this.isWilderness()) {
+            for (long chunkHash : this.loadedChunkHashes) {
+                final GDChunk gdChunk = this.worldClaimManager.getChunk(chunkHash);
+                if (gdChunk != null) {
+                    chunks.add(gdChunk.getHandle());
+                }
             }
+            return chunks;
+        }
+        for (GDChunk gdChunk : this.worldClaimManager.getLoadedChunks(this.lesserBoundaryCorner.getX() >> 4, this.lesserBoundaryCorner.getZ() >> 4,
+                this.greaterBoundaryCorner.getX() >> 4, this.greaterBoundaryCorner.getZ() >> 4)) {
+            chunks.add(gdChunk.getHandle());
         }
         return chunks;
     }
@@ -850,24 +848,20 @@ public Set<Long> getChunkHashes(boolean refresh) {
         if (this.isWilderness()) {
             return this.loadedChunkHashes;
         }
+        // Only built on request, the claim manager indexes claims by chunk bounds
         if (this.chunkHashes == null || refresh) {
-            this.chunkHashes = new HashSet<Long>();
             int smallX = this.lesserBoundaryCorner.getX() >> 4;
             int smallZ = this.lesserBoundaryCorner.getZ() >> 4;
             int largeX = this.greaterBoundaryCorner.getX() >> 4;
             int largeZ = this.greaterBoundaryCorner.getZ() >> 4;
 
-            this.loadedChunkHashes.clear();
+            final LongSet chunkHashes = new LongOpenHashSet();
             for (int x = smallX; x <= largeX; x++) {
                 for (int z = smallZ; z <= largeZ; z++) {
-                    this.chunkHashes.add(BlockUtil.getInstance().asLong(x, z));
-                    final GDChunk gdChunk = this.worldClaimManager.getChunkIfLoaded(x, z);
-                    if (gdChunk != null) {
-                        this.loadedChunkHashes.add(gdChunk.getChunkKey());
-                        ((GDClaim) this.wildernessClaim).loadedChunkHashes.remove(gdChunk.getChunkKey());
-                    }
+                    chunkHashes.add(BlockUtil.getInstance().asLong(x, z));
                 }
             }
+            this.chunkHashes = chunkHashes;
         }
 
         return this.chunkHashes;
@@ -916,6 +910,19 @@ public void updateClaimStorageData() {
         this.claimData.setRequiresSave(true);
     }
 
+    // Whether this claim or any of its children has unsaved changes
+    public boolean requiresSave() {
+        if (this.getInternalClaimData().requiresSave()) {
+            return true;
+        }
+        for (Claim child : this.children) {
+            if (((GDClaim) child).requiresSave()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void save() {
         for (Claim child : this.children) {
             GDClaim childClaim = (GDClaim) child;
@@ -992,7 +999,9 @@ public ClaimResult transferOwner(UUID newOwnerID, boolean checkEconomy, boolean
             this.claimData.setType(ClaimTypes.BASIC);
         }
 
+        final UUID oldOwnerUniqueId = this.ownerUniqueId;
         this.ownerUniqueId = event.getNewOwner();
+        GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID()).updateOwnerIndex(this, oldOwnerUniqueId);
         if (!this.getOwnerUniqueId().equals(newOwnerID)) {
             newOwnerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(this.world, this.getOwnerUniqueId());
         }
@@ -1040,21 +1049,10 @@ public ClaimResult doesClaimOverlap() {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
-        final Set<Long> chunkHashes = this.getChunkHashes(true);
-
-        // Since there is no parent we need to check all claims stored in chunk hashes
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null || claimsInChunk.size() == 0) {
-                continue;
-            }
-            for (Claim child : claimsInChunk) {
-                final GDClaim gpChild = (GDClaim) child;
-                // First check if newly resized claim is crossing another
-                if (this.isBandingAcross(gpChild) || gpChild.isBandingAcross(this)) {
-                    return new GDClaimResult(child, ClaimResultType.OVERLAPPING_CLAIM);
-                }
-            }
+        // Since there is no parent we need to check all top level claims within the claim's chunks
+        final GDOverlapReport.Overlap crossing = claimWorldManager.getOverlapReport(this).getFirst(GDOverlapReport.OverlapType.CROSSING);
+        if (crossing != null) {
+            return new GDClaimResult(crossing.getClaim(), ClaimResultType.OVERLAPPING_CLAIM);
         }
 
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
@@ -1098,46 +1096,40 @@ public ClaimResult checkArea(boolean resize) {
         }
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
-        final Set<Long> chunkHashes = this.getChunkHashes(true);
+        final GDOverlapReport report = claimWorldManager.getOverlapReport(this);
 
-        // Since there is no parent we need to check all claims stored in chunk hashes
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null || claimsInChunk.size() == 0) {
+        // Since there is no parent we need to check all top level claims within the claim's chunks
+        for (GDOverlapReport.Overlap overlap : report.getOverlaps()) {
+            final GDClaim gpChunkClaim = overlap.getClaim();
+            if (claimsInArea.contains(gpChunkClaim)) {
+                continue;
+            }
+            if (this.isAdminClaim() && gpChunkClaim.isAdminClaim() && gpChunkClaim.parent != null && gpChunkClaim.parent.equals(this)) {
                 continue;
             }
-            for (Claim chunkClaim : claimsInChunk) {
-                final GDClaim gpChunkClaim = (GDClaim) chunkClaim;
-                if (gpChunkClaim.equals(this) || claimsInArea.contains(gpChunkClaim)) {
-                    continue;
-                }
-                if (this.isAdminClaim() && gpChunkClaim.isAdminClaim() && gpChunkClaim.parent != null && gpChunkClaim.parent.equals(this)) {
-                    continue;
-                }
 
-                // First check if new claim is crossing another
-                if (this.isBandingAcross(gpChunkClaim) || gpChunkClaim.isBandingAcross(this)) {
-                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                }
-                if (gpChunkClaim.isInside(this)) {
-                     if (!this.isAdminClaim()) {
-                        if (this.type.equals(gpChunkClaim.type) || gpChunkClaim.isAdminClaim()) {
-                            return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                        }
-                    }
-                    if (!this.canEnclose(gpChunkClaim)) {
-                        return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
-                    }
-                    if (!this.isSubdivision()) {
-                        claimsInArea.add(gpChunkClaim);
-                    }
-                } else if (this.isInside(gpChunkClaim)) {
-                    // Fix WorldEdit issue
-                    // Make sure to check if chunk claim can enclose newly created claim
-                    if (!gpChunkClaim.canEnclose(this)) {
+            // First check if new claim is crossing another
+            if (overlap.getType() == GDOverlapReport.OverlapType.CROSSING) {
+                return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+            }
+            if (overlap.getType() == GDOverlapReport.OverlapType.INSIDE) {
+                 if (!this.isAdminClaim()) {
+                    if (this.type.equals(gpChunkClaim.type) || gpChunkClaim.isAdminClaim()) {
                         return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
                     }
                 }
+                if (!this.canEnclose(gpChunkClaim)) {
+                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                }
+                if (!this.isSubdivision()) {
+                    claimsInArea.add(gpChunkClaim);
+                }
+            } else {
+                // Fix WorldEdit issue
+                // Make sure to check if chunk claim can enclose newly created claim
+                if (!gpChunkClaim.canEnclose(this)) {
+                    return new GDClaimResult(gpChunkClaim, ClaimResultType.OVERLAPPING_CLAIM);
+                }
             }
         }
 
@@ -1339,10 +1331,6 @@ public ClaimResult resize(int x1, int x2, int y1, int y2, int z1, int z2) {
         this.lesserBoundaryCorner = newLesserCorner;
         this.greaterBoundaryCorner = newGreaterCorner;
 
-        // checkArea refreshes the current chunk hashes so it is important
-        // to make a copy before making the call
-        final Set<Long> currentChunkHashes = new HashSet<>(this.chunkHashes);
-
         final ClaimResult result = this.checkArea(true);
         if (!result.successful()) {
             this.lesserBoundaryCorner = currentLesserCorner;
@@ -1419,26 +1407,13 @@ public ClaimResult resize(int x1, int x2, int y1, int y2, int z1, int z2) {
         this.greaterBoundaryCorner = newGreaterCorner;
         GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(this.world.getUID());
 
-        // resize validated, remove invalid chunkHashes
+        // resize validated, reindex chunks
+        this.chunkHashes = null;
+        this.entityCounter.invalidate();
         if (this.parent == null) {
-            for (Long chunkHash : currentChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk != null && claimsInChunk.size() > 0) {
-                    claimsInChunk.remove(this);
-                }
-            }
-
-            final Set<Long> newChunkHashes = this.getChunkHashes(true);
-            // add new chunk hashes
-            for (Long chunkHash : newChunkHashes) {
-                Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(chunkHash);
-                if (claimsInChunk == null) {
-                    claimsInChunk = new HashSet<>();
-                    claimWorldManager.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
-                }
-
-                claimsInChunk.add(this);
-            }
+            claimWorldManager.updateChunkHashes(this);
+        } else {
+            claimWorldManager.updateClaimIndex(this);
         }
 
         this.claimData.setLesserBoundaryCorner(BlockUtil.getInstance().posToString(this.lesserBoundaryCorner));
@@ -1860,14 +1835,12 @@ public ClaimResult changeType(ClaimType type, Optional<UUID> ownerUniqueId, Comm
         final String fileName = this.getClaimStorage().filePath.getFileName().toString();
         final Path newPath = this.getClaimStorage().folderPath.getParent().resolve(type.getName().toLowerCase()).resolve(fileName);
         try {
-            if (Files.notExists(newPath.getParent())) {
-                Files.createDirectories(newPath.getParent());
-            }
-            Files.move(this.getClaimStorage().filePath, newPath);
+            final BaseStorage dataStore = GriefDefenderPlugin.getInstance().dataStore;
+            final ClaimStorageData movedStorage = dataStore.moveClaimStorage(this.getClaimStorage(), newPath, this.getWorldUniqueId(), (ClaimDataConfig) this.getInternalClaimData());
             if (type == ClaimTypes.TOWN) {
-                this.setClaimStorage(new TownStorageData(newPath, this.getWorldUniqueId(), newOwnerUUID, this.cuboid));
+                this.setClaimStorage(dataStore.createClaimStorage(newPath, this.getWorldUniqueId(), newOwnerUUID, type, this.cuboid));
             } else {
-                this.setClaimStorage(new ClaimStorageData(newPath, this.getWorldUniqueId(), (ClaimDataConfig) this.getInternalClaimData()));
+                this.setClaimStorage(movedStorage);
             }
             this.claimData = this.claimStorage.getConfig();
             this.getClaimStorage().save();
@@ -1907,10 +1880,12 @@ public ClaimResult changeType(ClaimType type, Optional<UUID> ownerUniqueId, Comm
             }
         }
 
+        final UUID oldOwnerUniqueId = this.ownerUniqueId;
         if (!newOwnerUUID.equals(GriefDefenderPlugin.ADMIN_USER_UUID)) {
             this.setOwnerUniqueId(newOwnerUUID);
         }
         this.setType(type);
+        claimWorldManager.updateOwnerIndex(this, oldOwnerUniqueId);
         this.claimVisual = null;
         this.getInternalClaimData().setRequiresSave(true);
         this.getClaimStorage().save();
@@ -1995,6 +1970,10 @@ public ClaimResult validateClaimType(ClaimType type, UUID newOwnerUUID, GDPlayer
     }
 
     public int getSpawnLimit(Set<Context> contexts) {
+        return this.entityCounter.getSpawnLimit(contexts);
+    }
+
+    int resolveSpawnLimit(Set<Context> contexts) {
         final List<Claim> parents = this.getParents(true);
         for (Claim claim : parents) {
             final int parentSpawnLimit = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), GriefDefenderPlugin.DEFAULT_HOLDER, Options.SPAWN_LIMIT, claim, new HashSet<>(contexts));
@@ -2007,16 +1986,7 @@ public int getSpawnLimit(Set<Context> contexts) {
     }
 
     public int countEntities(Entity spawnedEntity) {
-        int count = 0;
-        for (Chunk chunk : this.getChunks()) {
-            for (Entity entity : chunk.getEntities()) {
-                if (spawnedEntity.getType() == entity.getType()) {
-                    count++;
-                }
-            }
-        }
-
-        return count;
+        return this.entityCounter.getCount(spawnedEntity.getType());
     }
 
     @Override
@@ -2107,40 +2077,8 @@ public boolean isUserTrusted(GDPermissionUser user, TrustType type, Set<Context>
             return true;
         }
 
-        if (type == TrustTypes.ACCESSOR) {
-            if (this.claimData.getAccessors().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getContainers().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.BUILDER) {
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.CONTAINER) {
-            if (this.claimData.getContainers().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(user.getUniqueId())) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
-        } else if (type == TrustTypes.MANAGER) {
-            if (this.claimData.getManagers().contains(user.getUniqueId())) {
-                return true;
-            }
+        if (this.claimData.isUserTrusted(user.getUniqueId(), type)) {
+            return true;
         }
 
         if (contexts == null) {
@@ -2161,43 +2099,7 @@ public boolean isUserTrusted(GDPermissionUser user, TrustType type, Set<Context>
     }
 
     private boolean isPublicTrusted(TrustType type) {
-        if (type == TrustTypes.ACCESSOR) {
-            if (this.claimData.getAccessors().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getContainers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        } else if (type == TrustTypes.BUILDER) {
-            if (this.claimData.getBuilders().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        } else if (type == TrustTypes.CONTAINER) {
-            if (this.claimData.getContainers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getBuilders().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        } else if (type == TrustTypes.MANAGER) {
-            if (this.claimData.getManagers().contains(GriefDefenderPlugin.PUBLIC_UUID)) {
-                return true;
-            }
-        }
-
-        return false;
+        return this.claimData.isUserTrusted(GriefDefenderPlugin.PUBLIC_UUID, type);
     }
 
     @Override
@@ -2225,10 +2127,7 @@ public ClaimResult addUserTrust(UUID uuid, TrustType type) {
             return new GDClaimResult(ClaimResultType.CLAIM_EVENT_CANCELLED, event.getMessage().orElse(null));
         }
 
-        List<UUID> userList = this.getUserTrustList(type);
-        if (!userList.contains(uuid)) {
-            userList.add(uuid);
-        }
+        this.claimData.addUserTrust(uuid, type);
 
         this.claimData.setRequiresSave(true);
         this.claimData.save();
@@ -2244,10 +2143,7 @@ public ClaimResult addUserTrusts(List<UUID> uuids, TrustType type) {
         }
 
         for (UUID uuid : uuids) {
-            List<UUID> userList = this.getUserTrustList(type);
-            if (!userList.contains(uuid)) {
-                userList.add(uuid);
-            }
+            this.claimData.addUserTrust(uuid, type);
         }
 
         this.claimData.setRequiresSave(true);
@@ -2270,7 +2166,7 @@ public ClaimResult removeUserTrust(UUID uuid, TrustType type) {
             return result;
         }
 
-        this.getUserTrustList(type).remove(uuid);
+        this.claimData.removeUserTrust(uuid, type);
         this.claimData.setRequiresSave(true);
         this.claimData.save();
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
@@ -2294,11 +2190,8 @@ public ClaimResult removeUserTrusts(List<UUID> uuids, TrustType type) {
             return new GDClaimResult(this, ClaimResultType.SUCCESS);
         }
 
-        List<UUID> userList = this.getUserTrustList(type);
         for (UUID uuid : uuids) {
-            if (userList.contains(uuid)) {
-                userList.remove(uuid);
-            }
+            this.claimData.removeUserTrust(uuid, type);
         }
 
         this.claimData.setRequiresSave(true);
@@ -2412,7 +2305,7 @@ public ClaimResult removeAllTrusts() {
         }
 
         for (TrustType type : TrustTypeRegistryModule.getInstance().getAll()) {
-            this.getUserTrustList(type).clear();
+            this.claimData.clearUserTrusts(type);
         }
 
         for (TrustType type : TrustTypeRegistryModule.getInstance().getAll()) {
@@ -2434,7 +2327,7 @@ public ClaimResult removeAllUserTrusts() {
         }
 
         for (TrustType type : TrustTypeRegistryModule.getInstance().getAll()) {
-            this.getUserTrustList(type).clear();
+            this.claimData.clearUserTrusts(type);
         }
 
         this.claimData.setRequiresSave(true);
@@ -2462,7 +2355,7 @@ public ClaimResult removeAllGroupTrusts() {
 
     public ClaimResult removeAllTrustsFromUser(UUID userUniqueId) {
         for (TrustType type : TrustTypeRegistryModule.getInstance().getAll()) {
-            this.getUserTrustList(type).remove(userUniqueId);
+            this.claimData.removeUserTrust(userUniqueId, type);
         }
 
         return new GDClaimResult(this, ClaimResultType.SUCCESS);
@@ -3004,14 +2897,7 @@ public void moveChildToParent(GDClaim parentClaim, GDClaim childClaim) {
         String fileName = childClaim.getClaimStorage().filePath.getFileName().toString();
         Path newPath = parentClaim.getClaimStorage().folderPath.resolve(childClaim.getType().getName().toLowerCase()).resolve(fileName);
         try {
-            if (Files.notExists(newPath.getParent())) {
-                Files.createDirectories(newPath.getParent());
-            }
-            Files.move(childClaim.getClaimStorage().filePath, newPath);
-            if (childClaim.getClaimStorage().folderPath.toFile().listFiles().length == 0) {
-                Files.delete(childClaim.getClaimStorage().folderPath);
-            }
-            childClaim.setClaimStorage(new ClaimStorageData(newPath, this.getWorldUniqueId(), (ClaimDataConfig) childClaim.getInternalClaimData()));
+            childClaim.setClaimStorage(GriefDefenderPlugin.getInstance().dataStore.moveClaimStorage(childClaim.getClaimStorage(), newPath, this.getWorldUniqueId(), (ClaimDataConfig) childClaim.getInternalClaimData()));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -0,0 +1,224 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.GDPlayerData;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Spatial index of the top level claims in a world.
+ *
+ * <p>Claims are kept in an implicit interval tree sorted by lesser X with
+ * the max greater X of each subtree stored alongside, so a point query only
+ * visits the branches that can contain it. Children are resolved through
+ * {@link GDClaim#children} once the top level claim is found.</p>
+ */
+class GDClaimIndex {
+
+    // Claims added since the last rebuild are scanned linearly
+    private static final int MAX_PENDING = 64;
+    private static final int NO_SLOT = Integer.MIN_VALUE;
+
+    private GDClaim[] claims = new GDClaim[0];
+    private int[] minX = new int[0];
+    private int[] maxX = new int[0];
+    private int[] minZ = new int[0];
+    private int[] maxZ = new int[0];
+    private int[] subtreeMaxX = new int[0];
+    private int size;
+    private int removed;
+
+    private final GDClaim[] pending = new GDClaim[MAX_PENDING];
+    private int pendingSize;
+
+    // Claim UUID -> tree slot, or -(pending slot + 1)
+    // Note: GDClaim equality includes type so the claim itself cannot be used as key
+    private final Object2IntOpenHashMap<UUID> slots = new Object2IntOpenHashMap<>();
+
+    GDClaimIndex() {
+        this.slots.defaultReturnValue(NO_SLOT);
+    }
+
+    // Adds the claim or refreshes its bounds if already indexed
+    void add(GDClaim claim) {
+        this.remove(claim);
+        if (this.pendingSize == MAX_PENDING) {
+            this.rebuild();
+        }
+        this.pending[this.pendingSize] = claim;
+        this.slots.put(claim.getUniqueId(), -(this.pendingSize + 1));
+        this.pendingSize++;
+    }
+
+    void remove(GDClaim claim) {
+        final int slot = this.slots.removeInt(claim.getUniqueId());
+        if (slot == NO_SLOT) {
+            return;
+        }
+        if (slot < 0) {
+            final int pendingSlot = -slot - 1;
+            final int last = --this.pendingSize;
+            if (pendingSlot != last) {
+                final GDClaim moved = this.pending[last];
+                this.pending[pendingSlot] = moved;
+                this.slots.put(moved.getUniqueId(), slot);
+            }
+            this.pending[last] = null;
+            return;
+        }
+
+        // Leave a tombstone in tree and compact once enough accumulate
+        this.claims[slot] = null;
+        this.removed++;
+        if (this.removed > 16 && this.removed > (this.size >> 2)) {
+            this.rebuild();
+        }
+    }
+
+    void clear() {
+        this.claims = new GDClaim[0];
+        this.size = 0;
+        this.removed = 0;
+        Arrays.fill(this.pending, null);
+        this.pendingSize = 0;
+        this.slots.clear();
+    }
+
+    int size() {
+        return this.size - this.removed + this.pendingSize;
+    }
+
+    /**
+     * Gets the first top level claim containing the position.
+     *
+     * @param x The x position
+     * @param y The y position
+     * @param z The z position
+     * @param radius The amount of blocks to expand each claim by while searching
+     * @param playerData The player data used for border checks, can be null
+     * @param useBorderBlockRadius Whether claim border radius applies
+     * @return The claim found, or null if none
+     */
+    GDClaim getClaimAt(int x, int y, int z, int radius, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        for (int i = 0; i < this.pendingSize; i++) {
+            final GDClaim claim = this.pending[i];
+            if (claim.contains(x, y, z, false, playerData, useBorderBlockRadius)) {
+                return claim;
+            }
+        }
+        if (this.size == 0) {
+            return null;
+        }
+        return this.search(0, this.size - 1, x, y, z, radius, playerData, useBorderBlockRadius);
+    }
+
+    private GDClaim search(int lo, int hi, int x, int y, int z, int radius, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        while (lo <= hi) {
+            final int mid = (lo + hi) >>> 1;
+            // Nothing in this subtree reaches far enough
+            if (this.subtreeMaxX[mid] + radius < x) {
+                return null;
+            }
+            if (lo < mid) {
+                final GDClaim found = this.search(lo, mid - 1, x, y, z, radius, playerData, useBorderBlockRadius);
+                if (found != null) {
+                    return found;
+                }
+            }
+            // Every claim to the right starts at or after this one
+            if (this.minX[mid] - radius > x) {
+                return null;
+            }
+            final GDClaim claim = this.claims[mid];
+            if (claim != null && x <= this.maxX[mid] + radius && z >= this.minZ[mid] - radius && z <= this.maxZ[mid] + radius
+                    && claim.contains(x, y, z, false, playerData, useBorderBlockRadius)) {
+                return claim;
+            }
+            lo = mid + 1;
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        int count = 0;
+        final GDClaim[] live = new GDClaim[this.size - this.removed + this.pendingSize];
+        for (int i = 0; i < this.size; i++) {
+            if (this.claims[i] != null) {
+                live[count++] = this.claims[i];
+            }
+        }
+        for (int i = 0; i < this.pendingSize; i++) {
+            live[count++] = this.pending[i];
+            this.pending[i] = null;
+        }
+        this.pendingSize = 0;
+
+        final int[] order = new int[count];
+        final int[] lesserX = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+            lesserX[i] = live[i].lesserBoundaryCorner.getX();
+        }
+        IntArrays.quickSort(order, (a, b) -> Integer.compare(lesserX[a], lesserX[b]));
+
+        this.claims = new GDClaim[count];
+        this.minX = new int[count];
+        this.maxX = new int[count];
+        this.minZ = new int[count];
+        this.maxZ = new int[count];
+        this.subtreeMaxX = new int[count];
+        for (int i = 0; i < count; i++) {
+            final GDClaim claim = live[order[i]];
+            this.claims[i] = claim;
+            this.minX[i] = claim.lesserBoundaryCorner.getX();
+            this.maxX[i] = claim.greaterBoundaryCorner.getX();
+            this.minZ[i] = claim.lesserBoundaryCorner.getZ();
+            this.maxZ[i] = claim.greaterBoundaryCorner.getZ();
+            this.slots.put(claim.getUniqueId(), i);
+        }
+        this.size = count;
+        this.removed = 0;
+        if (count > 0) {
+            this.computeSubtreeMax(0, count - 1);
+        }
+    }
+
+    private int computeSubtreeMax(int lo, int hi) {
+        final int mid = (lo + hi) >>> 1;
+        int max = this.maxX[mid];
+        if (lo < mid) {
+            max = Math.max(max, this.computeSubtreeMax(lo, mid - 1));
+        }
+        if (mid < hi) {
+            max = Math.max(max, this.computeSubtreeMax(mid + 1, hi));
+        }
+        this.subtreeMaxX[mid] = max;
+        return max;
+    }
+}
@@ -25,9 +25,12 @@
 package com.griefdefender.claim;
 
 import com.flowpowered.math.vector.Vector3i;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
 import com.google.common.reflect.TypeToken;
+import com.griefdefender.GDMetrics;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.GriefDefender;
@@ -40,7 +43,6 @@
 import com.griefdefender.api.permission.option.Options;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.configuration.ClaimDataConfig;
-import com.griefdefender.configuration.ClaimStorageData;
 import com.griefdefender.event.GDRemoveClaimEvent;
 import com.griefdefender.internal.tracking.PlayerIndexStorage;
 import com.griefdefender.internal.tracking.chunk.GDChunk;
@@ -48,10 +50,9 @@
 import com.griefdefender.permission.GDPermissionManager;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.storage.BaseStorage;
-import com.griefdefender.util.BlockUtil;
-import com.griefdefender.util.Direction;
 
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import net.kyori.text.Component;
 import net.kyori.text.TextComponent;
 import net.kyori.text.serializer.plain.PlainComponentSerializer;
@@ -65,11 +66,15 @@
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -88,13 +93,37 @@ public class GDClaimManager implements ClaimManager {
     private Set<Claim> worldClaims = new HashSet<>();
     // Claim UUID -> Claim
     private Map<UUID, Claim> claimUniqueIdMap = Maps.newHashMap();
-    // String -> Claim
-    private Map<Long, Set<Claim>> chunksToClaimsMap = new Long2ObjectOpenHashMap<>(4096);
+    // Top level claims covering more chunks than this are kept as chunk bounds only
+    private static final int LARGE_CLAIM_CHUNKS = 1024;
+    // Large claims are indexed in regions of 32x32 chunks
+    private static final int REGION_SHIFT = 5;
+    private static final GDMetrics.Histogram OVERLAP_CHECKS = GDMetrics.histogram("claim-overlap-check");
+
+    // Chunk key -> top level claims, large claims excluded
+    private Long2ObjectOpenHashMap<Set<Claim>> chunksToClaimsMap = new Long2ObjectOpenHashMap<>(4096);
+    // Claim UUID -> chunk bounds the claim was indexed with
+    private final Map<UUID, ChunkBounds> claimChunkBounds = Maps.newHashMap();
+    // Claim UUID -> chunk bounds of large top level claims
+    private final Map<UUID, ChunkBounds> largeClaims = Maps.newHashMap();
+    // Region key -> large top level claims overlapping the region
+    private final Long2ObjectOpenHashMap<Set<ChunkBounds>> largeClaimRegions = new Long2ObjectOpenHashMap<>();
+    // Chunk key -> top level claims, large claims included
+    private final Map<Long, Set<Claim>> chunkClaimsView = new ChunkClaimsView();
+    // Spatial index of top level claims
+    private final GDClaimIndex claimIndex = new GDClaimIndex();
+    // Bumped whenever claims are added, removed or resized so cached lookups can be validated
+    private int claimVersion;
+    // Owner UUID -> top level claims
+    private final Map<UUID, Set<GDClaim>> ownerClaimIndex = Maps.newHashMap();
+    // Rented claims by next rent payment due date
+    private final GDDueDateIndex rentDueIndex = new GDDueDateIndex();
     // Entity Index
     public PlayerIndexStorage playerIndexStorage;
-    private Map<Long, GDChunk> chunksToGDChunks = new Long2ObjectOpenHashMap<>(4096);
+    private Long2ObjectOpenHashMap<GDChunk> chunksToGDChunks = new Long2ObjectOpenHashMap<>(4096);
 
     private GDClaim theWildernessClaim;
+    // Cached world config value, -1 if not yet read
+    private int borderBlockRadius = -1;
 
     public GDClaimManager(World world) {
         this.worldUniqueId = world.getUID();
@@ -123,43 +152,68 @@ private Set<Claim> createPlayerClaimList(UUID playerUniqueId) {
         if (BaseStorage.USE_GLOBAL_PLAYER_STORAGE) {
             for (World world : Bukkit.getServer().getWorlds()) {
                 GDClaimManager claimmanager = DATASTORE.getClaimWorldManager(world.getUID());
-                for (Claim claim : claimmanager.worldClaims) {
-                    GDClaim gdClaim = (GDClaim) claim;
-                    if (gdClaim.isAdminClaim()) {
-                        continue;
-                    }
-                    if (gdClaim.parent != null) {
-                       if (gdClaim.parent.getOwnerUniqueId().equals(playerUniqueId)) {
-                           claimList.add(claim);
-                       }
-                    } else {
-                        if (gdClaim.getOwnerUniqueId().equals(playerUniqueId)) {
-                            claimList.add(claim);
-                        }
-                    }
-                }
+                claimmanager.addOwnedClaims(playerUniqueId, claimList);
             }
         } else {
-            for (Claim claim : this.worldClaims) {
-                GDClaim gdClaim = (GDClaim) claim;
-                if (gdClaim.isAdminClaim()) {
-                    continue;
-                }
-                if (gdClaim.parent != null) {
-                   if (gdClaim.parent.getOwnerUniqueId().equals(playerUniqueId)) {
-                       claimList.add(claim);
-                   }
-                } else {
-                    if (gdClaim.getOwnerUniqueId().equals(playerUniqueId)) {
-                        claimList.add(claim);
-                    }
-                }
-            }
+            this.addOwnedClaims(playerUniqueId, claimList);
         }
 
         return claimList;
     }
 
+    private void addOwnedClaims(UUID playerUniqueId, Set<Claim> claimList) {
+        for (GDClaim claim : this.getOwnedClaims(playerUniqueId)) {
+            if (!claim.isAdminClaim()) {
+                claimList.add(claim);
+            }
+        }
+    }
+
+    /**
+     * Gets the top level claims owned by a player in this world.
+     *
+     * @param ownerUniqueId The owner UUID
+     * @return The owned claims, empty if none
+     */
+    public Set<GDClaim> getOwnedClaims(UUID ownerUniqueId) {
+        final Set<GDClaim> claims = this.ownerClaimIndex.get(ownerUniqueId);
+        if (claims == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(claims);
+    }
+
+    private void addOwnerIndex(GDClaim claim) {
+        final UUID ownerUniqueId = claim.getOwnerUniqueId();
+        if (ownerUniqueId == null) {
+            return;
+        }
+        Set<GDClaim> claims = this.ownerClaimIndex.get(ownerUniqueId);
+        if (claims == null) {
+            claims = new HashSet<>();
+            this.ownerClaimIndex.put(ownerUniqueId, claims);
+        }
+        claims.add(claim);
+    }
+
+    private void removeOwnerIndex(GDClaim claim, UUID ownerUniqueId) {
+        if (ownerUniqueId == null) {
+            return;
+        }
+        final Set<GDClaim> claims = this.ownerClaimIndex.get(ownerUniqueId);
+        if (claims != null && claims.remove(claim) && claims.isEmpty()) {
+            this.ownerClaimIndex.remove(ownerUniqueId);
+        }
+    }
+
+    // Must be called after the owner of a claim changes
+    public void updateOwnerIndex(GDClaim claim, UUID oldOwnerUniqueId) {
+        this.removeOwnerIndex(claim, oldOwnerUniqueId);
+        if (claim.parent == null && this.worldClaims.contains(claim)) {
+            this.addOwnerIndex(claim);
+        }
+    }
+
     public void removePlayer(UUID playerUniqueId) {
         this.getPlayerDataMap().remove(playerUniqueId);
     }
@@ -204,9 +258,11 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
             return;
         }
 
+        this.updateRentSchedule(claim);
         if (claim.parent != null) {
             claim.parent.children.add(claim);
             this.worldClaims.remove(claim);
+            this.removeOwnerIndex(claim, claim.getOwnerUniqueId());
             this.deleteChunkHashes((GDClaim) claim);
             if (!claim.isAdminClaim() && (!claim.isInTown() || !claim.getTownClaim().getOwnerUniqueId().equals(claim.getOwnerUniqueId()))) {
                 final GDPlayerData playerData = this.getPlayerDataMap().get(claim.getOwnerUniqueId());
@@ -223,6 +279,7 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
         if (!this.worldClaims.contains(claim)) {
             this.worldClaims.add(claim);
         }
+        this.addOwnerIndex(claim);
         final UUID ownerId = claim.getOwnerUniqueId();
         final GDPlayerData playerData = this.getPlayerDataMap().get(ownerId);
         if (playerData != null) {
@@ -240,21 +297,86 @@ public void addClaim(Claim claimToAdd, boolean writeToStorage) {
 
     public void updateChunkHashes(GDClaim claim) {
         this.deleteChunkHashes(claim);
-        Set<Long> chunkHashes = claim.getChunkHashes(true);
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(chunkHash);
-            if (claimsInChunk == null) {
-                claimsInChunk = new HashSet<Claim>();
-                this.getInternalChunksToClaimsMap().put(chunkHash, claimsInChunk);
+        final ChunkBounds bounds = new ChunkBounds(claim);
+        this.claimChunkBounds.put(claim.getUniqueId(), bounds);
+        if (bounds.getArea() > LARGE_CLAIM_CHUNKS) {
+            this.largeClaims.put(claim.getUniqueId(), bounds);
+            for (int x = bounds.minX >> REGION_SHIFT; x <= bounds.maxX >> REGION_SHIFT; x++) {
+                for (int z = bounds.minZ >> REGION_SHIFT; z <= bounds.maxZ >> REGION_SHIFT; z++) {
+                    final long regionKey = getChunkKey(x, z);
+                    Set<ChunkBounds> claimsInRegion = this.largeClaimRegions.get(regionKey);
+                    if (claimsInRegion == null) {
+                        claimsInRegion = new HashSet<>();
+                        this.largeClaimRegions.put(regionKey, claimsInRegion);
+                    }
+                    claimsInRegion.add(bounds);
+                }
+            }
+        } else {
+            for (int x = bounds.minX; x <= bounds.maxX; x++) {
+                for (int z = bounds.minZ; z <= bounds.maxZ; z++) {
+                    final long chunkKey = getChunkKey(x, z);
+                    Set<Claim> claimsInChunk = this.chunksToClaimsMap.get(chunkKey);
+                    if (claimsInChunk == null) {
+                        claimsInChunk = new HashSet<Claim>();
+                        this.chunksToClaimsMap.put(chunkKey, claimsInChunk);
+                    }
+
+                    claimsInChunk.add(claim);
+                }
             }
+        }
+
+        // Loaded chunks within the claim are no longer wilderness
+        if (!this.chunksToGDChunks.isEmpty()) {
+            for (GDChunk gdChunk : this.getLoadedChunks(bounds.minX, bounds.minZ, bounds.maxX, bounds.maxZ)) {
+                this.getWildernessClaim().loadedChunkHashes.remove(gdChunk.getChunkKey());
+            }
+        }
+        this.claimIndex.add(claim);
+        this.claimVersion++;
+    }
+
+    public int getBorderBlockRadius() {
+        if (this.borderBlockRadius < 0) {
+            this.borderBlockRadius = Math.max(0, GriefDefenderPlugin.getActiveConfig(this.worldUniqueId).getConfig().claim.borderBlockRadius);
+        }
+        return this.borderBlockRadius;
+    }
+
+    // Called when world config is reloaded
+    public void refreshConfig() {
+        this.borderBlockRadius = -1;
+    }
 
-            claimsInChunk.add(claim);
+    public void updateClaimIndex(GDClaim claim) {
+        if (claim.parent == null && !claim.isWilderness()) {
+            this.claimIndex.add(claim);
+        }
+        this.claimVersion++;
+    }
+
+    // Called when a claim is rented or a rent payment is recorded
+    public void updateRentSchedule(GDClaim claim) {
+        if (claim.getEconomyData() == null || claim.getEconomyData().getRenters().isEmpty()) {
+            this.rentDueIndex.remove(claim);
+            return;
         }
+        this.rentDueIndex.schedule(claim, claim.getEconomyData().getRentPaymentDueDate());
+    }
+
+    public List<GDClaim> getDueRentClaims(Instant now) {
+        return this.rentDueIndex.pollDue(now);
+    }
+
+    public int getClaimVersion() {
+        return this.claimVersion;
     }
 
     // Used when parent claims becomes children
     public void removeClaimData(Claim claim) {
         this.worldClaims.remove(claim);
+        this.removeOwnerIndex((GDClaim) claim, claim.getOwnerUniqueId());
         this.deleteChunkHashes((GDClaim) claim);
     }
 
@@ -304,6 +426,8 @@ public ClaimResult deleteClaimInternal(Claim claim, boolean deleteChildren) {
             economy.deleteBank(claim.getUniqueId().toString());
         }
         this.worldClaims.remove(claim);
+        this.removeOwnerIndex(gdClaim, gdClaim.getOwnerUniqueId());
+        this.rentDueIndex.remove(gdClaim);
         this.claimUniqueIdMap.remove(claim.getUniqueId());
         this.deleteChunkHashes((GDClaim) claim);
         if (gdClaim.parent != null) {
@@ -337,14 +461,7 @@ private void migrateChildToNewParent(GDClaim parentClaim, GDClaim childClaim) {
         }
 
         try {
-            if (Files.notExists(newPath.getParent())) {
-                Files.createDirectories(newPath.getParent());
-            }
-            Files.move(childClaim.getClaimStorage().filePath, newPath);
-            if (childClaim.getClaimStorage().folderPath.toFile().listFiles().length == 0) {
-                Files.delete(childClaim.getClaimStorage().folderPath);
-            }
-            childClaim.setClaimStorage(new ClaimStorageData(newPath, this.worldUniqueId, (ClaimDataConfig) childClaim.getInternalClaimData()));
+            childClaim.setClaimStorage(DATASTORE.moveClaimStorage(childClaim.getClaimStorage(), newPath, this.worldUniqueId, (ClaimDataConfig) childClaim.getInternalClaimData()));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -380,20 +497,183 @@ private void resetPlayerClaimVisuals(Claim claim) {
     }
 
     private void deleteChunkHashes(GDClaim claim) {
-        Set<Long> chunkHashes = claim.getChunkHashes(true);
-        if (chunkHashes == null) {
+        this.claimIndex.remove(claim);
+        this.claimVersion++;
+        // Claim may have been resized since so use the bounds it was indexed with
+        final ChunkBounds bounds = this.claimChunkBounds.remove(claim.getUniqueId());
+        if (bounds == null) {
+            return;
+        }
+        if (this.largeClaims.remove(claim.getUniqueId()) != null) {
+            for (int x = bounds.minX >> REGION_SHIFT; x <= bounds.maxX >> REGION_SHIFT; x++) {
+                for (int z = bounds.minZ >> REGION_SHIFT; z <= bounds.maxZ >> REGION_SHIFT; z++) {
+                    final long regionKey = getChunkKey(x, z);
+                    final Set<ChunkBounds> claimsInRegion = this.largeClaimRegions.get(regionKey);
+                    if (claimsInRegion != null) {
+                        claimsInRegion.remove(bounds);
+                        if (claimsInRegion.isEmpty()) {
+                            this.largeClaimRegions.remove(regionKey);
+                        }
+                    }
+                }
+            }
             return;
         }
 
-        for (Long chunkHash : chunkHashes) {
-            Set<Claim> claimsInChunk = this.chunksToClaimsMap.get(chunkHash);
-            if (claimsInChunk != null) {
-                claimsInChunk.remove(claim);
-                if (claimsInChunk.isEmpty()) {
-                    this.chunksToClaimsMap.remove(chunkHash);
+        for (int x = bounds.minX; x <= bounds.maxX; x++) {
+            for (int z = bounds.minZ; z <= bounds.maxZ; z++) {
+                final long chunkKey = getChunkKey(x, z);
+                final Set<Claim> claimsInChunk = this.chunksToClaimsMap.get(chunkKey);
+                if (claimsInChunk != null) {
+                    claimsInChunk.remove(bounds.claim);
+                    if (claimsInChunk.isEmpty()) {
+                        this.chunksToClaimsMap.remove(chunkKey);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the top level claims within a chunk.
+     *
+     * @param chunkX The chunk x position
+     * @param chunkZ The chunk z position
+     * @return The claims found, empty if none
+     */
+    public Collection<Claim> getClaimsInChunk(int chunkX, int chunkZ) {
+        final Set<Claim> claimsInChunk = this.chunksToClaimsMap.get(getChunkKey(chunkX, chunkZ));
+        final Set<ChunkBounds> claimsInRegion = this.largeClaimRegions.isEmpty() ? null
+                : this.largeClaimRegions.get(getChunkKey(chunkX >> REGION_SHIFT, chunkZ >> REGION_SHIFT));
+        if (claimsInRegion == null) {
+            return claimsInChunk == null ? Collections.emptySet() : claimsInChunk;
+        }
+
+        final List<Claim> claims = claimsInChunk == null ? new ArrayList<>() : new ArrayList<>(claimsInChunk);
+        for (ChunkBounds bounds : claimsInRegion) {
+            if (bounds.intersects(chunkX, chunkZ, chunkX, chunkZ)) {
+                claims.add(bounds.claim);
+            }
+        }
+        return claims;
+    }
+
+    /**
+     * Gets the top level claims within an area of chunks.
+     *
+     * @param minX The lesser chunk x position
+     * @param minZ The lesser chunk z position
+     * @param maxX The greater chunk x position
+     * @param maxZ The greater chunk z position
+     * @return The claims found, empty if none
+     */
+    public Set<Claim> getClaimsInChunkArea(int minX, int minZ, int maxX, int maxZ) {
+        final Set<Claim> claims = new HashSet<>();
+        if (getChunkArea(minX, minZ, maxX, maxZ) > this.claimChunkBounds.size()) {
+            // Cheaper to check the bounds of every claim than each chunk
+            for (ChunkBounds bounds : this.claimChunkBounds.values()) {
+                if (bounds.intersects(minX, minZ, maxX, maxZ)) {
+                    claims.add(bounds.claim);
+                }
+            }
+            return claims;
+        }
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                final Set<Claim> claimsInChunk = this.chunksToClaimsMap.get(getChunkKey(x, z));
+                if (claimsInChunk != null) {
+                    claims.addAll(claimsInChunk);
+                }
+            }
+        }
+        if (this.largeClaims.isEmpty()) {
+            return claims;
+        }
+        final int minRegionX = minX >> REGION_SHIFT;
+        final int minRegionZ = minZ >> REGION_SHIFT;
+        final int maxRegionX = maxX >> REGION_SHIFT;
+        final int maxRegionZ = maxZ >> REGION_SHIFT;
+        if (getChunkArea(minRegionX, minRegionZ, maxRegionX, maxRegionZ) > this.largeClaims.size()) {
+            for (ChunkBounds bounds : this.largeClaims.values()) {
+                if (bounds.intersects(minX, minZ, maxX, maxZ)) {
+                    claims.add(bounds.claim);
+                }
+            }
+            return claims;
+        }
+        for (int x = minRegionX; x <= maxRegionX; x++) {
+            for (int z = minRegionZ; z <= maxRegionZ; z++) {
+                final Set<ChunkBounds> claimsInRegion = this.largeClaimRegions.get(getChunkKey(x, z));
+                if (claimsInRegion == null) {
+                    continue;
+                }
+                for (ChunkBounds bounds : claimsInRegion) {
+                    if (bounds.intersects(minX, minZ, maxX, maxZ)) {
+                        claims.add(bounds.claim);
+                    }
+                }
+            }
+        }
+        return claims;
+    }
+
+    // Entity counts of claims within a chunk change when it loads or unloads
+    public void invalidateEntityCounters(int chunkX, int chunkZ) {
+        for (Claim claim : this.getClaimsInChunk(chunkX, chunkZ)) {
+            final GDClaim gdClaim = (GDClaim) claim;
+            gdClaim.entityCounter.invalidate();
+            for (Claim child : gdClaim.getChildren(true)) {
+                ((GDClaim) child).entityCounter.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Checks the top level claims around a top level claim for overlaps.
+     *
+     * @param claim The claim to check
+     * @return The overlap report
+     */
+    public GDOverlapReport getOverlapReport(GDClaim claim) {
+        final long start = System.nanoTime();
+        final Set<Claim> candidates = this.getClaimsInChunkArea(claim.lesserBoundaryCorner.getX() >> 4, claim.lesserBoundaryCorner.getZ() >> 4,
+                claim.greaterBoundaryCorner.getX() >> 4, claim.greaterBoundaryCorner.getZ() >> 4);
+        final GDOverlapReport report = GDOverlapReport.collect(claim, candidates);
+        OVERLAP_CHECKS.record(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Gets the loaded chunks within an area of chunks.
+     *
+     * @param minX The lesser chunk x position
+     * @param minZ The lesser chunk z position
+     * @param maxX The greater chunk x position
+     * @param maxZ The greater chunk z position
+     * @return The loaded chunks found
+     */
+    public List<GDChunk> getLoadedChunks(int minX, int minZ, int maxX, int maxZ) {
+        final List<GDChunk> chunks = new ArrayList<>();
+        if (getChunkArea(minX, minZ, maxX, maxZ) > this.chunksToGDChunks.size()) {
+            for (GDChunk gdChunk : this.chunksToGDChunks.values()) {
+                final Chunk chunk = gdChunk.getHandle();
+                if (chunk.getX() >= minX && chunk.getX() <= maxX && chunk.getZ() >= minZ && chunk.getZ() <= maxZ) {
+                    chunks.add(gdChunk);
+                }
+            }
+            return chunks;
+        }
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                final GDChunk gdChunk = this.chunksToGDChunks.get(getChunkKey(x, z));
+                if (gdChunk != null) {
+                    chunks.add(gdChunk);
                 }
             }
         }
+        return chunks;
     }
 
     @Nullable
@@ -454,15 +734,11 @@ public Map<UUID, GDPlayerData> getPlayerDataMap() {
 
     public Set<Claim> findOverlappingClaims(Claim claim) {
         Set<Claim> claimSet = new HashSet<>();
-        for (Long chunkHash : claim.getChunkHashes()) {
-            final Set<Claim> chunkClaims = this.chunksToClaimsMap.get(chunkHash);
-            if (chunkClaims == null) {
-                continue;
-            }
-            for (Claim chunkClaim : chunkClaims) {
-                if (!chunkClaim.equals(claim) && (claim.overlaps(chunkClaim) || chunkClaim.overlaps(claim))) {
-                    claimSet.add(chunkClaim);
-                }
+        final Set<Claim> chunkClaims = this.getClaimsInChunkArea(claim.getLesserBoundaryCorner().getX() >> 4, claim.getLesserBoundaryCorner().getZ() >> 4,
+                claim.getGreaterBoundaryCorner().getX() >> 4, claim.getGreaterBoundaryCorner().getZ() >> 4);
+        for (Claim chunkClaim : chunkClaims) {
+            if (!chunkClaim.equals(claim) && GDOverlapReport.intersectsArea(claim, chunkClaim) && (claim.overlaps(chunkClaim) || chunkClaim.overlaps(claim))) {
+                claimSet.add(chunkClaim);
             }
         }
         return claimSet;
@@ -470,7 +746,7 @@ public Set<Claim> findOverlappingClaims(Claim claim) {
 
     @Override
     public Map<Long, Set<Claim>> getChunksToClaimsMap() {
-        return Collections.unmodifiableMap(this.chunksToClaimsMap);
+        return this.chunkClaimsView;
     }
 
     public Map<Long, Set<Claim>> getInternalChunksToClaimsMap() {
@@ -480,7 +756,9 @@ public Map<Long, Set<Claim>> getInternalChunksToClaimsMap() {
     public void save() {
         for (Claim claim : this.worldClaims) {
             GDClaim gdClaim = (GDClaim) claim;
-            gdClaim.save();
+            if (gdClaim.requiresSave()) {
+                gdClaim.save();
+            }
         }
         this.getWildernessClaim().save();
 
@@ -499,8 +777,15 @@ public void save() {
     public void unload() {
         this.playerDataList.clear();
         this.worldClaims.clear();
+        this.ownerClaimIndex.clear();
+        this.rentDueIndex.clear();
+        this.claimVersion++;
         this.claimUniqueIdMap.clear();
         this.chunksToClaimsMap.clear();
+        this.claimChunkBounds.clear();
+        this.largeClaims.clear();
+        this.largeClaimRegions.clear();
+        this.claimIndex.clear();
         if (this.theWildernessClaim != null) {
             this.theWildernessClaim.unload();
             this.theWildernessClaim = null;
@@ -527,59 +812,47 @@ public Claim getClaimAt(Vector3i pos) {
 
     @Override
     public Claim getClaimAt(int x, int y, int z) {
-        return this.getClaimAt(new Vector3i(x, y, z), null, false);
+        return this.getClaimAt(x, y, z, null, false);
     }
 
     public Claim getClaimAt(Vector3i pos, GDPlayerData playerData, boolean useBorderBlockRadius) {
-        Set<Claim> claimsInChunk = this.getInternalChunksToClaimsMap().get(BlockUtil.getInstance().asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        return this.getClaimAt(pos.getX(), pos.getY(), pos.getZ(), playerData, useBorderBlockRadius);
+    }
+
+    private Claim getClaimAt(int x, int y, int z, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        GDMetrics.CLAIM_LOOKUPS.increment();
+        int borderBlockRadius = 0;
         if (useBorderBlockRadius && (playerData != null && !playerData.bypassBorderCheck)) {
-            final int borderBlockRadius = GriefDefenderPlugin.getActiveConfig(this.worldUniqueId).getConfig().claim.borderBlockRadius;
-            // if borderBlockRadius > 0, check surrounding chunks
-            if (borderBlockRadius > 0) {
-                for (Direction direction : BlockUtil.ORDINAL_SET) {
-                    Vector3i currentPos = pos;
-                    for (int i = 0; i < borderBlockRadius; i++) { // Handle depth
-                        currentPos = BlockUtil.getInstance().getBlockRelative(currentPos, direction); 
-                        Set<Claim> relativeClaims = this.getInternalChunksToClaimsMap().get(BlockUtil.getInstance().asLong(currentPos.getX() >> 4, currentPos.getZ() >> 4));
-                        if (relativeClaims != null) {
-                            if (claimsInChunk == null) {
-                                claimsInChunk = new HashSet<>();
-                            }
-                            claimsInChunk.addAll(relativeClaims);
-                        }
-                    }
-                }
-            }
-        }
-        if (claimsInChunk == null) {
-            return this.getWildernessClaim();
+            // if borderBlockRadius > 0, expand search to claims within radius
+            borderBlockRadius = this.getBorderBlockRadius();
         }
 
-        for (Claim claim : claimsInChunk) {
-            GDClaim foundClaim = findClaim((GDClaim) claim, pos, playerData, useBorderBlockRadius);
-            if (foundClaim != null) {
-                return foundClaim;
-            }
+        final GDClaim claim = this.claimIndex.getClaimAt(x, y, z, borderBlockRadius, playerData, useBorderBlockRadius);
+        if (claim == null) {
+            return this.getWildernessClaim();
         }
 
-        // if no claim found, return the world claim
-        return this.getWildernessClaim();
+        return this.findClaim(claim, x, y, z, playerData, useBorderBlockRadius);
     }
 
     private GDClaim findClaim(GDClaim claim, Vector3i pos, GDPlayerData playerData, boolean useBorderBlockRadius) {
-        if (claim.contains(pos, playerData, useBorderBlockRadius)) {
+        return this.findClaim(claim, pos.getX(), pos.getY(), pos.getZ(), playerData, useBorderBlockRadius);
+    }
+
+    private GDClaim findClaim(GDClaim claim, int x, int y, int z, GDPlayerData playerData, boolean useBorderBlockRadius) {
+        if (claim.contains(x, y, z, false, playerData, useBorderBlockRadius)) {
             // when we find a top level claim, if the location is in one of its children,
             // return the child claim, not the top level claim
             for (Claim childClaim : claim.children) {
                 GDClaim child = (GDClaim) childClaim;
                 if (!child.children.isEmpty()) {
-                    GDClaim innerChild = findClaim(child, pos, playerData, useBorderBlockRadius);
+                    GDClaim innerChild = findClaim(child, x, y, z, playerData, useBorderBlockRadius);
                     if (innerChild != null) {
                         return innerChild;
                     }
                 }
                 // check if child has children (Town -> Basic -> Subdivision)
-                if (child.contains(pos, playerData, useBorderBlockRadius)) {
+                if (child.contains(x, y, z, false, playerData, useBorderBlockRadius)) {
                     return child;
                 }
             }
@@ -658,7 +931,7 @@ public GDChunk getChunk(Chunk chunk) {
         if (gdChunk == null) {
             gdChunk = new GDChunk(chunk);
             this.chunksToGDChunks.put(chunkKey, gdChunk);
-            if (this.chunksToClaimsMap.get(chunkKey) == null) {
+            if (this.getClaimsInChunk(chunk.getX(), chunk.getZ()).isEmpty()) {
                 this.getWildernessClaim().loadedChunkHashes.add(chunkKey);
             }
         }
@@ -697,4 +970,124 @@ private long getChunkKey(int cx, int cz) {
     private long getChunkKey(Chunk chunk) {
         return (long) chunk.getX() & 0xffffffffL | ((long) chunk.getZ() & 0xffffffffL) << 32;
     }
+
+    private static long getChunkArea(int minX, int minZ, int maxX, int maxZ) {
+        return ((long) maxX - minX + 1) * ((long) maxZ - minZ + 1);
+    }
+
+    /**
+     * A read only view of the chunks covered by top level claims. Chunks
+     * of large claims are computed from their bounds instead of stored.
+     */
+    private final class ChunkClaimsView extends AbstractMap<Long, Set<Claim>> {
+
+        @Override
+        public Set<Claim> get(Object key) {
+            if (!(key instanceof Long)) {
+                return null;
+            }
+            final long chunkKey = (Long) key;
+            final Collection<Claim> claims = getClaimsInChunk((int) chunkKey, (int) (chunkKey >>> 32));
+            return claims.isEmpty() ? null : ImmutableSet.copyOf(claims);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<Long, Set<Claim>>> entrySet() {
+            return new AbstractSet<Entry<Long, Set<Claim>>>() {
+
+                @Override
+                public Iterator<Entry<Long, Set<Claim>>> iterator() {
+                    return new ChunkClaimsIterator();
+                }
+
+                @Override
+                public int size() {
+                    return Iterators.size(this.iterator());
+                }
+            };
+        }
+    }
+
+    // Chunks of small claims first, then chunks only covered by large claims
+    private final class ChunkClaimsIterator extends AbstractIterator<Map.Entry<Long, Set<Claim>>> {
+
+        private final LongIterator chunkKeys = chunksToClaimsMap.keySet().iterator();
+        private final List<ChunkBounds> large = new ArrayList<>(largeClaims.values());
+        private int largeIndex = -1;
+        private int x;
+        private int z;
+
+        @Override
+        protected Map.Entry<Long, Set<Claim>> computeNext() {
+            if (this.chunkKeys.hasNext()) {
+                final long chunkKey = this.chunkKeys.nextLong();
+                return this.entry(chunkKey, (int) chunkKey, (int) (chunkKey >>> 32));
+            }
+            while (this.largeIndex < this.large.size()) {
+                if (this.largeIndex < 0 || this.x > this.large.get(this.largeIndex).maxX) {
+                    if (++this.largeIndex == this.large.size()) {
+                        break;
+                    }
+                    this.x = this.large.get(this.largeIndex).minX;
+                    this.z = this.large.get(this.largeIndex).minZ;
+                }
+                final ChunkBounds bounds = this.large.get(this.largeIndex);
+                final int chunkX = this.x;
+                final int chunkZ = this.z;
+                if (++this.z > bounds.maxZ) {
+                    this.z = bounds.minZ;
+                    this.x++;
+                }
+                final long chunkKey = getChunkKey(chunkX, chunkZ);
+                if (!chunksToClaimsMap.containsKey(chunkKey) && !this.isVisited(chunkX, chunkZ)) {
+                    return this.entry(chunkKey, chunkX, chunkZ);
+                }
+            }
+            return this.endOfData();
+        }
+
+        // Whether an earlier large claim already returned the chunk
+        private boolean isVisited(int chunkX, int chunkZ) {
+            for (int i = 0; i < this.largeIndex; i++) {
+                if (this.large.get(i).intersects(chunkX, chunkZ, chunkX, chunkZ)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Map.Entry<Long, Set<Claim>> entry(long chunkKey, int chunkX, int chunkZ) {
+            return Maps.immutableEntry(chunkKey, ImmutableSet.copyOf(getClaimsInChunk(chunkX, chunkZ)));
+        }
+    }
+
+    private static class ChunkBounds {
+
+        final GDClaim claim;
+        final int minX;
+        final int minZ;
+        final int maxX;
+        final int maxZ;
+
+        ChunkBounds(GDClaim claim) {
+            this.claim = claim;
+            this.minX = claim.lesserBoundaryCorner.getX() >> 4;
+            this.minZ = claim.lesserBoundaryCorner.getZ() >> 4;
+            this.maxX = claim.greaterBoundaryCorner.getX() >> 4;
+            this.maxZ = claim.greaterBoundaryCorner.getZ() >> 4;
+        }
+
+        long getArea() {
+            return getChunkArea(this.minX, this.minZ, this.maxX, this.maxZ);
+        }
+
+        boolean intersects(int minX, int minZ, int maxX, int maxZ) {
+            return this.minX <= maxX && this.maxX >= minX && this.minZ <= maxZ && this.maxZ >= minZ;
+        }
+    }
 }
\ No newline at end of file
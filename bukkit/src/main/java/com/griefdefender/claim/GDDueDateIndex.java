@@ -0,0 +1,111 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * Claims ordered by their next payment due date.
+ *
+ * <p>Rescheduling a claim leaves its old entry in the queue. Stale entries
+ * are skipped when polled since they no longer match the scheduled date.</p>
+ */
+class GDDueDateIndex {
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>(Comparator.comparing(entry -> entry.dueDate));
+    // Claim UUID -> scheduled due date
+    private final Map<UUID, Instant> scheduled = new HashMap<>();
+
+    void schedule(GDClaim claim, Instant dueDate) {
+        if (dueDate == null) {
+            this.remove(claim);
+            return;
+        }
+        if (dueDate.equals(this.scheduled.put(claim.getUniqueId(), dueDate))) {
+            return;
+        }
+        this.queue.add(new Entry(claim, dueDate));
+        if (this.queue.size() > 64 && this.queue.size() > this.scheduled.size() * 2) {
+            this.compact();
+        }
+    }
+
+    void remove(GDClaim claim) {
+        this.scheduled.remove(claim.getUniqueId());
+    }
+
+    void clear() {
+        this.queue.clear();
+        this.scheduled.clear();
+    }
+
+    // Removes and returns the claims due at or before the given time
+    List<GDClaim> pollDue(Instant now) {
+        List<GDClaim> due = null;
+        while (!this.queue.isEmpty() && !this.queue.peek().dueDate.isAfter(now)) {
+            final Entry entry = this.queue.poll();
+            final UUID claimUniqueId = entry.claim.getUniqueId();
+            if (!entry.dueDate.equals(this.scheduled.get(claimUniqueId))) {
+                continue;
+            }
+            this.scheduled.remove(claimUniqueId);
+            if (due == null) {
+                due = new ArrayList<>();
+            }
+            due.add(entry.claim);
+        }
+        return due == null ? Collections.emptyList() : due;
+    }
+
+    private void compact() {
+        final List<Entry> live = new ArrayList<>(this.scheduled.size());
+        for (Entry entry : this.queue) {
+            if (entry.dueDate.equals(this.scheduled.get(entry.claim.getUniqueId()))) {
+                live.add(entry);
+            }
+        }
+        this.queue.clear();
+        this.queue.addAll(live);
+    }
+
+    private static class Entry {
+
+        private final GDClaim claim;
+        private final Instant dueDate;
+
+        Entry(GDClaim claim, Instant dueDate) {
+            this.claim = claim;
+            this.dueDate = dueDate;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.api.permission.Context;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.bukkit.Chunk;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.LivingEntity;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Living entity counts of a claim used to enforce spawn limits.
+ *
+ * <p>Counts are rebuilt from the claim's loaded chunks at most once per
+ * refresh and adjusted for spawns and deaths in between. Entities
+ * wandering across claim borders or despawning have no event so they are
+ * picked up by the next rebuild.</p>
+ */
+public class GDEntityCounter {
+
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final GDClaim claim;
+    private final Object2IntOpenHashMap<EntityType> counts = new Object2IntOpenHashMap<>();
+    // Contexts -> resolved spawn limit
+    private final Map<Set<Context>, Integer> spawnLimits = new HashMap<>();
+    private long refreshedAt;
+    private boolean valid;
+
+    GDEntityCounter(GDClaim claim) {
+        this.claim = claim;
+    }
+
+    public int getCount(EntityType type) {
+        this.refreshIfNeeded();
+        return this.counts.getInt(type);
+    }
+
+    public int getSpawnLimit(Set<Context> contexts) {
+        this.refreshIfNeeded();
+        Integer limit = this.spawnLimits.get(contexts);
+        if (limit == null) {
+            limit = this.claim.resolveSpawnLimit(contexts);
+            this.spawnLimits.put(ImmutableSet.copyOf(contexts), limit);
+        }
+        return limit;
+    }
+
+    public void increment(EntityType type) {
+        if (this.valid) {
+            this.counts.addTo(type, 1);
+        }
+    }
+
+    public void decrement(EntityType type) {
+        if (this.valid && this.counts.getInt(type) > 0) {
+            this.counts.addTo(type, -1);
+        }
+    }
+
+    // Called when chunks of the claim load or unload, or the claim is resized
+    public void invalidate() {
+        this.valid = false;
+    }
+
+    private void refreshIfNeeded() {
+        final long now = System.nanoTime();
+        if (this.valid && now - this.refreshedAt < REFRESH_NANOS) {
+            return;
+        }
+
+        this.counts.clear();
+        this.spawnLimits.clear();
+        for (Chunk chunk : this.claim.getChunks()) {
+            for (Entity entity : chunk.getEntities()) {
+                if (entity instanceof LivingEntity) {
+                    this.counts.addTo(entity.getType(), 1);
+                }
+            }
+        }
+        this.refreshedAt = now;
+        this.valid = true;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.claim;
+
+import com.griefdefender.api.claim.Claim;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Overlaps found between a claim and the top level claims around it.
+ *
+ * <p>Each candidate is classified once, in the order given, so callers
+ * can act on the first conflict the same way a chunk scan would.</p>
+ */
+public class GDOverlapReport {
+
+    public enum OverlapType {
+        // Claims band across each other
+        CROSSING,
+        // Other claim is inside the claim
+        INSIDE,
+        // Claim is inside the other claim
+        ENCLOSING
+    }
+
+    public static class Overlap {
+
+        private final GDClaim claim;
+        private final OverlapType type;
+
+        Overlap(GDClaim claim, OverlapType type) {
+            this.claim = claim;
+            this.type = type;
+        }
+
+        public GDClaim getClaim() {
+            return this.claim;
+        }
+
+        public OverlapType getType() {
+            return this.type;
+        }
+    }
+
+    private final GDClaim claim;
+    private final List<Overlap> overlaps;
+
+    private GDOverlapReport(GDClaim claim, List<Overlap> overlaps) {
+        this.claim = claim;
+        this.overlaps = overlaps;
+    }
+
+    /**
+     * Classifies each distinct candidate against the claim.
+     *
+     * @param claim The claim being checked
+     * @param candidates The claims to check against
+     * @return The overlap report
+     */
+    public static GDOverlapReport collect(GDClaim claim, Collection<Claim> candidates) {
+        final List<Overlap> overlaps = new ArrayList<>();
+        for (Claim candidate : candidates) {
+            final GDClaim other = (GDClaim) candidate;
+            if (other.getUniqueId().equals(claim.getUniqueId())) {
+                continue;
+            }
+            final OverlapType type = classify(claim, other);
+            if (type != null) {
+                overlaps.add(new Overlap(other, type));
+            }
+        }
+        return new GDOverlapReport(claim, overlaps);
+    }
+
+    /**
+     * Gets how the other claim overlaps the claim.
+     *
+     * @param claim The claim being checked
+     * @param other The other claim
+     * @return The overlap type, or null if they do not overlap
+     */
+    public static OverlapType classify(GDClaim claim, GDClaim other) {
+        if (!intersectsArea(claim, other)) {
+            return null;
+        }
+        if (claim.isBandingAcross(other) || other.isBandingAcross(claim)) {
+            return OverlapType.CROSSING;
+        }
+        if (other.isInside(claim)) {
+            return OverlapType.INSIDE;
+        }
+        if (claim.isInside(other)) {
+            return OverlapType.ENCLOSING;
+        }
+        return null;
+    }
+
+    // Claims can only overlap if their x/z areas intersect
+    public static boolean intersectsArea(Claim claim, Claim other) {
+        return claim.getLesserBoundaryCorner().getX() <= other.getGreaterBoundaryCorner().getX()
+                && claim.getGreaterBoundaryCorner().getX() >= other.getLesserBoundaryCorner().getX()
+                && claim.getLesserBoundaryCorner().getZ() <= other.getGreaterBoundaryCorner().getZ()
+                && claim.getGreaterBoundaryCorner().getZ() >= other.getLesserBoundaryCorner().getZ();
+    }
+
+    public GDClaim getClaim() {
+        return this.claim;
+    }
+
+    public List<Overlap> getOverlaps() {
+        return Collections.unmodifiableList(this.overlaps);
+    }
+
+    public boolean isEmpty() {
+        return this.overlaps.isEmpty();
+    }
+
+    public Overlap getFirst(OverlapType type) {
+        for (Overlap overlap : this.overlaps) {
+            if (overlap.type == type) {
+                return overlap;
+            }
+        }
+        return null;
+    }
+
+    public List<GDClaim> getClaims(OverlapType type) {
+        final List<GDClaim> claims = new ArrayList<>();
+        for (Overlap overlap : this.overlaps) {
+            if (overlap.type == type) {
+                claims.add(overlap.claim);
+            }
+        }
+        return claims;
+    }
+}
@@ -74,7 +74,10 @@ public void execute(CommandSender src, String command, @Optional String filter)
         } else if (command.equalsIgnoreCase("paste")) {
             paste = true;
         } else if (command.equalsIgnoreCase("off")) {
-            GriefDefenderPlugin.getInstance().getDebugUserMap().remove(src.getName());
+            final GDDebugData removed = GriefDefenderPlugin.getInstance().getDebugUserMap().remove(src.getName());
+            if (removed != null) {
+                removed.stop();
+            }
             if (GriefDefenderPlugin.getInstance().getDebugUserMap().isEmpty()) {
                 GriefDefenderPlugin.debugActive = false;
             }
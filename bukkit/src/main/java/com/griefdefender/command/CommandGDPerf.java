@@ -0,0 +1,141 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.command;
+
+import co.aikar.commands.BaseCommand;
+import co.aikar.commands.annotation.CommandAlias;
+import co.aikar.commands.annotation.CommandPermission;
+import co.aikar.commands.annotation.Description;
+import co.aikar.commands.annotation.Optional;
+import co.aikar.commands.annotation.Subcommand;
+import co.aikar.commands.annotation.Syntax;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.griefdefender.GDBootstrap;
+import com.griefdefender.GDMetrics;
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.permission.GDPermissions;
+import net.kyori.text.Component;
+import net.kyori.text.TextComponent;
+import net.kyori.text.adapter.bukkit.TextAdapter;
+import net.kyori.text.format.TextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.command.CommandSender;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+@CommandAlias("%griefdefender")
+@CommandPermission(GDPermissions.COMMAND_ADMIN_PERF)
+public class CommandGDPerf extends BaseCommand {
+
+    private static final int MAX_LISTENERS = 10;
+
+    @CommandAlias("gdperf")
+    @Description("Displays GriefDefender performance metrics.")
+    @Syntax("[reset|export]")
+    @Subcommand("perf")
+    public void execute(CommandSender src, @Optional String action) {
+        if (action != null && action.equalsIgnoreCase("reset")) {
+            GDMetrics.reset();
+            TextAdapter.sendComponent(src, TextComponent.builder("")
+                    .append(GriefDefenderPlugin.GD_TEXT)
+                    .append("Performance metrics reset.", TextColor.GREEN)
+                    .build());
+            return;
+        }
+        if (action != null && action.equalsIgnoreCase("export")) {
+            this.export(src);
+            return;
+        }
+
+        final double seconds = Math.max(1, GDMetrics.getUptimeMillis() / 1000.0);
+        final TextComponent.Builder builder = TextComponent.builder("")
+                .append(GriefDefenderPlugin.GD_TEXT)
+                .append("Performance over ", TextColor.GRAY)
+                .append(String.format("%.0fs", seconds), TextColor.AQUA)
+                .append("\n");
+        final List<GDMetrics.Histogram> histograms = GDMetrics.getHistograms();
+        for (int i = 0; i < histograms.size() && i < MAX_LISTENERS; i++) {
+            final GDMetrics.Histogram histogram = histograms.get(i);
+            builder.append(histogram.getName(), TextColor.YELLOW)
+                .append(" count=", TextColor.GRAY)
+                .append(String.valueOf(histogram.getCount()), TextColor.WHITE)
+                .append(" total=", TextColor.GRAY)
+                .append(formatMillis(histogram.getTotalNanos()), TextColor.WHITE)
+                .append(" p50=", TextColor.GRAY)
+                .append(formatMillis(histogram.getPercentile(0.5)), TextColor.WHITE)
+                .append(" p99=", TextColor.GRAY)
+                .append(formatMillis(histogram.getPercentile(0.99)), TextColor.WHITE)
+                .append(" max=", TextColor.GRAY)
+                .append(formatMillis(histogram.getMaxNanos()), TextColor.WHITE)
+                .append("\n");
+        }
+        builder.append("Claim lookups: ", TextColor.GRAY)
+            .append(String.format("%d (%.1f/s)", GDMetrics.CLAIM_LOOKUPS.sum(), GDMetrics.CLAIM_LOOKUPS.sum() / seconds), TextColor.WHITE)
+            .append("\n")
+            .append("Permission checks: ", TextColor.GRAY)
+            .append(String.format("%d (%.1f/s)", GDMetrics.PERMISSION_CHECKS.sum(), GDMetrics.PERMISSION_CHECKS.sum() / seconds), TextColor.WHITE)
+            .append("\n");
+        for (Map.Entry<String, CacheStats> entry : GDMetrics.getCacheStats().entrySet()) {
+            builder.append("Cache " + entry.getKey() + ": ", TextColor.GRAY)
+                .append(String.format("%.1f%% hits (%d requests)", entry.getValue().hitRate() * 100, entry.getValue().requestCount()), TextColor.WHITE)
+                .append("\n");
+        }
+        builder.append("Save queue: ", TextColor.GRAY)
+            .append(String.valueOf(GDMetrics.getSaveQueueDepth()), TextColor.WHITE);
+        TextAdapter.sendComponent(src, builder.build());
+    }
+
+    private void export(CommandSender src) {
+        final String prometheus = GDMetrics.toPrometheus();
+        final String json = GDMetrics.toJson();
+        final Path metricsDir = GriefDefenderPlugin.getInstance().getConfigPath().resolve("metrics");
+        GriefDefenderPlugin.getInstance().executor.execute(() -> {
+            Component message;
+            try {
+                Files.createDirectories(metricsDir);
+                Files.write(metricsDir.resolve("metrics.prom"), prometheus.getBytes(StandardCharsets.UTF_8));
+                Files.write(metricsDir.resolve("metrics.json"), json.getBytes(StandardCharsets.UTF_8));
+                message = TextComponent.builder("")
+                        .append(GriefDefenderPlugin.GD_TEXT)
+                        .append("Metrics exported to ", TextColor.GREEN)
+                        .append(metricsDir.toString(), TextColor.AQUA)
+                        .build();
+            } catch (IOException e) {
+                message = TextComponent.of("Could not export metrics: " + e.getMessage(), TextColor.RED);
+            }
+            final Component result = message;
+            Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> TextAdapter.sendComponent(src, result));
+        });
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2fms", GDMetrics.toMillis(nanos));
+    }
+}
@@ -167,7 +167,7 @@ public static void showTrustList(Player src, GDClaim claim, GDPlayerData playerD
                             .append("x", TextColor.RED)
                             .hoverEvent(HoverEvent.showText(MessageCache.getInstance().UI_CLICK_REMOVE))
                             .clickEvent(ClickEvent.runCommand(GDCallbackHolder.getInstance().createCallbackRunCommand(
-                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), claim.getInternalClaimData().getManagers(), uuid))))
+                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), TrustTypes.MANAGER, uuid))))
                             .build())
                         .append("]", TextColor.WHITE)
                         .build());
@@ -202,7 +202,7 @@ public static void showTrustList(Player src, GDClaim claim, GDPlayerData playerD
                             .append("x", TextColor.RED)
                             .hoverEvent(HoverEvent.showText(MessageCache.getInstance().UI_CLICK_REMOVE))
                             .clickEvent(ClickEvent.runCommand(GDCallbackHolder.getInstance().createCallbackRunCommand(
-                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), claim.getInternalClaimData().getBuilders(), uuid))))
+                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), TrustTypes.BUILDER, uuid))))
                             .build())
                         .append("]", TextColor.WHITE)
                         .build());
@@ -237,7 +237,7 @@ public static void showTrustList(Player src, GDClaim claim, GDPlayerData playerD
                             .append("x", TextColor.RED)
                             .hoverEvent(HoverEvent.showText(MessageCache.getInstance().UI_CLICK_REMOVE))
                             .clickEvent(ClickEvent.runCommand(GDCallbackHolder.getInstance().createCallbackRunCommand(
-                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), claim.getInternalClaimData().getContainers(), uuid))))
+                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), TrustTypes.CONTAINER, uuid))))
                             .build())
                         .append("]", TextColor.WHITE)
                         .build());
@@ -272,7 +272,7 @@ public static void showTrustList(Player src, GDClaim claim, GDPlayerData playerD
                             .append("x", TextColor.RED)
                             .hoverEvent(HoverEvent.showText(MessageCache.getInstance().UI_CLICK_REMOVE))
                             .clickEvent(ClickEvent.runCommand(GDCallbackHolder.getInstance().createCallbackRunCommand(
-                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), claim.getInternalClaimData().getAccessors(), uuid))))
+                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), TrustTypes.ACCESSOR, uuid))))
                             .build())
                         .append("]", TextColor.WHITE)
                         .build());
@@ -319,7 +319,7 @@ public static void showTrustList(Player src, GDClaim claim, GDPlayerData playerD
                             .append("x", TextColor.RED)
                             .hoverEvent(HoverEvent.showText(MessageCache.getInstance().UI_CLICK_REMOVE))
                             .clickEvent(ClickEvent.runCommand(GDCallbackHolder.getInstance().createCallbackRunCommand(
-                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), trusts, uuid))))
+                                    createRemoveConsumer(src, claim, playerData, type, returnCommand, claim.getInternalClaimData(), type, uuid))))
                             .build())
                         .append("]", TextColor.WHITE)
                         .build());
@@ -474,9 +474,9 @@ private static Consumer<CommandSender> createCancelConsumer(Player src, GDClaim
         };
     }
 
-    private static Consumer<CommandSender> createRemoveConsumer(Player src, GDClaim claim, GDPlayerData playerData, TrustType type, Component returnCommand, IClaimData data, List<UUID> trustList, UUID uuid) {
+    private static Consumer<CommandSender> createRemoveConsumer(Player src, GDClaim claim, GDPlayerData playerData, TrustType type, Component returnCommand, IClaimData data, TrustType trustType, UUID uuid) {
         return consumer -> {
-            trustList.remove(uuid);
+            data.removeUserTrust(uuid, trustType);
             data.setRequiresSave(true);
             data.save();
             showTrustList(src, claim, playerData, type, new ArrayList<>(), returnCommand);
@@ -53,8 +53,6 @@
 import com.griefdefender.permission.GDPermissions;
 import com.griefdefender.util.PermissionUtil;
 
-import java.util.List;
-import java.util.UUID;
 
 import org.bukkit.entity.Player;
 
@@ -154,8 +152,7 @@ public void execute(Player player, String target, @Optional String type) {
             return;
         }
 
-        final List<UUID> trustList = claim.getUserTrustList(trustType);
-        if (trustList.contains(user.getUniqueId())) {
+        if (claim.getUserTrustList(trustType).contains(user.getUniqueId())) {
             final Component message = MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TRUST_ALREADY_HAS,
                 ImmutableMap.of(
                     "target", user.getName(),
@@ -164,7 +161,7 @@ public void execute(Player player, String target, @Optional String type) {
             return;
         }
 
-        trustList.add(user.getUniqueId());
+        claim.getInternalClaimData().addUserTrust(user.getUniqueId(), trustType);
         claim.getInternalClaimData().setRequiresSave(true);
         claim.getInternalClaimData().save();
 
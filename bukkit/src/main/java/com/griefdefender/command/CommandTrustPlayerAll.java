@@ -54,9 +54,7 @@
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 
 @CommandAlias("%griefdefender")
 @CommandPermission(GDPermissions.COMMAND_TRUSTALL_PLAYER)
@@ -137,10 +135,7 @@ public void execute(Player player, String target, @Optional String type) {
 
     private void addAllUserTrust(Claim claim, GDPermissionUser user, TrustType trustType) {
         GDClaim gdClaim = (GDClaim) claim;
-        List<UUID> trustList = gdClaim.getUserTrustList(trustType);
-        if (!trustList.contains(user.getUniqueId())) {
-            trustList.add(user.getUniqueId());
-        }
+        gdClaim.getInternalClaimData().addUserTrust(user.getUniqueId(), trustType);
 
         gdClaim.getInternalClaimData().setRequiresSave(true);
         gdClaim.getInternalClaimData().save();
@@ -53,8 +53,6 @@
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.permission.GDPermissions;
 
-import java.util.List;
-import java.util.UUID;
 
 import org.bukkit.entity.Player;
 
@@ -141,8 +139,8 @@ public void execute(Player player, String target, @Optional String type) {
     }
 
     private void removeUserTrust(GDClaim claim, GDPermissionUser user, TrustType type) {
-        final List<UUID> trustList = claim.getUserTrustList(type);
-        if (trustList.remove(user.getUniqueId())) {
+        if (claim.getUserTrustList(type).contains(user.getUniqueId())) {
+            claim.getInternalClaimData().removeUserTrust(user.getUniqueId(), type);
             claim.getInternalClaimData().setRequiresSave(true);
             claim.getInternalClaimData().save();
         }
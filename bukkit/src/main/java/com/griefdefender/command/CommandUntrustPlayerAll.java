@@ -54,9 +54,7 @@
 import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 
 @CommandAlias("%griefdefender")
 @CommandPermission(GDPermissions.COMMAND_UNTRUSTALL_PLAYER)
@@ -136,8 +134,8 @@ public void execute(Player player, String target, @Optional String type) {
     }
 
     private void removeUserTrust(GDClaim claim, GDPermissionUser user, TrustType type) {
-        final List<UUID> trustList = claim.getUserTrustList(type);
-        if (trustList.remove(user.getUniqueId())) {
+        if (claim.getUserTrustList(type).contains(user.getUniqueId())) {
+            claim.getInternalClaimData().removeUserTrust(user.getUniqueId(), type);
             claim.getInternalClaimData().setRequiresSave(true);
             claim.getInternalClaimData().save();
         }
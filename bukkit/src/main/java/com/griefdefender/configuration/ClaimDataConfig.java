@@ -28,17 +28,21 @@
 import com.griefdefender.api.Tristate;
 import com.griefdefender.api.claim.ClaimType;
 import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.claim.TrustTypes;
 import com.griefdefender.api.data.EconomyData;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.category.ConfigCategory;
 import com.griefdefender.util.BlockUtil;
 
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import net.kyori.text.Component;
 import ninja.leaping.configurate.objectmapping.Setting;
 import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -46,7 +50,15 @@
 @ConfigSerializable
 public class ClaimDataConfig extends ConfigCategory implements IClaimData {
 
+    private static final int TRUST_ACCESSOR = 1;
+    private static final int TRUST_CONTAINER = 1 << 1;
+    private static final int TRUST_BUILDER = 1 << 2;
+    private static final int TRUST_MANAGER = 1 << 3;
+
     private boolean requiresSave = false;
+    // Trust bits per user, kept in sync by the trust mutators and rebuilt after the lists are replaced
+    private Object2IntOpenHashMap<UUID> userTrustIndex;
+    private boolean userTrustIndexDirty = true;
     private Vector3i lesserPos;
     private Vector3i greaterPos;
     private Vector3i spawnPos;
@@ -240,19 +252,132 @@ public Vector3i getGreaterBoundaryCornerPos() {
     }
 
     public List<UUID> getAccessors() {
-        return this.accessors;
+        return Collections.unmodifiableList(this.accessors);
     }
 
     public List<UUID> getBuilders() {
-        return this.builders;
+        return Collections.unmodifiableList(this.builders);
     }
 
     public List<UUID> getContainers() {
-        return this.containers;
+        return Collections.unmodifiableList(this.containers);
     }
 
     public List<UUID> getManagers() {
-        return this.managers;
+        return Collections.unmodifiableList(this.managers);
+    }
+
+    @Override
+    public boolean isUserTrusted(UUID uuid, TrustType type) {
+        final int mask;
+        if (type == TrustTypes.ACCESSOR) {
+            mask = TRUST_ACCESSOR | TRUST_CONTAINER | TRUST_BUILDER | TRUST_MANAGER;
+        } else if (type == TrustTypes.CONTAINER) {
+            mask = TRUST_CONTAINER | TRUST_BUILDER | TRUST_MANAGER;
+        } else if (type == TrustTypes.BUILDER) {
+            mask = TRUST_BUILDER | TRUST_MANAGER;
+        } else if (type == TrustTypes.MANAGER) {
+            mask = TRUST_MANAGER;
+        } else {
+            return false;
+        }
+        if (this.userTrustIndexDirty) {
+            this.rebuildUserTrustIndex();
+        }
+        return (this.userTrustIndex.getInt(uuid) & mask) != 0;
+    }
+
+    @Override
+    public void addUserTrust(UUID uuid, TrustType type) {
+        final List<UUID> trustList = this.getUserTrustList(type);
+        if (trustList == null || trustList.contains(uuid)) {
+            return;
+        }
+        trustList.add(uuid);
+        this.requiresSave = true;
+        if (!this.userTrustIndexDirty) {
+            this.userTrustIndex.put(uuid, this.userTrustIndex.getInt(uuid) | getTrustBit(type));
+        }
+    }
+
+    @Override
+    public void removeUserTrust(UUID uuid, TrustType type) {
+        final List<UUID> trustList = this.getUserTrustList(type);
+        if (trustList == null || !trustList.remove(uuid)) {
+            return;
+        }
+        this.requiresSave = true;
+        if (!this.userTrustIndexDirty) {
+            final int bits = this.userTrustIndex.getInt(uuid) & ~getTrustBit(type);
+            if (bits == 0) {
+                this.userTrustIndex.removeInt(uuid);
+            } else {
+                this.userTrustIndex.put(uuid, bits);
+            }
+        }
+    }
+
+    @Override
+    public void clearUserTrusts(TrustType type) {
+        final List<UUID> trustList = this.getUserTrustList(type);
+        if (trustList == null || trustList.isEmpty()) {
+            return;
+        }
+        trustList.clear();
+        this.requiresSave = true;
+        this.userTrustIndexDirty = true;
+    }
+
+    // Must be called after the trust lists are repopulated from storage
+    public void invalidateUserTrustIndex() {
+        this.userTrustIndexDirty = true;
+    }
+
+    private List<UUID> getUserTrustList(TrustType type) {
+        if (type == TrustTypes.ACCESSOR) {
+            return this.accessors;
+        }
+        if (type == TrustTypes.CONTAINER) {
+            return this.containers;
+        }
+        if (type == TrustTypes.BUILDER) {
+            return this.builders;
+        }
+        if (type == TrustTypes.MANAGER) {
+            return this.managers;
+        }
+        return null;
+    }
+
+    private static int getTrustBit(TrustType type) {
+        if (type == TrustTypes.ACCESSOR) {
+            return TRUST_ACCESSOR;
+        }
+        if (type == TrustTypes.CONTAINER) {
+            return TRUST_CONTAINER;
+        }
+        if (type == TrustTypes.BUILDER) {
+            return TRUST_BUILDER;
+        }
+        return TRUST_MANAGER;
+    }
+
+    private void rebuildUserTrustIndex() {
+        final Object2IntOpenHashMap<UUID> index = new Object2IntOpenHashMap<>();
+        for (UUID uuid : this.accessors) {
+            index.put(uuid, index.getInt(uuid) | TRUST_ACCESSOR);
+        }
+        for (UUID uuid : this.containers) {
+            index.put(uuid, index.getInt(uuid) | TRUST_CONTAINER);
+        }
+        for (UUID uuid : this.builders) {
+            index.put(uuid, index.getInt(uuid) | TRUST_BUILDER);
+        }
+        for (UUID uuid : this.managers) {
+            index.put(uuid, index.getInt(uuid) | TRUST_MANAGER);
+        }
+        this.userTrustIndex = index;
+        this.userTrustIndexDirty = false;
     }
 
     public List<String> getAccessorGroups() {
@@ -346,25 +471,29 @@ public void setGreaterBoundaryCorner(String location) {
     @Override
     public void setAccessors(List<UUID> accessors) {
         this.requiresSave = true;
-        this.accessors = accessors;
+        this.userTrustIndexDirty = true;
+        this.accessors = new ArrayList<>(accessors);
     }
 
     @Override
     public void setBuilders(List<UUID> builders) {
         this.requiresSave = true;
-        this.builders = builders;
+        this.userTrustIndexDirty = true;
+        this.builders = new ArrayList<>(builders);
     }
 
     @Override
     public void setContainers(List<UUID> containers) {
         this.requiresSave = true;
-        this.containers = containers;
+        this.userTrustIndexDirty = true;
+        this.containers = new ArrayList<>(containers);
     }
 
     @Override
     public void setManagers(List<UUID> coowners) {
         this.requiresSave = true;
-        this.managers = coowners;
+        this.userTrustIndexDirty = true;
+        this.managers = new ArrayList<>(coowners);
     }
 
     public boolean requiresSave() {
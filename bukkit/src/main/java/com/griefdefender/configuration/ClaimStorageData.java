@@ -28,6 +28,7 @@
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.claim.ClaimType;
 import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.storage.ClaimWriteQueue;
 import ninja.leaping.configurate.ConfigurationOptions;
 import ninja.leaping.configurate.commented.CommentedConfigurationNode;
 import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
@@ -45,7 +46,7 @@
 public class ClaimStorageData {
 
     protected HoconConfigurationLoader loader;
-    private CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root(ConfigurationOptions.defaults());
+    protected CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root(ConfigurationOptions.defaults());
     protected ObjectMapper<ClaimDataConfig>.BoundInstance configMapper;
     protected ClaimDataConfig configBase;
     public Path filePath;
@@ -95,6 +96,12 @@ public class ClaimStorageData {
     // SUB
     public static final String MAIN_INHERIT_PARENT = "inherit-parent";
 
+    // Used by storage backends that do not keep one file per claim
+    protected ClaimStorageData(Path path) {
+        this.filePath = path;
+        this.folderPath = path.getParent();
+    }
+
     // Used for new claims after server startup
     @SuppressWarnings({"unchecked", "rawtypes"})
     public ClaimStorageData(Path path, UUID worldUniqueId, UUID ownerUniqueId, ClaimType type, boolean cuboid) {
@@ -202,17 +209,40 @@ public ClaimDataConfig getConfig() {
     public void save() {
         try {
             this.configMapper.serialize(this.root.getNode(GriefDefenderPlugin.MOD_ID));
-            this.loader.save(this.root);
+            final ClaimWriteQueue writeQueue = GriefDefenderPlugin.getInstance().claimWriteQueue;
+            if (writeQueue != null) {
+                // Only the node copy is made here, rendering and IO happen on the writer thread
+                writeQueue.write(this.filePath, this.root.copy());
+            } else {
+                this.loader.save(this.root);
+            }
             this.configBase.setRequiresSave(false);
         } catch (IOException | ObjectMappingException e) {
             GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to save configuration", e);
         }
     }
 
+    // Must be called before the claim file is moved so the moved file is up to date
+    public void flushPendingWrite() {
+        final ClaimWriteQueue writeQueue = GriefDefenderPlugin.getInstance().claimWriteQueue;
+        if (writeQueue != null) {
+            writeQueue.flush(this.filePath);
+        }
+    }
+
+    // Must be called before the claim file is deleted so it is not written again
+    public void discardPendingWrite() {
+        final ClaimWriteQueue writeQueue = GriefDefenderPlugin.getInstance().claimWriteQueue;
+        if (writeQueue != null) {
+            writeQueue.discard(this.filePath);
+        }
+    }
+
     public void reload() {
         try {
             this.root = this.loader.load(ConfigurationOptions.defaults());
             this.configBase = this.configMapper.populate(this.root.getNode(GriefDefenderPlugin.MOD_ID));
+            this.configBase.invalidateUserTrustIndex();
         } catch (Exception e) {
             GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to load configuration", e);
         }
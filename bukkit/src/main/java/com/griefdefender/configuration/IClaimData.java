@@ -25,6 +25,7 @@
 package com.griefdefender.configuration;
 
 import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.claim.TrustType;
 import com.griefdefender.api.data.ClaimData;
 
 import java.util.List;
@@ -52,6 +53,14 @@ public interface IClaimData extends ClaimData {
 
     List<String> getManagerGroups();
 
+    boolean isUserTrusted(UUID uuid, TrustType type);
+
+    void addUserTrust(UUID uuid, TrustType type);
+
+    void removeUserTrust(UUID uuid, TrustType type);
+
+    void clearUserTrusts(TrustType type);
+
     void setOwnerUniqueId(UUID newClaimOwner);
 
     void setWorldUniqueId(UUID uuid);
@@ -0,0 +1,151 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.configuration;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.claim.ClaimTypes;
+import com.griefdefender.storage.ClaimRecordStore;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.objectmapping.ObjectMapper;
+import ninja.leaping.configurate.objectmapping.ObjectMappingException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Claim storage kept as a record in a {@link ClaimRecordStore} instead of its own file.
+ *
+ * <p>The file path is only logical. It mirrors where the claim file would
+ * live with file storage so the layout can be exported again.</p>
+ */
+public class RecordClaimStorageData extends ClaimStorageData {
+
+    private final ClaimRecordStore store;
+    private final UUID claimUniqueId;
+
+    // Used for new claims after server startup
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RecordClaimStorageData(ClaimRecordStore store, Path path, UUID worldUniqueId, UUID ownerUniqueId, ClaimType type, boolean cuboid) {
+        super(path);
+        this.store = store;
+        this.claimUniqueId = UUID.fromString(path.getFileName().toString());
+        try {
+            if (type == ClaimTypes.TOWN) {
+                this.configMapper = (ObjectMapper.BoundInstance) ObjectMapper.forClass(TownDataConfig.class).bindToNew();
+            } else {
+                this.configMapper = (ObjectMapper.BoundInstance) ObjectMapper.forClass(ClaimDataConfig.class).bindToNew();
+            }
+            this.configMapper.getInstance().setWorldUniqueId(worldUniqueId);
+            this.configMapper.getInstance().setOwnerUniqueId(ownerUniqueId);
+            this.configMapper.getInstance().setType(type);
+            this.configMapper.getInstance().setCuboid(cuboid);
+            this.configMapper.getInstance().setClaimStorageData(this);
+            reload();
+            ((EconomyDataConfig) this.configMapper.getInstance().getEconomyData()).activeConfig = GriefDefenderPlugin.getActiveConfig(worldUniqueId);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to initialize configuration", e);
+        }
+    }
+
+    // Used when an existing claim moves, the claim data in memory is kept as is
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RecordClaimStorageData(ClaimRecordStore store, Path path, UUID worldUniqueId, ClaimDataConfig claimData) {
+        super(path);
+        this.store = store;
+        this.claimUniqueId = UUID.fromString(path.getFileName().toString());
+        try {
+            this.configMapper = (ObjectMapper.BoundInstance) ((ObjectMapper) ObjectMapper.forClass(claimData.getClass())).bind(claimData);
+            this.configMapper.getInstance().setClaimStorageData(this);
+            this.configBase = claimData;
+            ((EconomyDataConfig) this.configMapper.getInstance().getEconomyData()).activeConfig = GriefDefenderPlugin.getActiveConfig(worldUniqueId);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to initialize configuration", e);
+        }
+    }
+
+    // Used during server load
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public RecordClaimStorageData(ClaimRecordStore store, Path path, UUID worldUniqueId, CommentedConfigurationNode root) {
+        super(path);
+        this.store = store;
+        this.claimUniqueId = UUID.fromString(path.getFileName().toString());
+        try {
+            if (path.getParent().endsWith("town")) {
+                this.configMapper = (ObjectMapper.BoundInstance) ObjectMapper.forClass(TownDataConfig.class).bindToNew();
+            } else {
+                this.configMapper = (ObjectMapper.BoundInstance) ObjectMapper.forClass(ClaimDataConfig.class).bindToNew();
+            }
+            this.configMapper.getInstance().setClaimStorageData(this);
+            this.root = root;
+            this.configBase = this.configMapper.populate(this.root.getNode(GriefDefenderPlugin.MOD_ID));
+            ((EconomyDataConfig) this.configMapper.getInstance().getEconomyData()).activeConfig = GriefDefenderPlugin.getActiveConfig(worldUniqueId);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to initialize configuration", e);
+        }
+    }
+
+    // Path of the claim relative to the world's ClaimData folder using '/' as separator
+    public String getRelativePath() {
+        return this.store.getClaimDataPath().relativize(this.filePath).toString().replace(File.separatorChar, '/');
+    }
+
+    @Override
+    public void save() {
+        try {
+            this.configMapper.serialize(this.root.getNode(GriefDefenderPlugin.MOD_ID));
+            this.store.put(this.claimUniqueId, this.getRelativePath(), this.configBase, this.root);
+            this.configBase.setRequiresSave(false);
+        } catch (IOException | ObjectMappingException e) {
+            GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to save configuration", e);
+        }
+    }
+
+    @Override
+    public void flushPendingWrite() {
+        // Records have no file to move
+    }
+
+    @Override
+    public void discardPendingWrite() {
+        // Deleting the record replaces any pending write
+    }
+
+    @Override
+    public void reload() {
+        try {
+            final ClaimRecordStore.Record record = this.store.read(this.claimUniqueId);
+            if (record != null) {
+                this.root = record.getRoot();
+            }
+            this.configBase = this.configMapper.populate(this.root.getNode(GriefDefenderPlugin.MOD_ID));
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to load configuration", e);
+        }
+    }
+}
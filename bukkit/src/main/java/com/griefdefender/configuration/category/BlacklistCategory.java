@@ -26,6 +26,7 @@
 
 import com.griefdefender.api.permission.flag.Flag;
 import com.griefdefender.registry.FlagRegistryModule;
+import com.griefdefender.util.BlacklistMatcher;
 import ninja.leaping.configurate.objectmapping.Setting;
 import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
 
@@ -33,6 +34,7 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.checkerframework.checker.nullness.qual.Nullable;
@@ -52,6 +54,11 @@ public class BlacklistCategory extends ConfigCategory {
     @Setting(value = "entity-damage-source-blacklist", comment = "A global list of entity damage sources that are ignored in events by default.")
     public List<String> entityDamageSourceBlacklist = new ArrayList<>();
 
+    // Compiled on first use and rebuilt once the lists are replaced by a reload
+    private transient BlacklistMatcher globalSourceMatcher;
+    private transient BlacklistMatcher globalTargetMatcher;
+    private final transient Map<String, BlacklistMatcher> flagMatchers = new ConcurrentHashMap<>();
+
     public BlacklistCategory() {
         for (Flag flag : FlagRegistryModule.getInstance().getAll()) {
             this.flagIdBlacklist.put(flag.getName().toLowerCase(), new ArrayList<>());
@@ -77,6 +84,49 @@ public List<String> getGlobalTargetBlacklist() {
         return this.globalTargetBlacklist;
     }
 
+    @Nullable
+    public BlacklistMatcher getGlobalSourceMatcher() {
+        final List<String> list = this.globalSourceBlacklist;
+        if (list == null) {
+            return null;
+        }
+        BlacklistMatcher matcher = this.globalSourceMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(list)) {
+            matcher = new BlacklistMatcher(list);
+            this.globalSourceMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    @Nullable
+    public BlacklistMatcher getGlobalTargetMatcher() {
+        final List<String> list = this.globalTargetBlacklist;
+        if (list == null) {
+            return null;
+        }
+        BlacklistMatcher matcher = this.globalTargetMatcher;
+        if (matcher == null || !matcher.isCompiledFrom(list)) {
+            matcher = new BlacklistMatcher(list);
+            this.globalTargetMatcher = matcher;
+        }
+        return matcher;
+    }
+
+    // Returns null if the flag has no blacklisted ids
+    @Nullable
+    public BlacklistMatcher getFlagMatcher(String flag) {
+        final List<String> list = this.flagIdBlacklist.get(flag);
+        if (list == null || list.isEmpty()) {
+            return null;
+        }
+        BlacklistMatcher matcher = this.flagMatchers.get(flag);
+        if (matcher == null || !matcher.isCompiledFrom(list)) {
+            matcher = new BlacklistMatcher(list);
+            this.flagMatchers.put(flag, matcher);
+        }
+        return matcher;
+    }
+
     public List<String> getEntityDamageSourceBlacklist() {
         return this.entityDamageSourceBlacklist;
     }
@@ -52,6 +52,8 @@ public class ClaimCategory extends ConfigCategory {
     public int borderBlockRadius = 0;
     @Setting(value = "expiration-cleanup-interval", comment = "The interval in minutes for cleaning up expired claims. Default: 0. Set to 0 to disable.")
     public int expirationCleanupInterval = 0;
+    @Setting(value = "expiration-cleanup-claims-per-tick", comment = "The maximum number of expired claims removed per tick once found by the cleanup task. Default: 5.")
+    public int expirationCleanupClaimsPerTick = 5;
     @Setting(value = "auto-nature-restore", comment = "Whether survival claims will be automatically restored to world generated state when expired. \nNote: This only supports world generated blocks. Consider using 'auto-schematic-restore' if using a custom world.")
     public boolean claimAutoNatureRestore = false;
     @Setting(value = "auto-schematic-restore", comment = "Whether survival claims will be automatically restored to its claim creation schematic on abandon/expiration. "
@@ -0,0 +1,44 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.configuration.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class StorageCategory extends ConfigCategory {
+
+    @Setting(value = "type", comment = "The claim storage backend to use. (Default: file)" +
+            "\nfile: One HOCON file per claim nested by claim type." +
+            "\nbinary: A single append-only claims.gdb file per world in the world's ClaimData folder." +
+            "\nsql: A SQL database holding claims, trusts and player claim blocks, see 'jdbc-url'." +
+            "\nNote: Switching to binary or sql imports existing claim files. Switching back to file exports claims.gdb to claim files." +
+            "\nNote: It is recommended to backup data before switching.")
+    public String type = "file";
+
+    @Setting(value = "jdbc-url", comment = "The JDBC url used by sql storage. Leave empty to use an embedded SQLite database in the GriefDefender folder." +
+            "\nNote: Servers sharing player data should point this to the same database.")
+    public String jdbcUrl = "";
+}
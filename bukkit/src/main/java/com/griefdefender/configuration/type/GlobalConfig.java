@@ -24,18 +24,22 @@
  */
 package com.griefdefender.configuration.type;
 
+import com.griefdefender.configuration.category.DebugCategory;
 import com.griefdefender.configuration.category.GuiCategory;
 import com.griefdefender.configuration.category.DynmapCategory;
 import com.griefdefender.configuration.category.MessageCategory;
 import com.griefdefender.configuration.category.MigratorCategory;
 import com.griefdefender.configuration.category.ModCategory;
 import com.griefdefender.configuration.category.PlayerDataCategory;
+import com.griefdefender.configuration.category.StorageCategory;
 import com.griefdefender.configuration.category.ThreadCategory;
 import com.griefdefender.configuration.category.TownCategory;
 import ninja.leaping.configurate.objectmapping.Setting;
 
 public class GlobalConfig extends ConfigBase {
 
+    @Setting
+    public DebugCategory debug = new DebugCategory();
     @Setting
     public DynmapCategory dynmap = new DynmapCategory();
     @Setting
@@ -51,6 +55,8 @@ public class GlobalConfig extends ConfigBase {
             "\nNote: It is recommended to backup data before using.")
     public MigratorCategory migrator = new MigratorCategory();
     @Setting
+    public StorageCategory storage = new StorageCategory();
+    @Setting
     public ThreadCategory thread = new ThreadCategory();
 
     @Setting
@@ -70,7 +70,6 @@
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
-import org.bukkit.World.Environment;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
 import org.bukkit.block.BlockState;
@@ -100,8 +99,6 @@
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 public class BlockEventHandler implements Listener {
@@ -454,37 +451,14 @@ public void onExplosionEvent(BlockExplodeEvent event) {
 
         final GDPermissionUser user = CauseContextHelper.getEventUser(event.getBlock().getLocation(), PlayerTracker.Type.OWNER);
         GDTimings.EXPLOSION_EVENT.startTiming();
-        GDClaim targetClaim = null;
-        final List<Block> filteredLocations = new ArrayList<>();
         final String sourceId = GDPermissionManager.getInstance().getPermissionIdentifier(source);
-        final int cancelBlockLimit = GriefDefenderPlugin.getGlobalConfig().getConfig().claim.explosionCancelBlockLimit;
         boolean denySurfaceExplosion = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionBlockSurfaceBlacklist.contains(sourceId);
         if (!denySurfaceExplosion) {
             denySurfaceExplosion = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionBlockSurfaceBlacklist.contains("any");
         }
-        for (Block block : event.blockList()) {
-            final Location location = block.getLocation();
-            targetClaim =  GriefDefenderPlugin.getInstance().dataStore.getClaimAt(location);
-            if (denySurfaceExplosion && block.getWorld().getEnvironment() != Environment.NETHER && location.getBlockY() >= location.getWorld().getSeaLevel()) {
-                filteredLocations.add(block);
-                GDPermissionManager.getInstance().processEventLog(event, location, targetClaim, Flags.EXPLOSION_BLOCK.getPermission(), source, block, user, "explosion-surface", Tristate.FALSE);
-                continue;
-            }
-            Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, block, user, true);
-            if (result == Tristate.FALSE) {
-                // Avoid lagging server from large explosions.
-                if (event.blockList().size() > cancelBlockLimit) {
-                    event.setCancelled(true);
-                    break;
-                }
-                filteredLocations.add(block);
-            }
-        }
-
-        if (event.isCancelled()) {
+        if (!ExplosionBlockFilter.filter(event, source, user, event.blockList(), denySurfaceExplosion)) {
+            event.setCancelled(true);
             event.blockList().clear();
-        } else if (!filteredLocations.isEmpty()) {
-            event.blockList().removeAll(filteredLocations);
         }
         GDTimings.EXPLOSION_EVENT.stopTiming();
     }
@@ -143,11 +143,14 @@ public boolean onEntityMove(Event event, Location fromLocation, Location toLocat
         }
 
         GDClaim fromClaim = null;
-        GDClaim toClaim = this.storage.getClaimAt(toLocation);
+        GDClaim toClaim = null;
         if (user != null) {
-            fromClaim = this.storage.getClaimAtPlayer(user.getInternalPlayerData(), fromLocation);
+            // Resolves from the tracked claim, toLocation becomes the tracked position
+            fromClaim = user.getInternalPlayerData().updateCurrentClaim(fromLocation);
+            toClaim = user.getInternalPlayerData().updateCurrentClaim(toLocation);
         } else {
             fromClaim = this.storage.getClaimAt(fromLocation);
+            toClaim = this.storage.getClaimAt(toLocation);
         }
 
         if (fromClaim == toClaim) {
@@ -454,7 +457,7 @@ private void checkPlayerFlight(GDPermissionUser user, GDClaim fromClaim, GDClaim
             return;
         }
 
-        final Boolean noFly = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Boolean.class), playerData.getSubject(), Options.PLAYER_DENY_FLIGHT, toClaim);
+        final boolean noFly = playerData.getOptionSnapshot(toClaim, player).denyFlight();
         final boolean adminFly = playerData.userOptionBypassPlayerDenyFlight;
         boolean trustFly = false;
         if (toClaim.isBasicClaim() || (toClaim.parent != null && toClaim.parent.isBasicClaim()) || toClaim.isInTown()) {
@@ -504,7 +507,7 @@ private void checkPlayerGodMode(GDPermissionUser user, GDClaim fromClaim, GDClai
             return;
         }
 
-        final Boolean noGodMode = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Boolean.class), playerData.getSubject(), Options.PLAYER_DENY_GODMODE, toClaim);
+        final boolean noGodMode = playerData.getOptionSnapshot(toClaim, player).denyGodMode();
         final boolean bypassOption = playerData.userOptionBypassPlayerDenyGodmode;
         if (!bypassOption && noGodMode) {
             player.setInvulnerable(false);
@@ -527,7 +530,7 @@ private void checkPlayerGameMode(GDPermissionUser user, GDClaim fromClaim, GDCla
 
         final GDPlayerData playerData = user.getInternalPlayerData();
         final GameMode currentGameMode = player.getGameMode();
-        final GameModeType gameModeType = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(GameModeType.class), playerData.getSubject(), Options.PLAYER_GAMEMODE, toClaim);
+        final GameModeType gameModeType = playerData.getOptionSnapshot(toClaim, player).getGameMode();
         if (gameModeType == GameModeTypes.UNDEFINED && playerData.lastGameMode != GameModeTypes.UNDEFINED) {
             player.setGameMode(PlayerUtil.GAMEMODE_MAP.get(playerData.lastGameMode));
             return;
@@ -562,7 +565,7 @@ private void checkPlayerFlySpeed(GDPermissionUser user, GDClaim fromClaim, GDCla
 
         final GDPlayerData playerData = user.getInternalPlayerData();
         final float currentFlySpeed = player.getFlySpeed();
-        final double flySpeed = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_FLY_SPEED, toClaim);
+        final double flySpeed = playerData.getOptionSnapshot(toClaim, player).getFlySpeed();
         if (flySpeed <= 0) {
             String configValue = GriefDefenderPlugin.getOptionConfig().getConfig().vanillaFallbackMap.get(Options.PLAYER_FLY_SPEED.getName().toLowerCase());
             Double defaultFlySpeed = null;
@@ -610,7 +613,7 @@ private void checkPlayerWalkSpeed(GDPermissionUser user, GDClaim fromClaim, GDCl
 
         final GDPlayerData playerData = user.getInternalPlayerData();
         final float currentWalkSpeed = player.getWalkSpeed();
-        final double walkSpeed = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_WALK_SPEED, toClaim);
+        final double walkSpeed = playerData.getOptionSnapshot(toClaim, player).getWalkSpeed();
         if (walkSpeed <= 0) {
             String configValue = GriefDefenderPlugin.getOptionConfig().getConfig().vanillaFallbackMap.get(Options.PLAYER_WALK_SPEED.getName().toLowerCase());
             Double defaultWalkSpeed = null;
@@ -657,7 +660,7 @@ public void checkPlayerWeather(GDPermissionUser user, GDClaim fromClaim, GDClaim
         }
 
         final GDPlayerData playerData = user.getInternalPlayerData();
-        final WeatherType weatherType = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(WeatherType.class), playerData.getSubject(), Options.PLAYER_WEATHER, toClaim);
+        final WeatherType weatherType = playerData.getOptionSnapshot(toClaim, player).getWeather();
         if (weatherType == null || weatherType == WeatherTypes.UNDEFINED) {
             player.resetPlayerWeather();
             return;
@@ -94,6 +94,7 @@
 import org.bukkit.event.entity.EntityDamageByEntityEvent;
 import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
+import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.entity.EntitySpawnEvent;
 import org.bukkit.event.entity.ExplosionPrimeEvent;
@@ -109,9 +110,7 @@
 import org.bukkit.projectiles.ProjectileSource;
 
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -249,32 +248,9 @@ public void onEntityExplodeEvent(EntityExplodeEvent event) {
             denySurfaceExplosion = GriefDefenderPlugin.getActiveConfig(world.getUID()).getConfig().claim.explosionBlockSurfaceBlacklist.contains("any");
         }
         GDTimings.EXPLOSION_EVENT.startTiming();
-        GDClaim targetClaim = null;
-        final int cancelBlockLimit = GriefDefenderPlugin.getGlobalConfig().getConfig().claim.explosionCancelBlockLimit;
-        final List<Block> filteredLocations = new ArrayList<>();
-        for (Block block : event.blockList()) {
-            final Location location = block.getLocation();
-            targetClaim =  GriefDefenderPlugin.getInstance().dataStore.getClaimAt(location);
-            if (denySurfaceExplosion && block.getWorld().getEnvironment() != Environment.NETHER && location.getBlockY() >= location.getWorld().getSeaLevel()) {
-                filteredLocations.add(block);
-                GDPermissionManager.getInstance().processEventLog(event, location, targetClaim, Flags.EXPLOSION_BLOCK.getPermission(), source, block, user, "explosion-surface", Tristate.FALSE);
-                continue;
-            }
-            final Tristate result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, block, user, true);
-            if (result == Tristate.FALSE) {
-                // Avoid lagging server from large explosions.
-                if (event.blockList().size() > cancelBlockLimit) {
-                    event.setCancelled(true);
-                    break;
-                }
-                filteredLocations.add(block);
-            }
-        }
-
-        if (event.isCancelled()) {
+        if (!ExplosionBlockFilter.filter(event, source, user, event.blockList(), denySurfaceExplosion)) {
+            event.setCancelled(true);
             event.blockList().clear();
-        } else if (!filteredLocations.isEmpty()) {
-            event.blockList().removeAll(filteredLocations);
         }
         GDTimings.EXPLOSION_EVENT.stopTiming();
     }
@@ -674,6 +650,40 @@ public void onSlimeSplitEvent(SlimeSplitEvent event) {
         handleEntitySpawn(event, event.getEntity(), event.getEntity());
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCreatureSpawnMonitor(CreatureSpawnEvent event) {
+        if (GDOptions.isOptionEnabled(Options.SPAWN_LIMIT)) {
+            this.updateEntityCount(event.getEntity(), true);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onEntityDeath(EntityDeathEvent event) {
+        if (GDOptions.isOptionEnabled(Options.SPAWN_LIMIT)) {
+            this.updateEntityCount(event.getEntity(), false);
+        }
+    }
+
+    // Keeps spawn limit counts current between rebuilds
+    private void updateEntityCount(LivingEntity entity, boolean spawned) {
+        final World world = entity.getWorld();
+        if (!GriefDefenderPlugin.getInstance().claimsEnabledForWorld(world.getUID())) {
+            return;
+        }
+
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+        // Parents count the entities of their children's chunks as well
+        GDClaim claim = (GDClaim) claimManager.getClaimAt(entity.getLocation(), false);
+        while (claim != null) {
+            if (spawned) {
+                claim.entityCounter.increment(entity.getType());
+            } else {
+                claim.entityCounter.decrement(entity.getType());
+            }
+            claim = claim.parent;
+        }
+    }
+
     public void handleEntitySpawn(Event event, Object source, Entity entity) {
         if (!GDFlags.ENTITY_SPAWN) {
             return;
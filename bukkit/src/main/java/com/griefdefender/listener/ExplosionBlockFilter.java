@@ -0,0 +1,145 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.listener;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.Tristate;
+import com.griefdefender.api.permission.flag.Flags;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
+import com.griefdefender.internal.util.NMSUtil;
+import com.griefdefender.permission.GDPermissionManager;
+import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.util.BlockUtil;
+import it.unimi.dsi.fastutil.longs.Long2BooleanOpenHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.World.Environment;
+import org.bukkit.block.Block;
+import org.bukkit.event.Event;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Evaluates explosion block permissions for a whole block list at once.
+ *
+ * <p>The result of {@link Flags#EXPLOSION_BLOCK} depends on the claim and the target
+ * block's contexts, which are built from its type and block state. It is resolved once
+ * per claim and block data string. Chunks without claims skip the claim lookup
+ * entirely.</p>
+ */
+final class ExplosionBlockFilter {
+
+    private ExplosionBlockFilter() {
+    }
+
+    /**
+     * Removes the blocks the explosion is not allowed to affect.
+     *
+     * @param event The explosion event
+     * @param source The explosion source
+     * @param user The user responsible, can be null
+     * @param blockList The mutable event block list
+     * @param denySurfaceExplosion Whether blocks at or above sea level are protected
+     * @return False if the explosion should be cancelled
+     */
+    static boolean filter(Event event, Object source, GDPermissionUser user, List<Block> blockList, boolean denySurfaceExplosion) {
+        if (blockList.isEmpty()) {
+            return true;
+        }
+
+        final World world = blockList.get(0).getWorld();
+        final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
+        final GDClaim wilderness = (GDClaim) claimManager.getWildernessClaim();
+        final boolean checkSurface = denySurfaceExplosion && world.getEnvironment() != Environment.NETHER;
+        final int seaLevel = world.getSeaLevel();
+        final int cancelBlockLimit = GriefDefenderPlugin.getGlobalConfig().getConfig().claim.explosionCancelBlockLimit;
+        // Each denied block must be logged while debugging so nothing is shared
+        final boolean debug = GriefDefenderPlugin.debugActive;
+
+        final Long2BooleanOpenHashMap claimedChunks = new Long2BooleanOpenHashMap();
+        final Map<GDClaim, Map<String, Tristate>> results = new IdentityHashMap<>();
+        int kept = 0;
+        for (int i = 0; i < blockList.size(); i++) {
+            final Block block = blockList.get(i);
+            final int x = block.getX();
+            final int y = block.getY();
+            final int z = block.getZ();
+            final long chunkKey = BlockUtil.getInstance().asLong(x >> 4, z >> 4);
+            boolean claimed;
+            if (claimedChunks.containsKey(chunkKey)) {
+                claimed = claimedChunks.get(chunkKey);
+            } else {
+                claimed = !claimManager.getClaimsInChunk(x >> 4, z >> 4).isEmpty();
+                claimedChunks.put(chunkKey, claimed);
+            }
+            final GDClaim targetClaim = claimed ? (GDClaim) claimManager.getClaimAt(x, y, z) : wilderness;
+
+            if (checkSurface && y >= seaLevel) {
+                GDPermissionManager.getInstance().processEventLog(event, block.getLocation(), targetClaim, Flags.EXPLOSION_BLOCK.getPermission(), source, block, user, "explosion-surface", Tristate.FALSE);
+                continue;
+            }
+
+            Tristate result = null;
+            // Renter checks depend on the block owner so these are never shared
+            final boolean shareResult = !debug && !(user != null && targetClaim.getEconomyData() != null && targetClaim.getEconomyData().isRented());
+            Map<String, Tristate> claimResults = null;
+            String blockData = null;
+            if (shareResult) {
+                claimResults = results.get(targetClaim);
+                if (claimResults == null) {
+                    claimResults = new HashMap<>();
+                    results.put(targetClaim, claimResults);
+                }
+                // Includes the state: contexts and the type crops are detected from
+                blockData = NMSUtil.getInstance().getBlockDataString(block);
+                result = claimResults.get(blockData);
+            }
+            if (result == null) {
+                final Location location = block.getLocation();
+                result = GDPermissionManager.getInstance().getFinalPermission(event, location, targetClaim, Flags.EXPLOSION_BLOCK, source, block, user, true);
+                if (shareResult) {
+                    claimResults.put(blockData, result);
+                }
+            }
+            if (result == Tristate.FALSE) {
+                // Avoid lagging server from large explosions.
+                if (blockList.size() > cancelBlockLimit) {
+                    return false;
+                }
+                continue;
+            }
+            blockList.set(kept++, block);
+        }
+
+        if (kept < blockList.size()) {
+            blockList.subList(kept, blockList.size()).clear();
+        }
+        return true;
+    }
+}
@@ -25,13 +25,27 @@
 package com.griefdefender.listener;
 
 import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.GriefDefender;
+import com.griefdefender.api.Subject;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.event.ChangeClaimEvent;
+import com.griefdefender.api.event.FlagPermissionEvent;
+import com.griefdefender.api.event.OptionPermissionEvent;
+import com.griefdefender.api.event.RemoveClaimEvent;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.permission.GDPermissionHolder;
+import com.griefdefender.permission.GDPermissionUser;
 
+import net.kyori.event.method.annotation.Subscribe;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.event.group.GroupDataRecalculateEvent;
 import net.luckperms.api.event.user.UserDataRecalculateEvent;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
 public class LuckPermsEventHandler {
 
     private final LuckPerms luckPermsApi;
@@ -40,16 +54,59 @@ public LuckPermsEventHandler(LuckPerms luckPermsApi) {
         this.luckPermsApi = luckPermsApi;
         this.luckPermsApi.getEventBus().subscribe(GroupDataRecalculateEvent.class, this::onGroupDataRecalculate);
         this.luckPermsApi.getEventBus().subscribe(UserDataRecalculateEvent.class, this::onUserDataRecalculate);
+        GriefDefender.getEventManager().register(this);
     }
 
     public void onGroupDataRecalculate(GroupDataRecalculateEvent event) {
-        final GDPermissionHolder holder = PermissionHolderCache.getInstance().getOrCreateGroup(event.getGroup().getName());
-        PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder).invalidateAll();
+        // Users inherit group data so all cached results are affected
+        PermissionHolderCache.getInstance().invalidateAllPermissionCache();
     }
 
     public void onUserDataRecalculate(UserDataRecalculateEvent event) {
         final GDPermissionHolder holder = PermissionHolderCache.getInstance().getOrCreateUser(event.getUser().getUniqueId());
-        PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder).invalidateAll();
-        PermissionHolderCache.getInstance().getOrCreatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER).invalidateAll();
+        PermissionHolderCache.getInstance().invalidatePermissionCache(holder);
+        PermissionHolderCache.getInstance().invalidatePermissionCache(GriefDefenderPlugin.DEFAULT_HOLDER);
+    }
+
+    // Results are cached per claim. New claims have no entries yet and trust is checked before the cache,
+    // so only changed or removed claims and the children inheriting from them are affected.
+    @Subscribe
+    public void onClaimChange(ChangeClaimEvent event) {
+        PermissionHolderCache.getInstance().invalidateClaimPermissionCache(getClaimTreeIds(event.getClaims()));
+    }
+
+    @Subscribe
+    public void onClaimDelete(RemoveClaimEvent event) {
+        PermissionHolderCache.getInstance().invalidateClaimPermissionCache(getClaimTreeIds(event.getClaims()));
+    }
+
+    @Subscribe
+    public void onFlagPermission(FlagPermissionEvent event) {
+        invalidateSubject(event.getSubject());
+    }
+
+    @Subscribe
+    public void onOptionPermission(OptionPermissionEvent event) {
+        invalidateSubject(event.getSubject());
+    }
+
+    private static void invalidateSubject(Subject subject) {
+        if (subject instanceof GDPermissionUser) {
+            PermissionHolderCache.getInstance().invalidatePermissionCache((GDPermissionHolder) subject);
+        } else {
+            // Users inherit group and default data
+            PermissionHolderCache.getInstance().invalidateAllPermissionCache();
+        }
+    }
+
+    private static Set<UUID> getClaimTreeIds(List<Claim> claims) {
+        final Set<UUID> claimIds = new HashSet<>();
+        for (Claim claim : claims) {
+            claimIds.add(claim.getUniqueId());
+            for (Claim child : claim.getChildren(true)) {
+                claimIds.add(child.getUniqueId());
+            }
+        }
+        return claimIds;
     }
 }
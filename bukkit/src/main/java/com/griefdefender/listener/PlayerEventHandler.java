@@ -169,15 +169,27 @@ public void onPlayerLogin(PlayerLoginEvent event) {
         final UUID playerUniqueId = player.getUniqueId();
         final GDClaimManager claimWorldManager = this.dataStore.getClaimWorldManager(worldUniqueId);
         final Instant dateNow = Instant.now();
+        for (GDClaim claim : claimWorldManager.getOwnedClaims(playerUniqueId)) {
+            if (claim.isAdminClaim()) {
+                continue;
+            }
+            // Marks the claim dirty, it is written out with the next world save
+            claim.getData().setDateLastActive(dateNow);
+            for (Claim subdivision : claim.children) {
+                subdivision.getData().setDateLastActive(dateNow);
+            }
+        }
+        if (!checkRestore) {
+            GDTimings.PLAYER_LOGIN_EVENT.stopTiming();
+            return;
+        }
+
+        // Renters are not indexed so rented claims still require a scan
         for (Claim claim : claimWorldManager.getWorldClaims()) {
             if (claim.getType() != ClaimTypes.ADMIN && claim.getOwnerUniqueId().equals(playerUniqueId)) {
-                claim.getData().setDateLastActive(dateNow);
-                for (Claim subdivision : ((GDClaim) claim).children) {
-                    subdivision.getData().setDateLastActive(dateNow);
-                }
-                ((GDClaim) claim).getInternalClaimData().setRequiresSave(true);
-                ((GDClaim) claim).getInternalClaimData().save();
-            } else if (checkRestore && claim.getEconomyData() != null && claim.getEconomyData().isRented()) {
+                continue;
+            }
+            if (claim.getEconomyData() != null && claim.getEconomyData().isRented()) {
                 for (UUID uuid : claim.getEconomyData().getRenters()) {
                     if (player.getUniqueId().equals(uuid)) {
                         // check for rent expiration
@@ -237,6 +249,7 @@ public void onPlayerQuit(PlayerQuitEvent event) {
             //this.worldEditProvider.removePlayer(player);
         }
 
+        this.dataStore.asyncSaveGlobalPlayerData(playerID, playerData);
         playerData.onDisconnect();
         PaginationUtil.getInstance().removeActivePageData(player.getUniqueId());
         if (playerData.getClaims().isEmpty()) {
@@ -255,6 +268,10 @@ public void onPlayerRespawn(PlayerRespawnEvent event) {
 
         final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
         playerData.lastPvpTimestamp = null;
+        final Location respawnLocation = event.getRespawnLocation();
+        if (GriefDefenderPlugin.getInstance().claimsEnabledForWorld(respawnLocation.getWorld().getUID())) {
+            this.dataStore.getOrCreatePlayerData(respawnLocation.getWorld(), player.getUniqueId()).updateCurrentClaim(respawnLocation);
+        }
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
@@ -433,7 +450,7 @@ private void onInventoryOpen(Event event, Location location, Object target, Huma
         final GDClaim claim = this.dataStore.getClaimAt(location);
         final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(player.getUniqueId());
         if (user.getInternalPlayerData() != null && user.getInternalPlayerData().eventResultCache != null && user.getInternalPlayerData().eventResultCache.checkEventResultCache(claim, Flags.INTERACT_BLOCK_SECONDARY.getName()) == Tristate.TRUE) {
-            GDPermissionManager.getInstance().processResult(claim, Flags.INTERACT_INVENTORY.getPermission(), "cache", Tristate.TRUE, user);
+            GDPermissionManager.getInstance().processResult(event, location, claim, Flags.INTERACT_INVENTORY.getPermission(), player, target, "cache", Tristate.TRUE, user);
             GDTimings.PLAYER_INTERACT_INVENTORY_OPEN_EVENT.stopTiming();
             return;
         }
@@ -928,7 +945,7 @@ public void onPlayerTeleport(PlayerTeleportEvent event) {
         final Location sourceLocation = event.getFrom();
         final Location destination = event.getTo();
         final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
-        final GDClaim sourceClaim =  this.dataStore.getClaimAtPlayer(playerData, player.getLocation());
+        final GDClaim sourceClaim = playerData.getCurrentClaim(player);
         if (playerData.inPvpCombat() && GDOptions.isOptionEnabled(Options.PVP_COMBAT_TELEPORT)) {
             // Cancel event if player is unable to teleport during PvP combat
             final boolean pvpCombatTeleport = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Boolean.class), player, Options.PVP_COMBAT_TELEPORT, sourceClaim);
@@ -983,7 +1000,7 @@ public void onPlayerTeleport(PlayerTeleportEvent event) {
             return;
         }
 
-        final GDClaim toClaim = this.dataStore.getClaimAt(destination);
+        final GDClaim toClaim = this.dataStore.getOrCreatePlayerData(toWorld, player.getUniqueId()).updateCurrentClaim(destination);
         if (toClaim != null) {
             final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.PERMISSION_PORTAL_ENTER,
                     ImmutableMap.of(
@@ -1612,10 +1629,12 @@ private void handleResizeFinish(PlayerInteractEvent event, Player player, Locati
 
     private boolean investigateClaim(PlayerInteractEvent event, Player player, Block clickedBlock, ItemStack itemInHand) {
         final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
-        if (!playerData.queuedVisuals.isEmpty()) {
+        // Visuals held back until the player is in range are not an update in progress
+        final int sendingCount = playerData.visualQueue.getSendingCount();
+        if (sendingCount > 0) {
             final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.VISUAL_UPDATE_IN_PROGRESS,
                     ImmutableMap.of(
-                    "count", playerData.queuedVisuals.size()));
+                    "count", sendingCount));
             GriefDefenderPlugin.sendMessage(player, message);
             return false;
         }
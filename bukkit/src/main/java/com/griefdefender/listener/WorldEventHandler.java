@@ -26,8 +26,10 @@
 
 import com.griefdefender.GDTimings;
 import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.permission.option.Options;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.internal.tracking.chunk.GDChunk;
+import com.griefdefender.permission.option.GDOptions;
 
 import java.io.IOException;
 
@@ -76,6 +78,9 @@ public void onChunkLoad(ChunkLoadEvent event) {
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getWorld().getUID());
         final GDChunk gdChunk = claimWorldManager.getChunk(event.getChunk());
+        if (GDOptions.isOptionEnabled(Options.SPAWN_LIMIT)) {
+            claimWorldManager.invalidateEntityCounters(event.getChunk().getX(), event.getChunk().getZ());
+        }
         if (gdChunk != null) {
             try {
                 gdChunk.loadChunkTrackingData();
@@ -93,6 +98,9 @@ public void onChunkUnload(ChunkUnloadEvent event) {
 
         final GDClaimManager claimWorldManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(event.getWorld().getUID());
         final GDChunk gdChunk = claimWorldManager.getChunk(event.getChunk());
+        if (GDOptions.isOptionEnabled(Options.SPAWN_LIMIT)) {
+            claimWorldManager.invalidateEntityCounters(event.getChunk().getX(), event.getChunk().getZ());
+        }
         if (gdChunk != null) {
             if (gdChunk.getTrackedShortPlayerPositions().size() > 0) {
                 gdChunk.saveChunkTrackingData();
@@ -227,7 +227,7 @@ public static void migrate(World world) throws FileNotFoundException, ClassNotFo
                         continue;
                     }
                     if (!claimDataConfig.getBuilders().contains(builderUser.getUniqueId()) && owner != null && !builderUser.getUniqueId().equals(owner.getUniqueId())) {
-                        claimDataConfig.getBuilders().add(builderUser.getUniqueId());
+                        claimDataConfig.addUserTrust(builderUser.getUniqueId(), TrustTypes.BUILDER);
                     }
                 }
 
@@ -241,7 +241,7 @@ public static void migrate(World world) throws FileNotFoundException, ClassNotFo
                         continue;
                     }
                     if (!claimDataConfig.getManagers().contains(managerUser.getUniqueId()) && owner != null && !managerUser.getUniqueId().equals(owner.getUniqueId())) {
-                        claimDataConfig.getManagers().add(managerUser.getUniqueId());
+                        claimDataConfig.addUserTrust(managerUser.getUniqueId(), TrustTypes.MANAGER);
                     }
                 }
                 final Set<Context> claimContextSet = new HashSet<>();
@@ -25,8 +25,10 @@
  */
 package com.griefdefender.permission;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeToken;
+import com.griefdefender.GDMetrics;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.GriefDefender;
@@ -55,6 +57,7 @@
 import com.griefdefender.api.permission.option.type.WeatherTypes;
 import com.griefdefender.cache.EventResultCache;
 import com.griefdefender.cache.MessageCache;
+import com.griefdefender.cache.PermissionCacheKey;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
@@ -70,6 +73,7 @@
 import com.griefdefender.internal.tracking.chunk.GDChunk;
 import com.griefdefender.internal.util.NMSUtil;
 import com.griefdefender.permission.option.GDOptions;
+import com.griefdefender.provider.LuckPermsProvider;
 import com.griefdefender.provider.PermissionProvider.PermissionDataType;
 import com.griefdefender.registry.FlagRegistryModule;
 import com.griefdefender.util.EconomyUtil;
@@ -124,14 +128,8 @@ public class GDPermissionManager implements PermissionManager {
 
     private static GDPermissionManager instance;
     public boolean blacklistCheck = false;
-    private Event currentEvent;
-    private Location eventLocation;
-    private GDPermissionHolder eventSubject;
-    private GDPlayerData eventPlayerData;
-    private String eventSourceId = "none";
-    private String eventTargetId = "none";
-    private Set<Context> eventContexts = new HashSet<>();
-    private Component eventMessage;
+    // Message of the last flag check made on each thread
+    private static final ThreadLocal<Component> EVENT_MESSAGE = new ThreadLocal<>();
     private static final Pattern PATTERN_META = Pattern.compile("\\.[\\d+]*$");
 
     private enum BanType {
@@ -177,45 +175,69 @@ public Tristate getFinalPermission(Event event, Location location, Claim claim,
     }
 
     public Tristate getFinalPermission(Event event, Location location, Set<Context> contexts, Claim claim, Flag flag, Object source, Object target, GDPermissionHolder permissionHolder, TrustType type, boolean checkOverride) {
-        if (claim == null) {
-            return Tristate.TRUE;
-        }
+        GDMetrics.PERMISSION_CHECKS.increment();
+        final GDPlayerData playerData = this.getEventPlayerData(claim, permissionHolder);
+        final PermissionQuery query = this.resolveQuery(new PermissionQuery.Builder(event, location, contexts, claim, flag, source, target, permissionHolder, playerData, type, checkOverride));
+        final PermissionDecision decision = query == null ? new PermissionDecision(Tristate.FALSE) : this.evaluate(query);
+        EVENT_MESSAGE.set(decision.getMessage().orElse(null));
+        return decision.getValue();
+    }
 
-        GDPlayerData playerData = null;
-        final GDPermissionUser user = permissionHolder instanceof GDPermissionUser ? (GDPermissionUser) permissionHolder : null;
-        this.eventSubject = user;
-        this.eventMessage = null;
-        this.eventSourceId = "none";
-        this.eventTargetId = "none";
-        if (permissionHolder != null) {
-            if (user != null) {
-                playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(claim.getWorldUniqueId(), user.getUniqueId());
-            }
+    private GDPlayerData getEventPlayerData(Claim claim, GDPermissionHolder permissionHolder) {
+        if (claim == null || !(permissionHolder instanceof GDPermissionUser)) {
+            return null;
         }
+        return GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(claim.getWorldUniqueId(), ((GDPermissionUser) permissionHolder).getUniqueId());
+    }
 
-        this.currentEvent = event;
-        this.eventLocation = location;
-        // refresh contexts
-        this.eventContexts = new HashSet<>();
+    /**
+     * Resolves the player, source and target contexts of a check.
+     *
+     * @return The built query or null if the source or target is banned
+     */
+    private PermissionQuery resolveQuery(PermissionQuery.Builder builder) {
+        final Claim claim = builder.getClaim();
+        if (claim == null) {
+            return builder.build();
+        }
 
+        final Flag flag = builder.getFlag();
+        final Object source = builder.getSource();
+        final Set<Context> contexts = builder.getContexts();
         if (source instanceof Player && flag != Flags.COLLIDE_BLOCK && flag != Flags.COLLIDE_ENTITY) {
-            this.addPlayerContexts((Player) source, contexts, flag);
+            this.addPlayerContexts(builder, (Player) source, contexts, flag);
         }
 
-        final Set<Context> sourceContexts = this.getPermissionContexts((GDClaim) claim, source, true);
+        final Set<Context> sourceContexts = this.getPermissionContexts(builder, (GDClaim) claim, source, true);
         if (sourceContexts == null) {
-            return Tristate.FALSE;
+            return null;
         }
 
-        final Set<Context> targetContexts = this.getPermissionContexts((GDClaim) claim, target, false);
+        final Set<Context> targetContexts = this.getPermissionContexts(builder, (GDClaim) claim, builder.getTarget(), false);
         if (targetContexts == null) {
-            return Tristate.FALSE;
+            return null;
         }
         contexts.addAll(sourceContexts);
         contexts.addAll(targetContexts);
         contexts.add(((GDClaim) claim).getWorldContext());
-        this.eventContexts = contexts;
-        this.eventPlayerData = playerData;
+        return builder.build();
+    }
+
+    public PermissionDecision evaluate(PermissionQuery query) {
+        final Claim claim = query.getClaim();
+        if (claim == null) {
+            return new PermissionDecision(Tristate.TRUE);
+        }
+
+        final Flag flag = query.getFlag();
+        final Object source = query.getSource();
+        final Object target = query.getTarget();
+        final Set<Context> contexts = query.getContexts();
+        final GDPermissionHolder permissionHolder = query.getHolder();
+        final GDPermissionUser user = query.getUser();
+        final GDPlayerData playerData = query.getPlayerData();
+        final TrustType type = query.getTrustType();
+        final Location location = query.getLocation();
         final String targetPermission = flag.getPermission();
 
         if (flag == Flags.ENTITY_SPAWN && GDOptions.isOptionEnabled(Options.SPAWN_LIMIT) && target instanceof LivingEntity) {
@@ -235,32 +257,33 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                                 "limit", spawnLimit));
                         GriefDefenderPlugin.sendMessage(user.getOnlinePlayer(), message);
                     }
-                    return this.processResult(claim, flag.getPermission(), "spawn-limit", Tristate.FALSE, this.eventSubject);
+                    return new PermissionDecision(this.processResult(query, claim, flag.getPermission(), "spawn-limit", Tristate.FALSE, user));
                 }
             }
         }
 
         if (user != null && playerData != null && !playerData.debugClaimPermissions && playerData.canIgnoreClaim(claim)) {
-            return processResult(claim, targetPermission, "ignore", Tristate.TRUE, user);
+            return new PermissionDecision(processResult(query, claim, targetPermission, "ignore", Tristate.TRUE, user));
         }
-        if (checkOverride) {
+        if (query.checkOverride()) {
             // First check for claim flag overrides
-            final Tristate override = getFlagOverride(claim, permissionHolder == null ? GriefDefenderPlugin.DEFAULT_HOLDER : permissionHolder, playerData, targetPermission);
+            final Tristate override = getFlagOverride(query, claim, permissionHolder == null ? GriefDefenderPlugin.DEFAULT_HOLDER : permissionHolder, targetPermission);
             if (override != Tristate.UNDEFINED) {
-                return processResult(claim, targetPermission, type == null ? "none" : type.getName().toLowerCase(), override, user);
+                final Tristate result = processResult(query, claim, targetPermission, type == null ? "none" : type.getName().toLowerCase(), override, user);
+                return new PermissionDecision(result, override == Tristate.FALSE ? MessageCache.getInstance().PERMISSION_OVERRIDE_DENY : null);
             }
         }
 
         if (playerData != null && user != null) {
             if (playerData.debugClaimPermissions) {
                 if (type != null && claim.isUserTrusted(user.getUniqueId(), type)) {
-                    return processResult(claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, user);
+                    return new PermissionDecision(processResult(query, claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, user));
                 }
-                return getClaimFlagPermission(claim, targetPermission);
+                return new PermissionDecision(getClaimFlagPermission(query, claim, targetPermission));
             }
              // Check for ignoreclaims after override and debug checks
             if (playerData.canIgnoreClaim(claim)) {
-                return processResult(claim, targetPermission, "ignore", Tristate.TRUE, user);
+                return new PermissionDecision(processResult(query, claim, targetPermission, "ignore", Tristate.TRUE, user));
             }
         }
         if (user != null) {
@@ -274,19 +297,19 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                     flag != Flags.ENTITY_TELEPORT_TO &&
                     flag != Flags.INTERACT_INVENTORY_CLICK) {
                 if (claim.getOwnerUniqueId() != null && user != null && claim.getOwnerUniqueId().equals(user.getUniqueId())) {
-                    return processResult(claim, targetPermission, "rent-owner-deny", Tristate.FALSE, user);
+                    return new PermissionDecision(processResult(query, claim, targetPermission, "rent-owner-deny", Tristate.FALSE, user));
                 }
 
                 if (EconomyUtil.getInstance().isRenter(claim, user) && (targetPermission.contains("interact") || targetPermission.contains("block"))) {
                     if ((targetPermission.contains("interact") || targetPermission.contains("block-place"))) {
                         final boolean hasInventory = NMSUtil.getInstance().isTileInventory(location) || location.getBlock().getType() == Material.ENDER_CHEST;
                         if (!hasInventory || flag == Flags.BLOCK_PLACE) {
-                            return processResult(claim, targetPermission, "renter-interact", Tristate.TRUE, user);
+                            return new PermissionDecision(processResult(query, claim, targetPermission, "renter-interact", Tristate.TRUE, user));
                         }
                         // check entity interactions
                         if (targetPermission.contains("interact-entity") && target instanceof LivingEntity) {
                             // Allow interaction with all living entities
-                            return processResult(claim, targetPermission, "renter-interact", Tristate.TRUE, user);
+                            return new PermissionDecision(processResult(query, claim, targetPermission, "renter-interact", Tristate.TRUE, user));
                         }
                     }
 
@@ -296,7 +319,7 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                     final GDPermissionUser owner = gdChunk.getBlockOwner(location);
                     if (owner != null && owner.getUniqueId().equals(user.getUniqueId())) {
                         // allow
-                        return processResult(claim, targetPermission, "renter-owned", Tristate.TRUE, user);
+                        return new PermissionDecision(processResult(query, claim, targetPermission, "renter-owned", Tristate.TRUE, user));
                     }
                 }
             }
@@ -305,25 +328,51 @@ public Tristate getFinalPermission(Event event, Location location, Set<Context>
                     // check persisted flags
                     if (!claim.isWilderness()) {
                         if ((claim.isAdminClaim() && !user.getInternalPlayerData().canManageAdminClaims) || !user.getUniqueId().equals(claim.getOwnerUniqueId())) {
-                            final Tristate result = getUserPermission(user, claim, targetPermission, PermissionDataType.USER_PERSISTENT);
+                            final Tristate result = getUserPermission(query, user, claim, targetPermission, PermissionDataType.USER_PERSISTENT);
                             if (result != Tristate.UNDEFINED) {
-                                return processResult(claim, targetPermission, result, user);
+                                return new PermissionDecision(processResult(query, claim, targetPermission, result, user));
                             }
                         }
                     }
-                    return processResult(claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, permissionHolder);
+                    return new PermissionDecision(processResult(query, claim, targetPermission, type.getName().toLowerCase(), Tristate.TRUE, permissionHolder));
                 }
             }
-            return getUserPermission(user, claim, targetPermission, PermissionDataType.ALL);
+            return new PermissionDecision(getCachedPermission(query, user, claim, targetPermission));
         }
 
-        return getClaimFlagPermission(claim, targetPermission);
+        return new PermissionDecision(getCachedPermission(query, null, claim, targetPermission));
+    }
+
+    // Caches the final user/claim/default resolution as it only depends on holder, claim and event contexts
+    private Tristate getCachedPermission(PermissionQuery query, GDPermissionHolder holder, Claim claim, String permission) {
+        if (GriefDefenderPlugin.debugActive || !(PermissionUtil.getInstance().getPermissionProvider() instanceof LuckPermsProvider)) {
+            if (holder == null) {
+                return getClaimFlagPermission(query, claim, permission);
+            }
+            return getUserPermission(query, holder, claim, permission, PermissionDataType.ALL);
+        }
+
+        final Cache<PermissionCacheKey, Tristate> cache = PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder == null ? GriefDefenderPlugin.DEFAULT_HOLDER : holder);
+        final PermissionCacheKey key = new PermissionCacheKey(claim.getUniqueId(), permission, query.getContexts());
+        // The lookups process their own result so only a cache hit is processed here
+        final boolean[] resolved = new boolean[1];
+        final Tristate value = cache.get(key, k -> {
+            resolved[0] = true;
+            if (holder == null) {
+                return getClaimFlagPermission(query, claim, permission);
+            }
+            return getUserPermission(query, holder, claim, permission, PermissionDataType.ALL);
+        });
+        if (resolved[0]) {
+            return value;
+        }
+        return processResult(query, claim, permission, value, holder == null ? GriefDefenderPlugin.DEFAULT_HOLDER : holder);
     }
 
-    private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, String permission, PermissionDataType dataType) {
+    private Tristate getUserPermission(PermissionQuery query, GDPermissionHolder holder, Claim claim, String permission, PermissionDataType dataType) {
         final List<Claim> inheritParents = claim.getInheritedParents();
         final Set<Context> contexts = new HashSet<>();
-        contexts.addAll(this.eventContexts);
+        contexts.addAll(query.getContexts());
 
         for (Claim parentClaim : inheritParents) {
             GDClaim parent = (GDClaim) parentClaim;
@@ -331,7 +380,7 @@ private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, Strin
             contexts.add(parent.getContext());
             Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, holder, permission, contexts, dataType);
             if (value != Tristate.UNDEFINED) {
-                return processResult(claim, permission, value, holder);
+                return processResult(query, claim, permission, value, holder);
             }
 
             contexts.remove(parent.getContext());
@@ -341,7 +390,7 @@ private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, Strin
         contexts.add(claim.getContext());
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, holder, permission, contexts, dataType);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, holder);
+            return processResult(query, claim, permission, value, holder);
         }
         if (dataType == PermissionDataType.USER_PERSISTENT) {
             // don't log, just return result
@@ -351,29 +400,29 @@ private Tristate getUserPermission(GDPermissionHolder holder, Claim claim, Strin
 
         if (holder == GriefDefenderPlugin.DEFAULT_HOLDER) {
             contexts.remove(claim.getContext());
-            return getFlagDefaultPermission(claim, permission, contexts);
+            return getFlagDefaultPermission(query, claim, permission, contexts);
         }
 
-        return getClaimFlagPermission(claim, permission, contexts, inheritParents);
+        return getClaimFlagPermission(query, claim, permission, contexts, inheritParents);
     }
 
-    private Tristate getClaimFlagPermission(Claim claim, String permission) {
-        return this.getClaimFlagPermission(claim, permission, new HashSet<>(), null);
+    private Tristate getClaimFlagPermission(PermissionQuery query, Claim claim, String permission) {
+        return this.getClaimFlagPermission(query, claim, permission, new HashSet<>(), null);
     }
 
-    private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Context> contexts, List<Claim> inheritParents) {
+    private Tristate getClaimFlagPermission(PermissionQuery query, Claim claim, String permission, Set<Context> contexts, List<Claim> inheritParents) {
         if (contexts.isEmpty()) {
             if (inheritParents == null) {
                 inheritParents = claim.getInheritedParents();
             }
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(query.getContexts());
             for (Claim parentClaim : inheritParents) {
                 GDClaim parent = (GDClaim) parentClaim;
                 // check parent context
                 contexts.add(parent.getContext());
                 Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
                 if (value != Tristate.UNDEFINED) {
-                    return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+                    return processResult(query, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
                 }
 
                 contexts.remove(parent.getContext());
@@ -383,18 +432,18 @@ private Tristate getClaimFlagPermission(Claim claim, String permission, Set<Cont
 
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+            return processResult(query, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
 
-        return getFlagDefaultPermission(claim, permission, contexts);
+        return getFlagDefaultPermission(query, claim, permission, contexts);
     }
 
     // Only uses world and claim type contexts
-    private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Context> contexts) {
+    private Tristate getFlagDefaultPermission(PermissionQuery query, Claim claim, String permission, Set<Context> contexts) {
         contexts.add(claim.getDefaultTypeContext());
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.PERSISTENT);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+            return processResult(query, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
         contexts.remove(claim.getDefaultTypeContext());
         if (!claim.isWilderness()) {
@@ -402,14 +451,14 @@ private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Co
             contexts.add(ClaimContexts.USER_DEFAULT_CONTEXT);
             value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.ALL);
             if (value != Tristate.UNDEFINED) {
-                return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+                return processResult(query, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
             }
             contexts.remove(ClaimContexts.USER_DEFAULT_CONTEXT);
         } else {
             contexts.add(ClaimContexts.GLOBAL_DEFAULT_CONTEXT);
             value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.ALL);
             if (value != Tristate.UNDEFINED) {
-                return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+                return processResult(query, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
             }
         }
 
@@ -417,13 +466,13 @@ private Tristate getFlagDefaultPermission(Claim claim, String permission, Set<Co
         contexts.add(claim.getDefaultTypeContext());
         value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, GriefDefenderPlugin.DEFAULT_HOLDER, permission, contexts, PermissionDataType.TRANSIENT);
         if (value != Tristate.UNDEFINED) {
-            return processResult(claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
+            return processResult(query, claim, permission, value, GriefDefenderPlugin.DEFAULT_HOLDER);
         }
 
-        return processResult(claim, permission, Tristate.UNDEFINED, GriefDefenderPlugin.DEFAULT_HOLDER);
+        return processResult(query, claim, permission, Tristate.UNDEFINED, GriefDefenderPlugin.DEFAULT_HOLDER);
     }
 
-    private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolder, GDPlayerData playerData, String flagPermission) {
+    private Tristate getFlagOverride(PermissionQuery query, Claim claim, GDPermissionHolder permissionHolder, String flagPermission) {
         if (!((GDClaim) claim).getInternalClaimData().allowFlagOverrides()) {
             return Tristate.UNDEFINED;
         }
@@ -446,7 +495,7 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
 
         contexts.add(((GDClaim) claim).getWorldContext());
         contexts.add(ClaimContexts.GLOBAL_OVERRIDE_CONTEXT);
-        contexts.addAll(this.eventContexts);
+        contexts.addAll(query.getContexts());
 
         Tristate value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts, PermissionDataType.PERSISTENT);
         if (value == Tristate.UNDEFINED) {
@@ -454,7 +503,7 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
             /*final List<Claim> inheritParents = claim.getInheritedParents();
             contexts = new HashSet<>();
             contexts.add(((GDClaim) claim).getWorldContext());
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(query.getContexts());
             for (Claim parentClaim : inheritParents) {
                 GDClaim parent = (GDClaim) parentClaim;
                 // check parent override claim context
@@ -473,25 +522,47 @@ private Tristate getFlagOverride(Claim claim, GDPermissionHolder permissionHolde
             // check claim owner override
             contexts = new HashSet<>();
             contexts.add(((GDClaim) claim).getWorldContext());
-            contexts.addAll(this.eventContexts);
+            contexts.addAll(query.getContexts());
             contexts.add(claim.getOverrideClaimContext());
             value = PermissionUtil.getInstance().getPermissionValue((GDClaim) claim, permissionHolder, flagPermission, contexts, PermissionDataType.PERSISTENT);
         }
         if (value != Tristate.UNDEFINED) {
-            if (value == Tristate.FALSE) {
-                this.eventMessage = MessageCache.getInstance().PERMISSION_OVERRIDE_DENY;
-            }
-            return processResult(claim, flagPermission, value, permissionHolder);
+            return processResult(query, claim, flagPermission, value, permissionHolder);
         }
 
         return Tristate.UNDEFINED;
     }
 
     public Tristate processResult(Claim claim, String permission, Tristate permissionValue, GDPermissionHolder permissionHolder) {
-        return processResult(claim, permission, null, permissionValue, permissionHolder);
+        return processResult(null, null, claim, permission, null, null, null, permissionValue, permissionHolder);
     }
 
     public Tristate processResult(Claim claim, String permission, String trust, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        return processResult(null, null, claim, permission, null, null, trust, permissionValue, permissionHolder);
+    }
+
+    /**
+     * Records a result that was decided without a full check, such as a
+     * cached one, for the debug log and the player's event result cache.
+     */
+    public Tristate processResult(Event event, Location location, Claim claim, String permission, Object source, Object target, String trust, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        final Flag flag = FlagRegistryModule.getInstance().getById(permission).orElse(null);
+        final PermissionQuery.Builder builder = new PermissionQuery.Builder(event, location, new HashSet<>(), claim, flag, source, target,
+                permissionHolder, this.getEventPlayerData(claim, permissionHolder), null, false);
+        PermissionQuery query = null;
+        if (GriefDefenderPlugin.debugActive) {
+            // Contexts are only needed for the debug log
+            query = this.resolveQuery(builder);
+        }
+        return processResult(query == null ? builder.build() : query, claim, permission, trust, permissionValue, permissionHolder);
+    }
+
+    private Tristate processResult(PermissionQuery query, Claim claim, String permission, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        return processResult(query, claim, permission, null, permissionValue, permissionHolder);
+    }
+
+    private Tristate processResult(PermissionQuery query, Claim claim, String permission, String trust, Tristate permissionValue, GDPermissionHolder permissionHolder) {
+        final GDPermissionUser eventSubject = query == null ? null : query.getUser();
         if (GriefDefenderPlugin.debugActive) {
             // Use the event subject always if available
             // This prevents debug showing 'default' for users
@@ -506,16 +577,21 @@ public Tristate processResult(Claim claim, String permission, String trust, Tris
                 }
             }
 
-            if (this.currentEvent != null && (this.currentEvent instanceof BlockPhysicsEvent)) {
+            final Event event = query == null ? null : query.getEvent();
+            if (event != null && (event instanceof BlockPhysicsEvent)) {
                 if (((GDClaim) claim).getWorld().getTime() % 100 != 0L) {
                     return permissionValue;
                 }
             }
 
-            GriefDefenderPlugin.addEventLogEntry(this.currentEvent, claim, this.eventLocation, this.eventSourceId, this.eventTargetId, this.eventSubject == null ? permissionHolder : this.eventSubject, permission, trust, permissionValue, this.eventContexts);
+            if (query == null) {
+                GriefDefenderPlugin.addEventLogEntry(null, claim, null, "none", "none", permissionHolder, permission, trust, permissionValue, new HashSet<>());
+            } else {
+                GriefDefenderPlugin.addEventLogEntry(event, claim, query.getLocation(), query.getSourceId(), query.getTargetId(), permissionHolder, permission, trust, permissionValue, query.getContexts());
+            }
         }
 
-
+        final GDPlayerData eventPlayerData = query == null ? null : query.getPlayerData();
         if (eventPlayerData != null && eventPlayerData.eventResultCache != null) {
             final Flag flag = FlagRegistryModule.getInstance().getById(permission).orElse(null);
             if (flag != null) {
@@ -629,11 +705,14 @@ public String getPermissionIdentifier(Object obj, boolean isSource) {
             }
         }
 
-        populateEventSourceTarget("none", isSource);
         return "";
     }
 
     public Set<Context> getPermissionContexts(GDClaim claim, Object obj, boolean isSource) {
+        return this.getPermissionContexts(null, claim, obj, isSource);
+    }
+
+    private Set<Context> getPermissionContexts(PermissionQuery.Builder query, GDClaim claim, Object obj, boolean isSource) {
         final Set<Context> contexts = new HashSet<>();
         if (obj == null) {
             if (isSource) {
@@ -648,7 +727,7 @@ public Set<Context> getPermissionContexts(GDClaim claim, Object obj, boolean isS
             Entity targetEntity = (Entity) obj;
 
             if (targetEntity instanceof Item) {
-                return getPermissionContexts(claim, ((Item) targetEntity).getItemStack(), isSource);
+                return getPermissionContexts(query, claim, ((Item) targetEntity).getItemStack(), isSource);
             }
             if (targetEntity.getType() == null) {
                 // Plugin sending fake player and violating API contract so just ignore...
@@ -659,7 +738,7 @@ public Set<Context> getPermissionContexts(GDClaim claim, Object obj, boolean isS
             String id = type.getId();
 
             if (!(targetEntity instanceof Player)) {
-                addCustomEntityTypeContexts(targetEntity, id, contexts, type, isSource);
+                addCustomEntityTypeContexts(query, targetEntity, id, contexts, type, isSource);
             } else {
                 final Player player = (Player) targetEntity;
                 if (PlayerUtil.getInstance().isFakePlayer(player)) { 
@@ -668,37 +747,37 @@ public Set<Context> getPermissionContexts(GDClaim claim, Object obj, boolean isS
                 }
             }
 
-            if (this.isObjectIdBanned(claim, id, BanType.ENTITY)) {
+            if (this.isObjectIdBanned(query, claim, id, BanType.ENTITY)) {
                 return null;
             }
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof Block) {
             final Block block = (Block) obj;
             final String id = BlockTypeRegistryModule.getInstance().getNMSKey(block);
             this.addBlockContexts(contexts, block, isSource);
-            if (this.isObjectIdBanned(claim, id, BanType.BLOCK)) {
+            if (this.isObjectIdBanned(query, claim, id, BanType.BLOCK)) {
                 return null;
             }
 
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof BlockState) {
             final BlockState blockstate = (BlockState) obj;
             final String id = BlockTypeRegistryModule.getInstance().getNMSKey(blockstate);
             this.addBlockContexts(contexts, blockstate.getBlock(), isSource);
-            if (this.isObjectIdBanned(claim, id, BanType.BLOCK)) {
+            if (this.isObjectIdBanned(query, claim, id, BanType.BLOCK)) {
                 return null;
             }
 
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof Material) {
             final String id = ((Material) obj).name().toLowerCase();
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof Inventory) {
             final String id = ((Inventory) obj).getType().name().toLowerCase();
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof InventoryType) {
             final String id = ((InventoryType) obj).name().toLowerCase();
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof ItemStack) {
             final ItemStack itemstack = (ItemStack) obj;
             if (NMSUtil.getInstance().isItemFood(itemstack)) {
@@ -723,36 +802,35 @@ public Set<Context> getPermissionContexts(GDClaim claim, Object obj, boolean isS
                 }
             }
             String id = ItemTypeRegistryModule.getInstance().getNMSKey(itemstack);
-            if (this.isObjectIdBanned(claim, id, BanType.ITEM)) {
+            if (this.isObjectIdBanned(query, claim, id, BanType.ITEM)) {
                 return null;
             }
 
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof DamageCause) {
             final DamageCause damageCause = (DamageCause) obj;
             String id = damageCause.name().toLowerCase();
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         } else if (obj instanceof SpawnReason) {
-            return populateEventSourceTargetContext(contexts, "spawnreason:" + ((SpawnReason) obj).name().toLowerCase(), isSource);
+            return populateEventSourceTargetContext(query, contexts, "spawnreason:" + ((SpawnReason) obj).name().toLowerCase(), isSource);
         } else if (obj instanceof CreatureSpawner) {
             final CreatureSpawner spawner = (CreatureSpawner) obj;
-            return this.getPermissionContexts(claim, spawner.getBlock(), isSource);
+            return this.getPermissionContexts(query, claim, spawner.getBlock(), isSource);
         }  else if (obj instanceof String) {
             final String id = obj.toString().toLowerCase();
-            return populateEventSourceTargetContext(contexts, id, isSource);
+            return populateEventSourceTargetContext(query, contexts, id, isSource);
         }
 
         return contexts;
     }
 
-    public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
+    private boolean isObjectIdBanned(PermissionQuery.Builder query, GDClaim claim, String id, BanType type) {
         if (id.equalsIgnoreCase("player")) {
             return false;
         }
 
-        GDPermissionUser user = null;
-        if (this.eventSubject != null && this.eventSubject instanceof GDPermissionUser) {
-            user = (GDPermissionUser) this.eventSubject;
+        final GDPermissionUser user = query == null ? null : query.getUser();
+        if (user != null) {
             if (user.getInternalPlayerData() != null && user.getInternalPlayerData().canIgnoreClaim(claim)) {
                 return false;
             }
@@ -802,19 +880,23 @@ public boolean isObjectIdBanned(GDClaim claim, String id, BanType type) {
                             ImmutableMap.of("id", id));
                 }
                 TextAdapter.sendComponent(player, banReason);
-                this.processResult(claim, permission, "banned", Tristate.FALSE, user);
+                this.processResult(query, claim, permission, "banned", Tristate.FALSE, user);
                 return true;
             }
         }
         if (banReason != null) {
             // Detected ban
-            this.processResult(claim, permission, "banned", Tristate.FALSE, this.eventSubject);
+            this.processResult(query, claim, permission, "banned", Tristate.FALSE, user);
             return true;
         }
         return false;
     }
 
     public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Context> contexts, GDEntityType type, boolean isSource) {
+        this.addCustomEntityTypeContexts(null, targetEntity, id, contexts, type, isSource);
+    }
+
+    private void addCustomEntityTypeContexts(PermissionQuery.Builder query, Entity targetEntity, String id, Set<Context> contexts, GDEntityType type, boolean isSource) {
         if (isSource) {
             contexts.add(ContextGroups.SOURCE_ANY);
             contexts.add(new Context(ContextKeys.SOURCE, "#" + type.getModId().toLowerCase() + ":any"));
@@ -852,7 +934,7 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_ANIMAL);
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":animal"));
             }
-            this.checkPetContext(targetEntity, modId, contexts, isSource);
+            this.checkPetContext(query, targetEntity, modId, contexts, isSource);
         } else if (creatureType.contains("aquatic")) {
             if (isSource) {
                 contexts.add(ContextGroups.SOURCE_AQUATIC);
@@ -861,7 +943,7 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_AQUATIC);
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":aquatic"));
             }
-            this.checkPetContext(targetEntity, modId, contexts, isSource);
+            this.checkPetContext(query, targetEntity, modId, contexts, isSource);
         } else if (creatureType.contains("monster")) {
             if (isSource) {
                 contexts.add(ContextGroups.SOURCE_MONSTER);
@@ -878,7 +960,7 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
                 contexts.add(ContextGroups.TARGET_AMBIENT);
                 contexts.add(new Context(ContextKeys.TARGET, "#" + modId + ":ambient"));
             }
-            this.checkPetContext(targetEntity, modId, contexts, isSource);
+            this.checkPetContext(query, targetEntity, modId, contexts, isSource);
         } else {
             if (isSource) {
                 contexts.add(ContextGroups.SOURCE_MISC);
@@ -890,9 +972,9 @@ public void addCustomEntityTypeContexts(Entity targetEntity, String id, Set<Cont
         }
     }
 
-    private void checkPetContext(Entity targetEntity, String modId, Set<Context> contexts, boolean isSource) {
-        if (this.eventSubject != null && this.eventSubject instanceof GDPermissionUser) {
-            final GDPermissionUser user = (GDPermissionUser) this.eventSubject;
+    private void checkPetContext(PermissionQuery.Builder query, Entity targetEntity, String modId, Set<Context> contexts, boolean isSource) {
+        if (query != null && query.getUser() != null) {
+            final GDPermissionUser user = query.getUser();
             final UUID uuid = NMSUtil.getInstance().getTameableOwnerUUID(targetEntity);
             if (uuid != null && uuid.equals(user.getUniqueId())) {
                 if (isSource) {
@@ -910,7 +992,8 @@ private void checkPetContext(Entity targetEntity, String modId, Set<Context> con
         }
     }
 
-    private void addPlayerContexts(Player player, Set<Context> contexts, Flag flag) {
+    private void addPlayerContexts(PermissionQuery.Builder query, Player player, Set<Context> contexts, Flag flag) {
+        final Event event = query.getEvent();
         Context usedItemContext = null;
         for (Context context : contexts) {
             if (context.getKey().equals(ContextKeys.USED_ITEM)) {
@@ -920,11 +1003,11 @@ private void addPlayerContexts(Player player, Set<Context> contexts, Flag flag)
         }
         if(usedItemContext == null) {
             // special case
-            if (this.currentEvent instanceof PlayerBucketEvent) {
-                final PlayerBucketEvent bucketEvent = (PlayerBucketEvent) this.currentEvent;
+            if (event instanceof PlayerBucketEvent) {
+                final PlayerBucketEvent bucketEvent = (PlayerBucketEvent) event;
                 contexts.add(new Context(ContextKeys.USED_ITEM, "minecraft:" + bucketEvent.getBucket().name().toLowerCase()));
             } else {
-                final ItemStack stack = NMSUtil.getInstance().getActiveItem(player, this.currentEvent);
+                final ItemStack stack = NMSUtil.getInstance().getActiveItem(player, event);
                 if (stack != null && stack.getType() != Material.AIR) {
                     final String stackId = getPermissionIdentifier(stack);
                     contexts.add(new Context(ContextKeys.USED_ITEM, stackId));
@@ -1012,20 +1095,25 @@ public String getIdentifierWithoutMeta(String targetId) {
         return targetId;
     }
 
-    private Set<Context> populateEventSourceTargetContext(Set<Context> contexts, String id, boolean isSource) {
+    private Set<Context> populateEventSourceTargetContext(PermissionQuery.Builder query, Set<Context> contexts, String id, boolean isSource) {
         if (!id.contains(":")) {
             id = "minecraft:" + id;
         }
         contexts = this.populateTagContextsForId(contexts, id, isSource);
         final String[] parts = id.split(":");
         final String modId = parts[0];
+        final String lowerId = id.toLowerCase();
         if (isSource) {
-            this.eventSourceId = id.toLowerCase();
-            contexts.add(new Context("source", this.eventSourceId));
+            if (query != null) {
+                query.sourceId(lowerId);
+            }
+            contexts.add(new Context("source", lowerId));
             contexts.add(new Context("source", modId + ":any"));
         } else {
-            this.eventTargetId = id.toLowerCase();
-            contexts.add(new Context("target", this.eventTargetId));
+            if (query != null) {
+                query.targetId(lowerId);
+            }
+            contexts.add(new Context("target", lowerId));
             contexts.add(new Context("target", modId + ":any"));
         }
 
@@ -1073,12 +1161,6 @@ private String populateEventSourceTarget(String id, boolean isSource) {
                 id = parts[1] + ":" + parts[2];
             }
         }
-        if (isSource) {
-            this.eventSourceId = id.toLowerCase();
-        } else {
-            this.eventTargetId = id.toLowerCase();
-        }
-
         return id;
     }
 
@@ -1276,6 +1358,31 @@ public <T> T getInternalOptionValue(TypeToken<T> type, GDPermissionHolder holder
             PermissionUtil.getInstance().addActiveContexts(contexts, holder, playerData, claim);
         }
 
+        // Multi valued options are returned as mutable lists so are never shared
+        if (option.multiValued() || !(PermissionUtil.getInstance().getPermissionProvider() instanceof LuckPermsProvider)) {
+            return this.findOptionValue(type, holder, option, claim, claimType, contexts);
+        }
+
+        final Set<Context> keyContexts = new HashSet<>(contexts);
+        if (claimType != null) {
+            keyContexts.add(claimType.getContext());
+        }
+        final Cache<PermissionCacheKey, Object> cache = PermissionHolderCache.getInstance().getOrCreateOptionCache(holder);
+        // Not computed through the cache as the lookup can fall back to the default holder's cache
+        final PermissionCacheKey key = new PermissionCacheKey(claim == null ? null : claim.getUniqueId(), option.getPermission(), keyContexts);
+        T value = (T) cache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = this.findOptionValue(type, holder, option, claim, claimType, contexts);
+        if (value != null) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    private <T> T findOptionValue(TypeToken<T> type, GDPermissionHolder holder, Option<T> option, Claim claim, ClaimType claimType, Set<Context> contexts) {
         Set<Context> optionContexts = new HashSet<>(contexts);
         if (!option.isGlobal() && (claim != null || claimType != null)) {
             // check claim
@@ -1530,7 +1637,7 @@ public Optional<Option> getOption(String value) {
     }
 
     public Component getEventMessage() {
-        return this.eventMessage;
+        return EVENT_MESSAGE.get();
     }
 
     @Override
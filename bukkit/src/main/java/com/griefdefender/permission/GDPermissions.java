@@ -144,6 +144,7 @@ public class GDPermissions {
     public static final String COMMAND_ADJUST_CLAIM_BLOCKS = "griefdefender.admin.claim.command.adjust-claim-blocks";
     public static final String COMMAND_ADMIN_CLAIMS = "griefdefender.admin.claim.command.admin-mode";
     public static final String COMMAND_ADMIN_DEBUG = "griefdefender.admin.claim.command.debug";
+    public static final String COMMAND_ADMIN_PERF = "griefdefender.admin.command.perf";
     public static final String COMMAND_CLAIM_BAN = "griefdefender.admin.claim.command.ban";
     public static final String COMMAND_CLAIM_CLEAR = "griefdefender.admin.claim.command.clear";
     public static final String COMMAND_CLAIM_PERMISSION_GROUP = "griefdefender.admin.claim.command.permission-group";
@@ -0,0 +1,217 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission;
+
+import com.google.common.collect.ImmutableSet;
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.api.claim.Claim;
+import com.griefdefender.api.claim.TrustType;
+import com.griefdefender.api.permission.Context;
+import com.griefdefender.api.permission.flag.Flag;
+import org.bukkit.Location;
+import org.bukkit.event.Event;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The state of a single flag permission check.
+ *
+ * <p>A query is immutable once built so it can be evaluated from any thread.
+ * Source and target contexts are resolved through a {@link Builder} that
+ * is only used by the thread performing the check.</p>
+ */
+public class PermissionQuery {
+
+    private final Event event;
+    private final Location location;
+    private final Claim claim;
+    private final Flag flag;
+    private final Object source;
+    private final Object target;
+    private final GDPermissionHolder holder;
+    private final GDPermissionUser user;
+    private final GDPlayerData playerData;
+    private final TrustType trustType;
+    private final boolean checkOverride;
+    private final Set<Context> contexts;
+    // Resolved while building source and target contexts, only used for debug
+    private final String sourceId;
+    private final String targetId;
+
+    private PermissionQuery(Builder builder) {
+        this.event = builder.event;
+        this.location = builder.location;
+        this.claim = builder.claim;
+        this.flag = builder.flag;
+        this.source = builder.source;
+        this.target = builder.target;
+        this.holder = builder.holder;
+        this.user = builder.user;
+        this.playerData = builder.playerData;
+        this.trustType = builder.trustType;
+        this.checkOverride = builder.checkOverride;
+        this.contexts = ImmutableSet.copyOf(builder.contexts);
+        this.sourceId = builder.sourceId;
+        this.targetId = builder.targetId;
+    }
+
+    public Event getEvent() {
+        return this.event;
+    }
+
+    public Location getLocation() {
+        return this.location;
+    }
+
+    public Claim getClaim() {
+        return this.claim;
+    }
+
+    public Flag getFlag() {
+        return this.flag;
+    }
+
+    public Object getSource() {
+        return this.source;
+    }
+
+    public Object getTarget() {
+        return this.target;
+    }
+
+    public GDPermissionHolder getHolder() {
+        return this.holder;
+    }
+
+    public GDPermissionUser getUser() {
+        return this.user;
+    }
+
+    public GDPlayerData getPlayerData() {
+        return this.playerData;
+    }
+
+    public TrustType getTrustType() {
+        return this.trustType;
+    }
+
+    public boolean checkOverride() {
+        return this.checkOverride;
+    }
+
+    public Set<Context> getContexts() {
+        return this.contexts;
+    }
+
+    public String getSourceId() {
+        return this.sourceId;
+    }
+
+    public String getTargetId() {
+        return this.targetId;
+    }
+
+    public static class Builder {
+
+        private final Event event;
+        private final Location location;
+        private final Claim claim;
+        private final Flag flag;
+        private final Object source;
+        private final Object target;
+        private final GDPermissionHolder holder;
+        private final GDPermissionUser user;
+        private final GDPlayerData playerData;
+        private final TrustType trustType;
+        private final boolean checkOverride;
+        private final Set<Context> contexts;
+        private String sourceId = "none";
+        private String targetId = "none";
+
+        /**
+         * Creates a builder for a check.
+         *
+         * @param contexts The event contexts, copied so the caller's set is never changed
+         * @param playerData The data of the user in the claim world, can be null
+         */
+        public Builder(Event event, Location location, Set<Context> contexts, Claim claim, Flag flag, Object source, Object target,
+                GDPermissionHolder holder, GDPlayerData playerData, TrustType trustType, boolean checkOverride) {
+            this.event = event;
+            this.location = location;
+            this.contexts = new HashSet<>(contexts);
+            this.claim = claim;
+            this.flag = flag;
+            this.source = source;
+            this.target = target;
+            this.holder = holder;
+            this.user = holder instanceof GDPermissionUser ? (GDPermissionUser) holder : null;
+            this.playerData = this.user == null ? null : playerData;
+            this.trustType = trustType;
+            this.checkOverride = checkOverride;
+        }
+
+        public Event getEvent() {
+            return this.event;
+        }
+
+        public Claim getClaim() {
+            return this.claim;
+        }
+
+        public Flag getFlag() {
+            return this.flag;
+        }
+
+        public Object getSource() {
+            return this.source;
+        }
+
+        public Object getTarget() {
+            return this.target;
+        }
+
+        public GDPermissionUser getUser() {
+            return this.user;
+        }
+
+        // Contexts being resolved, changed in place until built
+        Set<Context> getContexts() {
+            return this.contexts;
+        }
+
+        void sourceId(String sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        void targetId(String targetId) {
+            this.targetId = targetId;
+        }
+
+        public PermissionQuery build() {
+            return new PermissionQuery(this);
+        }
+    }
+}
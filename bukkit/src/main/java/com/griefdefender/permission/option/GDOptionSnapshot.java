@@ -0,0 +1,126 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.permission.option;
+
+import com.google.common.reflect.TypeToken;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.api.permission.option.Option;
+import com.griefdefender.api.permission.option.Options;
+import com.griefdefender.api.permission.option.type.GameModeType;
+import com.griefdefender.api.permission.option.type.WeatherType;
+import com.griefdefender.cache.PermissionHolderCache;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.permission.GDPermissionManager;
+import com.griefdefender.permission.GDPermissionUser;
+import com.griefdefender.provider.LuckPermsProvider;
+import com.griefdefender.util.PermissionUtil;
+import org.bukkit.GameMode;
+
+/**
+ * Resolved player options for the claim a player is currently in.
+ *
+ * <p>Values are resolved on first access and kept until the player changes
+ * claim or game mode, or the permission cache is invalidated.</p>
+ */
+public class GDOptionSnapshot {
+
+    private final GDPermissionUser user;
+    private final GDClaim claim;
+    private final ClaimType claimType;
+    private final GameMode gameMode;
+    private final int cacheVersion;
+
+    private Boolean denyFlight;
+    private Boolean denyGodMode;
+    private GameModeType playerGameMode;
+    private Double flySpeed;
+    private Double walkSpeed;
+    private WeatherType weather;
+
+    public GDOptionSnapshot(GDPermissionUser user, GDClaim claim, GameMode gameMode) {
+        this.user = user;
+        this.claim = claim;
+        this.claimType = claim.getType();
+        this.gameMode = gameMode;
+        this.cacheVersion = PermissionHolderCache.getInstance().getCacheVersion();
+    }
+
+    public boolean isValid(GDClaim claim, GameMode gameMode) {
+        // Other providers do not notify us of changes so values are never reused
+        if (!(PermissionUtil.getInstance().getPermissionProvider() instanceof LuckPermsProvider)) {
+            return false;
+        }
+        return this.claim == claim
+                && this.claimType == claim.getType()
+                && this.gameMode == gameMode
+                && this.cacheVersion == PermissionHolderCache.getInstance().getCacheVersion();
+    }
+
+    public boolean denyFlight() {
+        if (this.denyFlight == null) {
+            this.denyFlight = this.resolve(TypeToken.of(Boolean.class), Options.PLAYER_DENY_FLIGHT);
+        }
+        return this.denyFlight;
+    }
+
+    public boolean denyGodMode() {
+        if (this.denyGodMode == null) {
+            this.denyGodMode = this.resolve(TypeToken.of(Boolean.class), Options.PLAYER_DENY_GODMODE);
+        }
+        return this.denyGodMode;
+    }
+
+    public GameModeType getGameMode() {
+        if (this.playerGameMode == null) {
+            this.playerGameMode = this.resolve(TypeToken.of(GameModeType.class), Options.PLAYER_GAMEMODE);
+        }
+        return this.playerGameMode;
+    }
+
+    public double getFlySpeed() {
+        if (this.flySpeed == null) {
+            this.flySpeed = this.resolve(TypeToken.of(Double.class), Options.PLAYER_FLY_SPEED);
+        }
+        return this.flySpeed;
+    }
+
+    public double getWalkSpeed() {
+        if (this.walkSpeed == null) {
+            this.walkSpeed = this.resolve(TypeToken.of(Double.class), Options.PLAYER_WALK_SPEED);
+        }
+        return this.walkSpeed;
+    }
+
+    public WeatherType getWeather() {
+        if (this.weather == null) {
+            this.weather = this.resolve(TypeToken.of(WeatherType.class), Options.PLAYER_WEATHER);
+        }
+        return this.weather;
+    }
+
+    private <T> T resolve(TypeToken<T> type, Option<T> option) {
+        return GDPermissionManager.getInstance().getInternalOptionValue(type, this.user, option, this.claim);
+    }
+}
@@ -37,6 +37,7 @@
 import com.griefdefender.api.event.CreateClaimEvent;
 import com.griefdefender.api.event.RemoveClaimEvent;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.configuration.category.DynmapOwnerStyleCategory;
 import com.griefdefender.configuration.category.DynmapCategory;
 import com.griefdefender.util.PlayerUtil;
@@ -47,13 +48,16 @@
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.scheduler.BukkitTask;
 import org.dynmap.DynmapCommonAPI;
 import org.dynmap.DynmapCommonAPIListener;
 import org.dynmap.markers.AreaMarker;
 import org.dynmap.markers.MarkerAPI;
 import org.dynmap.markers.MarkerSet;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -84,89 +88,48 @@ public void apiEnabled(DynmapCommonAPI api) {
     }
 
     private Map<String, AreaMarker> areaMarkers = new HashMap<String, AreaMarker>();
-
-    private String getWindowInfo(Claim claim, AreaMarker marker) {
+    // Claims changed since the last update, claim UUID -> world UUID
+    private final Map<UUID, UUID> pendingClaims = new LinkedHashMap<>();
+    private BukkitTask pendingUpdate;
+    // Marker ID -> sequence of the latest description requested for it
+    private final Map<String, Long> pendingDescriptions = new HashMap<>();
+    private long descriptionSequence;
+
+    // Built on the executor from a ClaimInfo captured on the main thread
+    private String getWindowInfo(ClaimInfo claim) {
         String info;
-        if (claim.isAdminClaim()) {
+        if (claim.adminClaim) {
             info = "<div class=\"regioninfo\">" + this.cfg.infoWindowAdmin + "</div>";
         } else {
             info = "<div class=\"regioninfo\">" + this.cfg.infoWindowBasic + "</div>";
         }
-        info = info.replace("%owner%", ((GDClaim) claim).getOwnerName());
-        info = info.replace("%area%", Integer.toString(claim.getArea()));
-        info = info.replace("%claimname%",
-                claim.getData().getName().isPresent()
-                        ? PlainComponentSerializer.INSTANCE.serialize(claim.getName().get())
-                        : "none");
-        info = info.replace("%lastseen%", claim.getData().getDateLastActive().toString());
-        info = info.replace("%gdtype%", claim.getType().toString());
-
-        final List<UUID> builderList = claim.getUserTrusts(TrustTypes.BUILDER);
-        final List<UUID> containerList = claim.getUserTrusts(TrustTypes.CONTAINER);
-        final List<UUID> accessorList = claim.getUserTrusts(TrustTypes.ACCESSOR);
-        final List<UUID> managerList = claim.getUserTrusts(TrustTypes.MANAGER);
-
-        String trusted = "";
-        for (int i = 0; i < builderList.size(); i++) {
-            if (i > 0) {
-                trusted += ", ";
-            }
-            final UUID uuid = builderList.get(i);
-            final String userName = PlayerUtil.getInstance().getUserName(uuid);
-            if (userName.equalsIgnoreCase("unknown")) {
-                trusted += uuid.toString();
-            } else {
-                trusted += userName;
-            }
-        }
-        info = info.replace("%builders%", trusted);
-
-        trusted = "";
-        for (int i = 0; i < containerList.size(); i++) {
-            if (i > 0) {
-                trusted += ", ";
-            }
-            final UUID uuid = containerList.get(i);
-            final String userName = PlayerUtil.getInstance().getUserName(uuid);
-            if (userName.equalsIgnoreCase("unknown")) {
-                trusted += uuid.toString();
-            } else {
-                trusted += userName;
-            }
-        }
-        info = info.replace("%containers%", trusted);
-
-        trusted = "";
-        for (int i = 0; i < accessorList.size(); i++) {
-            if (i > 0) {
-                trusted += ", ";
-            }
-            final UUID uuid = accessorList.get(i);
-            final String userName = PlayerUtil.getInstance().getUserName(uuid);
-            if (userName.equalsIgnoreCase("unknown")) {
-                trusted += uuid.toString();
-            } else {
-                trusted += userName;
-            }
-        }
-        info = info.replace("%accessors%", trusted);
+        info = info.replace("%owner%", claim.ownerName);
+        info = info.replace("%area%", Integer.toString(claim.area));
+        info = info.replace("%claimname%", claim.claimName);
+        info = info.replace("%lastseen%", claim.lastSeen);
+        info = info.replace("%gdtype%", claim.type);
+        info = info.replace("%builders%", this.getTrustedNames(claim.builders));
+        info = info.replace("%containers%", this.getTrustedNames(claim.containers));
+        info = info.replace("%accessors%", this.getTrustedNames(claim.accessors));
+        info = info.replace("%managers%", this.getTrustedNames(claim.managers));
+        return info;
+    }
 
-        trusted = "";
-        for (int i = 0; i < managerList.size(); i++) {
+    private String getTrustedNames(List<UUID> trustList) {
+        final StringBuilder trusted = new StringBuilder();
+        for (int i = 0; i < trustList.size(); i++) {
             if (i > 0) {
-                trusted += ", ";
+                trusted.append(", ");
             }
-            final UUID uuid = managerList.get(i);
+            final UUID uuid = trustList.get(i);
             final String userName = PlayerUtil.getInstance().getUserName(uuid);
             if (userName.equalsIgnoreCase("unknown")) {
-                trusted += uuid.toString();
+                trusted.append(uuid.toString());
             } else {
-                trusted += userName;
+                trusted.append(userName);
             }
         }
-        info = info.replace("%managers%", trusted);
-
-        return info;
+        return trusted.toString();
     }
 
     private boolean isVisible(GDClaim claim, String owner, String worldname) {
@@ -213,57 +176,64 @@ private void addOwnerStyle(String owner, String worldid, AreaMarker marker, Clai
         }
     }
 
-    private void updateClaimMarker(Claim claim, Map<String, AreaMarker> markerMap) {
+    // Returns the marker ID if the claim is visible
+    private String updateClaimMarker(Claim claim, Map<String, AreaMarker> markerMap, Map<String, ClaimInfo> descriptions) {
         final World world = Bukkit.getWorld(claim.getWorldUniqueId());
         if (world == null) {
-            return;
+            return null;
         }
         final String worldName = world.getName();
         final String owner = ((GDClaim) claim).getOwnerName();
-        if (isVisible((GDClaim) claim, owner, worldName)) {
-            final Vector3i lesserPos = claim.getLesserBoundaryCorner();
-            final Vector3i greaterPos = claim.getGreaterBoundaryCorner();
-            final double[] x = new double[4];
-            final double[] z = new double[4];
-            x[0] = lesserPos.getX();
-            z[0] = lesserPos.getZ();
-            x[1] = lesserPos.getX();
-            z[1] = greaterPos.getZ() + 1.0;
-            x[2] = greaterPos.getX() + 1.0;
-            z[2] = greaterPos.getZ() + 1.0;
-            x[3] = greaterPos.getX() + 1.0;
-            z[3] = lesserPos.getZ();
-            final UUID id = claim.getUniqueId();
-            final String markerid = "GD_" + id;
-            AreaMarker marker = this.areaMarkers.remove(markerid);
+        if (!isVisible((GDClaim) claim, owner, worldName)) {
+            return null;
+        }
+        final Vector3i lesserPos = claim.getLesserBoundaryCorner();
+        final Vector3i greaterPos = claim.getGreaterBoundaryCorner();
+        final double[] x = new double[4];
+        final double[] z = new double[4];
+        x[0] = lesserPos.getX();
+        z[0] = lesserPos.getZ();
+        x[1] = lesserPos.getX();
+        z[1] = greaterPos.getZ() + 1.0;
+        x[2] = greaterPos.getX() + 1.0;
+        z[2] = greaterPos.getZ() + 1.0;
+        x[3] = greaterPos.getX() + 1.0;
+        z[3] = lesserPos.getZ();
+        final String markerid = getMarkerId(claim.getUniqueId());
+        AreaMarker marker = this.areaMarkers.remove(markerid);
+        if (marker == null) {
+            marker = this.set.createAreaMarker(markerid, owner, false, worldName, x, z, false);
             if (marker == null) {
-                marker = this.set.createAreaMarker(markerid, owner, false, worldName, x, z, false);
-                if (marker == null) {
-                    return;
-                }
-            } else {
-                marker.setCornerLocations(x, z);
-                marker.setLabel(owner);
+                return null;
             }
-            if (this.cfg.use3dRegions) {
-                marker.setRangeY(greaterPos.getY() + 1.0, lesserPos.getY());
-            }
-
-            addOwnerStyle(owner, worldName, marker, claim);
-            String desc = getWindowInfo(claim, marker);
-            marker.setDescription(desc);
-            markerMap.put(markerid, marker);
+        } else {
+            marker.setCornerLocations(x, z);
+            marker.setLabel(owner);
+        }
+        if (this.cfg.use3dRegions) {
+            marker.setRangeY(greaterPos.getY() + 1.0, lesserPos.getY());
         }
+
+        addOwnerStyle(owner, worldName, marker, claim);
+        descriptions.put(markerid, new ClaimInfo(claim));
+        markerMap.put(markerid, marker);
+        return markerid;
+    }
+
+    private static String getMarkerId(UUID claimUniqueId) {
+        return "GD_" + claimUniqueId;
     }
 
+    // Full rebuild, only used on activation
     private void updateClaims() {
         Map<String, AreaMarker> newmap = new HashMap<String, AreaMarker>();
+        final Map<String, ClaimInfo> descriptions = new HashMap<>();
         Bukkit.getServer().getWorlds().stream().map(w -> GriefDefender.getCore().getClaimManager(w.getUID()))
                 .map(ClaimManager::getWorldClaims).forEach(claims -> {
                     for (Claim claim : claims) {
-                        updateClaimMarker(claim, newmap);
+                        updateClaimMarker(claim, newmap, descriptions);
                         for (Claim child : claim.getChildren(true)) {
-                            updateClaimMarker(child, newmap);
+                            updateClaimMarker(child, newmap, descriptions);
                         }
                     }
                 });
@@ -273,6 +243,84 @@ private void updateClaims() {
         }
 
         this.areaMarkers = newmap;
+        this.pendingClaims.clear();
+        this.pendingDescriptions.clear();
+        this.updateDescriptions(descriptions);
+    }
+
+    // Only updates the markers of claims changed since the last run
+    private void updatePendingClaims() {
+        this.pendingUpdate = null;
+        final Map<String, ClaimInfo> descriptions = new HashMap<>();
+        for (Map.Entry<UUID, UUID> entry : this.pendingClaims.entrySet()) {
+            final UUID claimUniqueId = entry.getKey();
+            final GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(entry.getValue());
+            final Claim claim = claimManager == null ? null : claimManager.getClaimByUUID(claimUniqueId).orElse(null);
+            String markerid = null;
+            if (claim != null && !claim.isWilderness()) {
+                markerid = this.updateClaimMarker(claim, this.areaMarkers, descriptions);
+            }
+            if (markerid == null) {
+                // Deleted or no longer visible
+                final AreaMarker marker = this.areaMarkers.remove(getMarkerId(claimUniqueId));
+                if (marker != null) {
+                    marker.deleteMarker();
+                }
+            }
+        }
+        this.pendingClaims.clear();
+        this.updateDescriptions(descriptions);
+    }
+
+    private void updateDescriptions(Map<String, ClaimInfo> descriptions) {
+        if (descriptions.isEmpty()) {
+            return;
+        }
+        final long sequence = ++this.descriptionSequence;
+        for (String markerid : descriptions.keySet()) {
+            this.pendingDescriptions.put(markerid, sequence);
+        }
+        GriefDefenderPlugin.getInstance().executor.execute(() -> {
+            final Map<String, String> results = new HashMap<>();
+            for (Map.Entry<String, ClaimInfo> entry : descriptions.entrySet()) {
+                results.put(entry.getKey(), this.getWindowInfo(entry.getValue()));
+            }
+            Bukkit.getScheduler().runTask(GDBootstrap.getInstance(), () -> {
+                if (this.disabled) {
+                    return;
+                }
+                for (Map.Entry<String, String> entry : results.entrySet()) {
+                    final String markerid = entry.getKey();
+                    // Skip if the marker was updated again or removed in the meantime
+                    final Long latest = this.pendingDescriptions.get(markerid);
+                    if (latest == null || latest != sequence) {
+                        continue;
+                    }
+                    this.pendingDescriptions.remove(markerid);
+                    final AreaMarker marker = this.areaMarkers.get(markerid);
+                    if (marker != null) {
+                        marker.setDescription(entry.getValue());
+                    }
+                }
+            });
+        });
+    }
+
+    private void queueClaimUpdate(List<Claim> claims) {
+        if (this.disabled || this.set == null) {
+            return;
+        }
+        for (Claim claim : claims) {
+            this.pendingClaims.put(claim.getUniqueId(), claim.getWorldUniqueId());
+            // Children are removed or migrated along with their parent
+            for (Claim child : claim.getChildren(true)) {
+                this.pendingClaims.put(child.getUniqueId(), child.getWorldUniqueId());
+            }
+        }
+        // Events fire before the change is applied, bursts within the delay are handled in one run
+        if (this.pendingUpdate == null) {
+            this.pendingUpdate = Bukkit.getScheduler().runTaskLater(GDBootstrap.getInstance(), this::updatePendingClaims, 20L);
+        }
     }
 
     private void activate() {
@@ -317,6 +365,12 @@ private void activate() {
     }
 
     public void onDisable() {
+        if (this.pendingUpdate != null) {
+            this.pendingUpdate.cancel();
+            this.pendingUpdate = null;
+        }
+        this.pendingClaims.clear();
+        this.pendingDescriptions.clear();
         if (this.set != null) {
             this.set.deleteMarkerSet();
             this.set = null;
@@ -341,18 +395,48 @@ public void run() {
         }
     }
 
+    // Values used for the info window, captured on the main thread
+    private static final class ClaimInfo {
+
+        private final boolean adminClaim;
+        private final String ownerName;
+        private final int area;
+        private final String claimName;
+        private final String lastSeen;
+        private final String type;
+        private final List<UUID> builders;
+        private final List<UUID> containers;
+        private final List<UUID> accessors;
+        private final List<UUID> managers;
+
+        ClaimInfo(Claim claim) {
+            this.adminClaim = claim.isAdminClaim();
+            this.ownerName = ((GDClaim) claim).getOwnerName();
+            this.area = claim.getArea();
+            this.claimName = claim.getData().getName().isPresent()
+                    ? PlainComponentSerializer.INSTANCE.serialize(claim.getName().get())
+                    : "none";
+            this.lastSeen = claim.getData().getDateLastActive().toString();
+            this.type = claim.getType().toString();
+            this.builders = new ArrayList<>(claim.getUserTrusts(TrustTypes.BUILDER));
+            this.containers = new ArrayList<>(claim.getUserTrusts(TrustTypes.CONTAINER));
+            this.accessors = new ArrayList<>(claim.getUserTrusts(TrustTypes.ACCESSOR));
+            this.managers = new ArrayList<>(claim.getUserTrusts(TrustTypes.MANAGER));
+        }
+    }
+
     @Subscribe
     public void onClaimCreate(CreateClaimEvent event) {
-        new GriefDefenderUpdate(20L);
+        this.queueClaimUpdate(event.getClaims());
     }
 
     @Subscribe
     public void onClaimDelete(RemoveClaimEvent event) {
-        new GriefDefenderUpdate(20L);
+        this.queueClaimUpdate(event.getClaims());
     }
 
     @Subscribe
     public void onClaimChange(ChangeClaimEvent event) {
-        new GriefDefenderUpdate(20L);
+        this.queueClaimUpdate(event.getClaims());
     }
-}
\ No newline at end of file
+}
@@ -714,11 +714,13 @@ public PermissionResult setOptionValue(GDPermissionHolder holder, String key, St
             result = permissionHolder.data().add(node);
         } else {
             this.clearMeta(permissionHolder, key, set);
+            this.invalidateCache(permissionHolder, holder);
             this.savePermissionHolder(permissionHolder);
             return new GDPermissionResult(ResultTypes.SUCCESS);
         }
         if (result != null) {
             if (result.wasSuccessful()) {
+                this.invalidateCache(permissionHolder, holder);
                 this.savePermissionHolder(permissionHolder);
                 return new GDPermissionResult(ResultTypes.SUCCESS, TextComponent.builder().append(result.name()).build());
             }
@@ -748,13 +750,7 @@ public PermissionResult setPermissionValue(GDPermissionHolder holder, String per
         }
 
         if (result.wasSuccessful()) {
-            if (permissionHolder instanceof Group) {
-                // If a group is changed, we invalidate all cache
-                PermissionHolderCache.getInstance().invalidateAllPermissionCache();
-            } else {
-                // We need to invalidate cache outside of LP listener so we can guarantee proper result returns
-                PermissionHolderCache.getInstance().getOrCreatePermissionCache(holder).invalidateAll();
-            }
+            this.invalidateCache(permissionHolder, holder);
 
             if (save) {
                 this.savePermissionHolder(permissionHolder);
@@ -785,6 +781,7 @@ public PermissionResult setTransientOption(GDPermissionHolder holder, String per
         }
 
         if (result.wasSuccessful()) {
+            this.invalidateCache(permissionHolder, holder);
             return new GDPermissionResult(ResultTypes.SUCCESS, TextComponent.builder().append(result.name()).build());
         }
         return new GDPermissionResult(ResultTypes.FAILURE, TextComponent.builder().append(result.name()).build());
@@ -809,11 +806,22 @@ public PermissionResult setTransientPermission(GDPermissionHolder holder, String
         }
 
         if (result.wasSuccessful()) {
+            this.invalidateCache(permissionHolder, holder);
             return new GDPermissionResult(ResultTypes.SUCCESS, TextComponent.builder().append(result.name()).build());
         }
         return new GDPermissionResult(ResultTypes.FAILURE, TextComponent.builder().append(result.name()).build());
     }
 
+    private void invalidateCache(PermissionHolder permissionHolder, GDPermissionHolder holder) {
+        if (permissionHolder instanceof Group) {
+            // If a group is changed, we invalidate all cache
+            PermissionHolderCache.getInstance().invalidateAllPermissionCache();
+        } else {
+            // We need to invalidate cache outside of LP listener so we can guarantee proper result returns
+            PermissionHolderCache.getInstance().invalidatePermissionCache(holder);
+        }
+    }
+
     public void savePermissionHolder(PermissionHolder holder) {
         if (holder instanceof User) {
             this.luckPermsApi.getUserManager().saveUser((User) holder);
@@ -25,13 +25,19 @@
 package com.griefdefender.provider;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.World;
 import org.bukkit.entity.Player;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.griefdefender.GDBootstrap;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
@@ -42,6 +48,7 @@
 import com.griefdefender.api.claim.TrustTypes;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.internal.util.VecHelper;
 import com.griefdefender.permission.GDPermissionUser;
 import com.griefdefender.util.PlayerUtil;
@@ -52,6 +59,9 @@
 
 public class PlaceholderProvider {
 
+    // Placeholder values are reused for at most one server tick
+    private static final long SNAPSHOT_EXPIRATION_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
     public PlaceholderProvider() {
         if(Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null){
             new GDPlaceholderExpansion().register();
@@ -60,6 +70,9 @@ public PlaceholderProvider() {
 
     private class GDPlaceholderExpansion extends PlaceholderExpansion {
 
+        // Player UUID -> placeholder values resolved for the current tick
+        private final Cache<UUID, PlaceholderSnapshot> snapshots = Caffeine.newBuilder().expireAfterAccess(1, TimeUnit.MINUTES).build();
+
         public GDPlaceholderExpansion() {
             
         }
@@ -73,15 +86,106 @@ public String onPlaceholderRequest(Player player, String identifier){
         public String onRequest(OfflinePlayer offlinePlayer, String identifier) {
             final Player player = offlinePlayer instanceof Player ? (Player) offlinePlayer : null;
             final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(offlinePlayer);
-            GDPlayerData playerData = null;
-            Claim claim = null;
-            if (player != null) {
-                final World world = player.getWorld();
-                claim = GriefDefender.getCore().getClaimManager(world.getUID()).getClaimAt(VecHelper.toVector3i(player.getLocation()));
-                playerData = user.getInternalPlayerData();
-            } else {
-                playerData = user.getInternalPlayerData();
+            final GDPlayerData playerData = user.getInternalPlayerData();
+            final GDClaimManager claimManager = player == null ? null : GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(player.getWorld().getUID());
+            PlaceholderSnapshot snapshot = this.snapshots.getIfPresent(offlinePlayer.getUniqueId());
+            if (snapshot == null || !snapshot.isValid(player, playerData, claimManager)) {
+                snapshot = new PlaceholderSnapshot(player, user, playerData, claimManager);
+                this.snapshots.put(offlinePlayer.getUniqueId(), snapshot);
             }
+            return snapshot.get(identifier);
+        }
+
+        @Override
+        public boolean canRegister(){
+            return true;
+        }
+
+        @Override
+        public String getIdentifier() {
+            return GriefDefenderPlugin.MOD_ID.toLowerCase();
+        }
+
+        @Override
+        public String getVersion() {
+            return "0.1";
+        }
+
+        @Override
+        public String getAuthor(){
+            return GDBootstrap.getInstance().getDescription().getAuthors().toString();
+        }
+
+        /**
+         * Because this is an internal class,
+         * you must override this method to let PlaceholderAPI know to not unregister your expansion class when
+         * PlaceholderAPI is reloaded
+         *
+         * @return true to persist through reloads
+         */
+        @Override
+        public boolean persist(){
+            return true;
+        }
+    }
+
+    /**
+     * Placeholder values of a player, resolved on first request.
+     *
+     * <p>A snapshot is dropped after a tick, when claims in the player's
+     * world change or when the player's claim blocks are set.</p>
+     */
+    private static class PlaceholderSnapshot {
+
+        private final long createdNanos = System.nanoTime();
+        private final Player player;
+        private final GDPermissionUser user;
+        private final GDPlayerData playerData;
+        private final GDClaimManager claimManager;
+        private final int claimVersion;
+        private final int claimBlockVersion;
+        private final Claim claim;
+        private final Map<String, String> values = new ConcurrentHashMap<>();
+        private volatile List<Claim> playerClaims;
+
+        PlaceholderSnapshot(Player player, GDPermissionUser user, GDPlayerData playerData, GDClaimManager claimManager) {
+            this.player = player;
+            this.user = user;
+            this.playerData = playerData;
+            this.claimManager = claimManager;
+            this.claimVersion = claimManager == null ? 0 : claimManager.getClaimVersion();
+            this.claimBlockVersion = playerData == null ? 0 : playerData.getClaimBlockVersion();
+            this.claim = player == null ? null : claimManager.getClaimAt(VecHelper.toVector3i(player.getLocation()));
+        }
+
+        boolean isValid(Player player, GDPlayerData playerData, GDClaimManager claimManager) {
+            if (System.nanoTime() - this.createdNanos >= SNAPSHOT_EXPIRATION_NANOS) {
+                return false;
+            }
+            if (this.player != player || this.playerData != playerData || this.claimManager != claimManager) {
+                return false;
+            }
+            if (claimManager != null && claimManager.getClaimVersion() != this.claimVersion) {
+                return false;
+            }
+            return playerData == null || playerData.getClaimBlockVersion() == this.claimBlockVersion;
+        }
+
+        String get(String identifier) {
+            String value = this.values.get(identifier);
+            if (value == null) {
+                value = this.resolve(identifier);
+                if (value != null) {
+                    this.values.put(identifier, value);
+                }
+            }
+            return value;
+        }
+
+        private String resolve(String identifier) {
+            final Player player = this.player;
+            final GDPlayerData playerData = this.playerData;
+            final Claim claim = this.claim;
             switch (identifier) {
                 case "claim_admin" :
                     return this.getAdminClaimsInside(player, claim);
@@ -153,7 +257,7 @@ public String onRequest(OfflinePlayer offlinePlayer, String identifier) {
                     if (claim == null) {
                         return "";
                     }
-                    return String.valueOf(PlayerUtil.getInstance().canPlayerPvP((GDClaim) claim, user));
+                    return String.valueOf(PlayerUtil.getInstance().canPlayerPvP((GDClaim) claim, this.user));
                 case "blocks_total" :
                     final int initial = playerData.getInitialClaimBlocks();
                     final int accrued = playerData.getAccruedClaimBlocks();
@@ -170,36 +274,14 @@ public String onRequest(OfflinePlayer offlinePlayer, String identifier) {
             }
         }
 
-        @Override
-        public boolean canRegister(){
-            return true;
-        }
-
-        @Override
-        public String getIdentifier() {
-            return GriefDefenderPlugin.MOD_ID.toLowerCase();
-        }
-
-        @Override
-        public String getVersion() {
-            return "0.1";
-        }
-
-        @Override
-        public String getAuthor(){
-            return GDBootstrap.getInstance().getDescription().getAuthors().toString();
-        }
-
-        /**
-         * Because this is an internal class,
-         * you must override this method to let PlaceholderAPI know to not unregister your expansion class when
-         * PlaceholderAPI is reloaded
-         *
-         * @return true to persist through reloads
-         */
-        @Override
-        public boolean persist(){
-            return true;
+        // Shared by every claims placeholder of the snapshot
+        private List<Claim> getPlayerClaims(UUID playerUniqueId) {
+            List<Claim> playerClaims = this.playerClaims;
+            if (playerClaims == null) {
+                playerClaims = GriefDefender.getCore().getAllPlayerClaims(playerUniqueId);
+                this.playerClaims = playerClaims;
+            }
+            return playerClaims;
         }
 
         private String getAdminClaimsInside(Player player, Claim currentClaim) {
@@ -239,7 +321,7 @@ private String getPlayerClaimsInside(Player player, Claim currentClaim, ClaimTyp
             }
             int count = 0;
             if (currentClaim.isWilderness()) {
-                return String.valueOf(GriefDefender.getCore().getAllPlayerClaims(player.getUniqueId()).size());
+                return String.valueOf(this.getPlayerClaims(player.getUniqueId()).size());
             }
             for (Claim claim : currentClaim.getChildren(true)) {
                 if (claim.getType() == type) {
@@ -254,7 +336,7 @@ private String getAllPlayerClaims(GDPlayerData playerData, ClaimType type) {
                 return "0";
             }
             int count = 0;
-            final List<Claim> claimList = GriefDefender.getCore().getAllPlayerClaims(playerData.playerID);
+            final List<Claim> claimList = this.getPlayerClaims(playerData.playerID);
             for (Claim claim : claimList) {
                 if (claim.getType() == type) {
                     count++;
@@ -268,7 +350,7 @@ private String getAllTownChildrenClaims(GDPlayerData playerData, ClaimType subTy
                 return "0";
             }
             int count = 0;
-            final List<Claim> claimList = GriefDefender.getCore().getAllPlayerClaims(playerData.playerID);
+            final List<Claim> claimList = this.getPlayerClaims(playerData.playerID);
             for (Claim claim : claimList) {
                 if (!claim.isTown() && claim.isInTown() && claim.getType() == subType) {
                     count++;
@@ -45,11 +45,14 @@
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.claim.GDClaimResult;
+import com.griefdefender.configuration.ClaimDataConfig;
+import com.griefdefender.configuration.ClaimStorageData;
 import com.griefdefender.configuration.ClaimTemplateStorage;
 import com.griefdefender.configuration.FlagConfig;
 import com.griefdefender.configuration.GriefDefenderConfig;
 import com.griefdefender.configuration.MessageStorage;
 import com.griefdefender.configuration.OptionConfig;
+import com.griefdefender.configuration.TownStorageData;
 import com.griefdefender.configuration.type.ConfigBase;
 import com.griefdefender.configuration.type.GlobalConfig;
 import com.griefdefender.event.GDCauseStackManager;
@@ -74,6 +77,8 @@
 import org.bukkit.entity.Player;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -119,6 +124,32 @@ public void clearCachedPlayerData(UUID worldUniqueId, UUID playerUniqueId) {
 
     public abstract ClaimResult deleteClaimFromStorage(GDClaim claim);
 
+    // Creates the storage of a new claim, loading any data already stored for it
+    public ClaimStorageData createClaimStorage(Path path, UUID worldUniqueId, UUID ownerUniqueId, ClaimType type, boolean cuboid) {
+        if (type == ClaimTypes.TOWN) {
+            return new TownStorageData(path, worldUniqueId, ownerUniqueId, cuboid);
+        }
+        return new ClaimStorageData(path, worldUniqueId, ownerUniqueId, type, cuboid);
+    }
+
+    // Moves claim storage to a new location and binds it to the existing claim data
+    public ClaimStorageData moveClaimStorage(ClaimStorageData claimStorage, Path newPath, UUID worldUniqueId, ClaimDataConfig claimData) throws IOException {
+        if (Files.notExists(newPath.getParent())) {
+            Files.createDirectories(newPath.getParent());
+        }
+        claimStorage.flushPendingWrite();
+        Files.move(claimStorage.filePath, newPath);
+        final File[] remaining = claimStorage.folderPath.toFile().listFiles();
+        if (remaining != null && remaining.length == 0) {
+            Files.delete(claimStorage.folderPath);
+        }
+        return new ClaimStorageData(newPath, worldUniqueId, claimData);
+    }
+
+    // Called once on plugin disable after all claims have been saved
+    public void shutdown() {
+    }
+
     public Claim getClaim(UUID worldUniqueId, UUID id) {
         return this.getClaimWorldManager(worldUniqueId).getClaimByUUID(id).orElse(null);
     }
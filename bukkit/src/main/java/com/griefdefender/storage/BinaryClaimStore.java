@@ -0,0 +1,448 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.configuration.ClaimDataConfig;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only binary store holding every claim of a world in one file.
+ *
+ * <p>Each save appends a record and points the in-memory index at it, so a
+ * claim never needs its own file and moving a claim between parents is only
+ * a change of its logical path. Records carry a CRC32 and a torn or corrupt
+ * tail left by a crash is truncated on open. Space held by old records is
+ * reclaimed by compacting into a temporary file which is then moved over
+ * the store.</p>
+ */
+public class BinaryClaimStore implements ClaimRecordStore, Closeable {
+
+    public static final String FILE_NAME = "claims.gdb";
+
+    private static final int FILE_MAGIC = 0x47444342; // GDCB
+    private static final int FILE_VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_MAGIC = 0x47445243; // GDRC
+    // magic, op, uuid, payload length
+    private static final int RECORD_HEADER_SIZE = 4 + 1 + 16 + 4;
+    private static final int RECORD_TRAILER_SIZE = 4;
+    private static final byte OP_PUT = 1;
+    private static final byte OP_DELETE = 2;
+    private static final long MIN_COMPACT_GARBAGE = 1024 * 1024;
+
+    private static final byte NODE_NULL = 0;
+    private static final byte NODE_MAP = 1;
+    private static final byte NODE_LIST = 2;
+    private static final byte NODE_STRING = 3;
+    private static final byte NODE_BOOLEAN = 4;
+    private static final byte NODE_INT = 5;
+    private static final byte NODE_LONG = 6;
+    private static final byte NODE_DOUBLE = 7;
+    private static final byte NODE_FLOAT = 8;
+
+    private final Path path;
+    private FileChannel channel;
+    private long endPosition;
+    private long liveBytes;
+    // Claim UUID -> offset of its latest record
+    private final Object2LongOpenHashMap<UUID> offsets = new Object2LongOpenHashMap<>();
+    private final Object2IntOpenHashMap<UUID> lengths = new Object2IntOpenHashMap<>();
+
+    public BinaryClaimStore(Path path) throws IOException {
+        this.path = path;
+        this.offsets.defaultReturnValue(-1);
+        if (Files.notExists(path.getParent())) {
+            Files.createDirectories(path.getParent());
+        }
+        this.open();
+        if (this.shouldCompact()) {
+            this.compact();
+        }
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    @Override
+    public Path getClaimDataPath() {
+        return this.path.getParent();
+    }
+
+    public synchronized List<UUID> getClaimIds() {
+        return new ArrayList<>(this.offsets.keySet());
+    }
+
+    public synchronized boolean contains(UUID claimUniqueId) {
+        return this.offsets.containsKey(claimUniqueId);
+    }
+
+    public synchronized int size() {
+        return this.offsets.size();
+    }
+
+    @Override
+    public synchronized Record read(UUID claimUniqueId) throws IOException {
+        final long offset = this.offsets.getLong(claimUniqueId);
+        if (offset < 0) {
+            return null;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(this.lengths.getInt(claimUniqueId));
+        this.readFully(buffer, offset);
+        buffer.position(RECORD_HEADER_SIZE);
+        buffer.limit(buffer.capacity() - RECORD_TRAILER_SIZE);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array(), buffer.position(), buffer.remaining()));
+        final String relativePath = readString(in);
+        final CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        readNode(in, root);
+        return new Record(claimUniqueId, relativePath, root);
+    }
+
+    @Override
+    public synchronized void put(UUID claimUniqueId, String relativePath, ClaimDataConfig claimData, CommentedConfigurationNode root) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, relativePath);
+        writeNode(out, root);
+        out.flush();
+        this.append(OP_PUT, claimUniqueId, bytes.toByteArray());
+    }
+
+    @Override
+    public synchronized void delete(UUID claimUniqueId) throws IOException {
+        if (!this.offsets.containsKey(claimUniqueId)) {
+            return;
+        }
+        this.append(OP_DELETE, claimUniqueId, new byte[0]);
+    }
+
+    // Forces appended records to disk
+    public synchronized void sync() throws IOException {
+        this.channel.force(false);
+    }
+
+    /**
+     * Rewrites the store with only the latest record of each claim.
+     *
+     * <p>The live records are copied into a temporary file which is synced
+     * and moved over the store, so a crash leaves either the old or the new
+     * file intact.</p>
+     */
+    public synchronized void compact() throws IOException {
+        final Path tempPath = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        final Object2LongOpenHashMap<UUID> newOffsets = new Object2LongOpenHashMap<>();
+        newOffsets.defaultReturnValue(-1);
+        long position = HEADER_SIZE;
+        try (FileChannel out = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, this.createHeader(), 0);
+            for (Object2LongMap.Entry<UUID> entry : this.offsets.object2LongEntrySet()) {
+                final int length = this.lengths.getInt(entry.getKey());
+                final ByteBuffer buffer = ByteBuffer.allocate(length);
+                this.readFully(buffer, entry.getLongValue());
+                buffer.flip();
+                writeFully(out, buffer, position);
+                newOffsets.put(entry.getKey(), position);
+                position += length;
+            }
+            out.force(true);
+        }
+
+        this.channel.close();
+        try {
+            Files.move(tempPath, this.path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, this.path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        this.channel = FileChannel.open(this.path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.offsets.clear();
+        this.offsets.putAll(newOffsets);
+        this.endPosition = position;
+        this.liveBytes = position - HEADER_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.channel == null || !this.channel.isOpen()) {
+            return;
+        }
+        if (this.shouldCompact()) {
+            this.compact();
+        }
+        this.channel.force(true);
+        this.channel.close();
+    }
+
+    private void open() throws IOException {
+        this.channel = FileChannel.open(this.path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final long size = this.channel.size();
+        if (size == 0) {
+            writeFully(this.channel, this.createHeader(), 0);
+            this.channel.force(true);
+            this.endPosition = HEADER_SIZE;
+            return;
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        this.readFully(header, 0);
+        header.flip();
+        if (header.getInt() != FILE_MAGIC) {
+            throw new IOException(this.path + " is not a claim store.");
+        }
+        final int version = header.getInt();
+        if (version != FILE_VERSION) {
+            throw new IOException(this.path + " has unsupported version " + version + ".");
+        }
+
+        // Replay records, stopping at the first one that is incomplete or fails its checksum
+        long position = HEADER_SIZE;
+        final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        while (position + RECORD_HEADER_SIZE + RECORD_TRAILER_SIZE <= size) {
+            recordHeader.clear();
+            this.readFully(recordHeader, position);
+            recordHeader.flip();
+            if (recordHeader.getInt() != RECORD_MAGIC) {
+                break;
+            }
+            final byte op = recordHeader.get();
+            final UUID claimUniqueId = new UUID(recordHeader.getLong(), recordHeader.getLong());
+            final int payloadLength = recordHeader.getInt();
+            final long recordLength = (long) RECORD_HEADER_SIZE + payloadLength + RECORD_TRAILER_SIZE;
+            if (payloadLength < 0 || position + recordLength > size) {
+                break;
+            }
+            final ByteBuffer record = ByteBuffer.allocate((int) recordLength);
+            this.readFully(record, position);
+            final CRC32 crc = new CRC32();
+            crc.update(record.array(), 4, RECORD_HEADER_SIZE - 4 + payloadLength);
+            if ((int) crc.getValue() != record.getInt(RECORD_HEADER_SIZE + payloadLength)) {
+                break;
+            }
+            this.index(op, claimUniqueId, position, (int) recordLength);
+            position += recordLength;
+        }
+
+        if (position < size) {
+            GriefDefenderPlugin.getInstance().getLogger().warning("Discarding " + (size - position) + " bytes of incomplete data at the end of " + this.path + ".");
+            this.channel.truncate(position);
+            this.channel.force(true);
+        }
+        this.endPosition = position;
+    }
+
+    private void append(byte op, UUID claimUniqueId, byte[] payload) throws IOException {
+        final int recordLength = RECORD_HEADER_SIZE + payload.length + RECORD_TRAILER_SIZE;
+        final ByteBuffer record = ByteBuffer.allocate(recordLength);
+        record.putInt(RECORD_MAGIC);
+        record.put(op);
+        record.putLong(claimUniqueId.getMostSignificantBits());
+        record.putLong(claimUniqueId.getLeastSignificantBits());
+        record.putInt(payload.length);
+        record.put(payload);
+        final CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, RECORD_HEADER_SIZE - 4 + payload.length);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        final long position = this.endPosition;
+        writeFully(this.channel, record, position);
+        this.endPosition = position + recordLength;
+        this.index(op, claimUniqueId, position, recordLength);
+        if (this.shouldCompact()) {
+            this.compact();
+        }
+    }
+
+    private void index(byte op, UUID claimUniqueId, long position, int recordLength) {
+        if (this.offsets.containsKey(claimUniqueId)) {
+            this.liveBytes -= this.lengths.getInt(claimUniqueId);
+        }
+        if (op == OP_DELETE) {
+            this.offsets.removeLong(claimUniqueId);
+            this.lengths.removeInt(claimUniqueId);
+            return;
+        }
+        this.offsets.put(claimUniqueId, position);
+        this.lengths.put(claimUniqueId, recordLength);
+        this.liveBytes += recordLength;
+    }
+
+    private boolean shouldCompact() {
+        final long garbage = this.endPosition - HEADER_SIZE - this.liveBytes;
+        return garbage > MIN_COMPACT_GARBAGE && garbage > this.liveBytes;
+    }
+
+    private ByteBuffer createHeader() {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(FILE_MAGIC);
+        header.putInt(FILE_VERSION);
+        header.flip();
+        return header;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            final int read = this.channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of " + this.path + ".");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeNode(DataOutputStream out, ConfigurationNode node) throws IOException {
+        if (node.hasMapChildren()) {
+            final Map<Object, ? extends ConfigurationNode> children = node.getChildrenMap();
+            out.writeByte(NODE_MAP);
+            out.writeInt(children.size());
+            for (Map.Entry<Object, ? extends ConfigurationNode> child : children.entrySet()) {
+                writeString(out, child.getKey().toString());
+                writeNode(out, child.getValue());
+            }
+            return;
+        }
+        if (node.hasListChildren()) {
+            final List<? extends ConfigurationNode> children = node.getChildrenList();
+            out.writeByte(NODE_LIST);
+            out.writeInt(children.size());
+            for (ConfigurationNode child : children) {
+                writeNode(out, child);
+            }
+            return;
+        }
+
+        final Object value = node.getValue();
+        if (value == null) {
+            out.writeByte(NODE_NULL);
+        } else if (value instanceof Boolean) {
+            out.writeByte(NODE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(NODE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(NODE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(NODE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(NODE_FLOAT);
+            out.writeFloat((Float) value);
+        } else {
+            out.writeByte(NODE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    private static void readNode(DataInputStream in, ConfigurationNode node) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case NODE_MAP: {
+                final int size = in.readInt();
+                // Make sure empty maps stay maps
+                node.setValue(new LinkedHashMap<>());
+                for (int i = 0; i < size; i++) {
+                    readNode(in, node.getNode(readString(in)));
+                }
+                break;
+            }
+            case NODE_LIST: {
+                final int size = in.readInt();
+                node.setValue(new ArrayList<>());
+                for (int i = 0; i < size; i++) {
+                    readNode(in, node.getAppendedNode());
+                }
+                break;
+            }
+            case NODE_NULL:
+                break;
+            case NODE_BOOLEAN:
+                node.setValue(in.readBoolean());
+                break;
+            case NODE_INT:
+                node.setValue(in.readInt());
+                break;
+            case NODE_LONG:
+                node.setValue(in.readLong());
+                break;
+            case NODE_DOUBLE:
+                node.setValue(in.readDouble());
+                break;
+            case NODE_FLOAT:
+                node.setValue(in.readFloat());
+                break;
+            case NODE_STRING:
+                node.setValue(readString(in));
+                break;
+            default:
+                throw new IOException("Unknown node type " + type + ".");
+        }
+    }
+}
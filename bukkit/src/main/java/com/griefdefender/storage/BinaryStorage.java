@@ -0,0 +1,148 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.griefdefender.GriefDefenderPlugin;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stores the claims of each world in a single {@link BinaryClaimStore}.
+ *
+ * <p>Switching back to file storage exports the store to claim files.</p>
+ */
+public class BinaryStorage extends RecordStorage {
+
+    private final Map<UUID, BinaryClaimStore> stores = new HashMap<>();
+
+    @Override
+    void loadClaims(World world, Path claimDataPath) throws Exception {
+        final String worldName = world.getName().toLowerCase();
+        final BinaryClaimStore store = this.getStore(world.getUID());
+        if (this.importClaimFiles(world, store, store::contains) > 0) {
+            store.sync();
+        }
+
+        // Load wilderness claim first
+        this.loadWilderness(world, store.read(world.getUID()));
+
+        final List<ClaimRecordStore.Record> records = new ArrayList<>();
+        for (UUID claimUniqueId : store.getClaimIds()) {
+            if (!claimUniqueId.equals(world.getUID())) {
+                records.add(store.read(claimUniqueId));
+            }
+        }
+        if (!records.isEmpty()) {
+            this.registerClaims(this.parseClaims(records, record -> this.parseRecord(record, store, world), world), world);
+        }
+        GriefDefenderPlugin.getInstance().getLogger().info("[" + worldName + "] " + records.size() + " total claims loaded from " + store.getPath().getFileName() + ".");
+    }
+
+    @Override
+    BinaryClaimStore getStore(UUID worldUniqueId) {
+        BinaryClaimStore store = this.stores.get(worldUniqueId);
+        if (store == null) {
+            try {
+                store = new BinaryClaimStore(getClaimDataPath(worldUniqueId).resolve(BinaryClaimStore.FILE_NAME));
+            } catch (IOException e) {
+                throw new RuntimeException("Unable to open claim store for world " + worldUniqueId + ".", e);
+            }
+            this.stores.put(worldUniqueId, store);
+        }
+        return store;
+    }
+
+    @Override
+    public void unloadWorldData(World world) {
+        super.unloadWorldData(world);
+        final BinaryClaimStore store = this.stores.remove(world.getUID());
+        if (store != null) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        for (BinaryClaimStore store : this.stores.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                GriefDefenderPlugin.getInstance().getLogger().severe("Could not close " + store.getPath() + ".");
+                e.printStackTrace();
+            }
+        }
+        this.stores.clear();
+    }
+
+    /**
+     * Writes every claim in a store back to claim files and retires the store.
+     *
+     * @param storePath The store to export
+     * @param claimDataPath The ClaimData folder of the world
+     */
+    static void exportClaimStore(Path storePath, Path claimDataPath) throws IOException {
+        // Index existing claim files so stale copies at another location can be removed
+        final Map<UUID, Path> claimFiles = new HashMap<>();
+        try (Stream<Path> paths = Files.walk(claimDataPath)) {
+            paths.filter(Files::isRegularFile).forEach(path -> {
+                final UUID claimUniqueId = getClaimUniqueId(path);
+                if (claimUniqueId != null) {
+                    claimFiles.put(claimUniqueId, path);
+                }
+            });
+        }
+
+        try (BinaryClaimStore store = new BinaryClaimStore(storePath)) {
+            for (UUID claimUniqueId : store.getClaimIds()) {
+                final ClaimRecordStore.Record record = store.read(claimUniqueId);
+                final Path claimPath = claimDataPath.resolve(record.getRelativePath());
+                final Path existing = claimFiles.get(claimUniqueId);
+                if (existing != null && !existing.equals(claimPath)) {
+                    Files.delete(existing);
+                }
+                if (Files.notExists(claimPath.getParent())) {
+                    Files.createDirectories(claimPath.getParent());
+                }
+                HoconConfigurationLoader.builder().setPath(claimPath).build().save(record.getRoot());
+            }
+        }
+        Files.move(storePath, storePath.resolveSibling(BinaryClaimStore.FILE_NAME + ".exported"), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
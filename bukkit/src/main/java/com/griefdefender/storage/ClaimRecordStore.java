@@ -0,0 +1,91 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.griefdefender.configuration.ClaimDataConfig;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * A store keeping the claims of one world as records keyed by claim UUID.
+ */
+public interface ClaimRecordStore {
+
+    /**
+     * Gets the ClaimData folder of the world. Record paths are relative to it.
+     *
+     * @return The claim data path
+     */
+    Path getClaimDataPath();
+
+    /**
+     * Reads the latest record of a claim.
+     *
+     * @param claimUniqueId The claim UUID
+     * @return The record, or null if the claim is not stored
+     */
+    Record read(UUID claimUniqueId) throws IOException;
+
+    /**
+     * Stores a claim. The root node must not be modified by the store.
+     *
+     * @param claimUniqueId The claim UUID
+     * @param relativePath The claim path relative to {@link #getClaimDataPath()}
+     * @param claimData The claim data the root node was serialized from
+     * @param root The serialized claim
+     */
+    void put(UUID claimUniqueId, String relativePath, ClaimDataConfig claimData, CommentedConfigurationNode root) throws IOException;
+
+    void delete(UUID claimUniqueId) throws IOException;
+
+    final class Record {
+
+        private final UUID claimUniqueId;
+        private final String relativePath;
+        private final CommentedConfigurationNode root;
+
+        public Record(UUID claimUniqueId, String relativePath, CommentedConfigurationNode root) {
+            this.claimUniqueId = claimUniqueId;
+            this.relativePath = relativePath;
+            this.root = root;
+        }
+
+        public UUID getClaimUniqueId() {
+            return this.claimUniqueId;
+        }
+
+        // Path of the claim relative to the world's ClaimData folder
+        public String getRelativePath() {
+            return this.relativePath;
+        }
+
+        public CommentedConfigurationNode getRoot() {
+            return this.root;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.griefdefender.GriefDefenderPlugin;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+
+/**
+ * Writes claim files off the main thread.
+ *
+ * <p>Callers hand over a detached snapshot of the claim's config node. Only
+ * the latest snapshot of each file is kept, so repeated saves of the same
+ * claim before the write happens are coalesced into one. Files are written
+ * to a temporary file first and then moved over the original.</p>
+ */
+public class ClaimWriteQueue {
+
+    private final ExecutorService executor;
+    // Latest snapshot of each file waiting to be written
+    private final Map<Path, CommentedConfigurationNode> pending = new ConcurrentHashMap<>();
+    // Keeps writes of the same file in order when more than one thread is used
+    private final Striped<Lock> fileLocks = Striped.lock(64);
+
+    public ClaimWriteQueue(int threads) {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads),
+                new ThreadFactoryBuilder().setNameFormat("GriefDefender Claim Writer #%d").setDaemon(true).build());
+    }
+
+    public void write(Path path, CommentedConfigurationNode snapshot) {
+        if (this.pending.put(path, snapshot) == null) {
+            this.executor.execute(() -> this.writePending(path));
+        }
+    }
+
+    // Writes the pending snapshot now, used before a claim file is moved
+    public void flush(Path path) {
+        this.writePending(path);
+    }
+
+    // Drops any pending write and waits for one in progress, used before a claim file is deleted
+    public void discard(Path path) {
+        final Lock lock = this.fileLocks.get(path);
+        lock.lock();
+        try {
+            this.pending.remove(path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    // Stops accepting work and writes everything still queued
+    public void shutdown() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                GriefDefenderPlugin.getInstance().getLogger().warning("Timed out waiting for claim writes to finish.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Path path : this.pending.keySet()) {
+            this.writePending(path);
+        }
+    }
+
+    private void writePending(Path path) {
+        final Lock lock = this.fileLocks.get(path);
+        lock.lock();
+        try {
+            final CommentedConfigurationNode snapshot = this.pending.remove(path);
+            if (snapshot == null) {
+                return;
+            }
+            final Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            HoconConfigurationLoader.builder().setPath(tempPath).build().save(snapshot);
+            try {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            GriefDefenderPlugin.getInstance().getLogger().log(Level.SEVERE, "Failed to save claim file " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
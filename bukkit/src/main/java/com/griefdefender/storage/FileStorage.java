@@ -60,9 +60,19 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class FileStorage extends BaseStorage {
 
@@ -207,25 +217,9 @@ public void loadWorldData(World world) {
             claimWorldManager = this.claimWorldManagers.get(world.getUID());
         }
 
-        // Load wilderness claim first
-        final Path wildernessFilePath = newWorldDataPath.resolve("ClaimData").resolve("wilderness").resolve(world.getUID().toString());
-        if (Files.exists(wildernessFilePath)) {
-            try {
-                this.loadClaim(wildernessFilePath.toFile(), world, world.getUID());
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
-        } else {
-            claimWorldManager.createWildernessClaim(world);
-        }
-
         // Load Claim Data
         try {
-            File[] files = newWorldDataPath.resolve("ClaimData").toFile().listFiles();
-            if (files != null && files.length > 0) {
-                this.loadClaimData(files, world);
-                GriefDefenderPlugin.getInstance().getLogger().info("[" + worldName + "] " + this.claimLoadCount + " total claims loaded.");
-            }
+            this.loadClaims(world, newWorldDataPath.resolve("ClaimData"));
 
             if (GriefDefenderPlugin.getGlobalConfig().getConfig().playerdata.useWorldPlayerData()) {
                 // migrate player data
@@ -249,6 +243,36 @@ public void loadWorldData(World world) {
         this.claimLoadCount = 0;
     }
 
+    // Loads the wilderness claim followed by every other claim in the world
+    void loadClaims(World world, Path claimDataPath) throws Exception {
+        final String worldName = world.getName().toLowerCase();
+        final GDClaimManager claimWorldManager = this.claimWorldManagers.get(world.getUID());
+        final Path storePath = claimDataPath.resolve(BinaryClaimStore.FILE_NAME);
+        if (Files.exists(storePath)) {
+            // Storage was switched back from binary so claim files need to be brought up to date first
+            BinaryStorage.exportClaimStore(storePath, claimDataPath);
+            GriefDefenderPlugin.getInstance().getLogger().info("[" + worldName + "] Exported " + storePath + " to claim files.");
+        }
+
+        // Load wilderness claim first
+        final Path wildernessFilePath = claimDataPath.resolve("wilderness").resolve(world.getUID().toString());
+        if (Files.exists(wildernessFilePath)) {
+            try {
+                this.loadClaim(wildernessFilePath.toFile(), world, world.getUID());
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        } else {
+            claimWorldManager.createWildernessClaim(world);
+        }
+
+        File[] files = claimDataPath.toFile().listFiles();
+        if (files != null && files.length > 0) {
+            this.loadClaimData(files, world);
+            GriefDefenderPlugin.getInstance().getLogger().info("[" + worldName + "] " + this.claimLoadCount + " total claims loaded.");
+        }
+    }
+
     public void unloadWorldData(World world) {
         GDClaimManager claimWorldManager = this.getClaimWorldManager(world.getUID());
         for (Claim claim : claimWorldManager.getWorldClaims()) {
@@ -268,45 +292,159 @@ public void unloadWorldData(World world) {
     }
 
     void loadClaimData(File[] files, World world) throws Exception {
+        final List<File> claimFiles = new ArrayList<>();
+        this.collectClaimFiles(files, claimFiles);
+        this.registerClaims(this.parseClaims(claimFiles, file -> this.parseClaimFile(file, world), world), world);
+    }
+
+    // Phase 1: parse claims in parallel, nothing here may touch the claim manager
+    <T> List<PendingClaim> parseClaims(List<T> sources, Function<T, PendingClaim> parser, World world) throws Exception {
+        final long parseStart = System.nanoTime();
+        final int threads = Math.max(1, GriefDefenderPlugin.getGlobalConfig().getConfig().thread.numExecutorThreads);
+        final ClassLoader pluginClassLoader = GriefDefenderPlugin.class.getClassLoader();
+        final ForkJoinPool pool = new ForkJoinPool(threads, forkJoinPool -> {
+            // Worker threads default to the system class loader which cannot see relocated libraries
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("GriefDefender Claim Loader #" + thread.getPoolIndex());
+            thread.setContextClassLoader(pluginClassLoader);
+            return thread;
+        }, null, false);
+        final List<PendingClaim> parsed;
+        try {
+            parsed = pool.submit(() -> sources.parallelStream()
+                    .map(parser)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList())).get();
+        } finally {
+            pool.shutdown();
+        }
+        final long parseTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - parseStart);
+        GriefDefenderPlugin.getInstance().getLogger().info("[" + world.getName().toLowerCase() + "] Parsed " + parsed.size() + " claims in " + parseTime + " ms using " + threads + " threads.");
+        return parsed;
+    }
+
+    // Phase 2: register on the calling thread with parents ahead of their children
+    void registerClaims(List<PendingClaim> parsed, World world) {
+        final long registerStart = System.nanoTime();
+        final Map<UUID, PendingClaim> pending = new LinkedHashMap<>();
+        for (PendingClaim pendingClaim : parsed) {
+            pending.put(pendingClaim.claimId, pendingClaim);
+        }
+        for (PendingClaim pendingClaim : parsed) {
+            this.registerPendingClaim(pendingClaim, pending, world);
+        }
+        final long registerTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - registerStart);
+        GriefDefenderPlugin.getInstance().getLogger().info("[" + world.getName().toLowerCase() + "] Registered " + parsed.size() + " claims in " + registerTime + " ms.");
+    }
+
+    void collectClaimFiles(File[] files, List<File> claimFiles) {
         for (int i = 0; i < files.length; i++) {
             File file = files[i];
             if (file.isFile()) {
-                this.loadClaimFile(file, world);
+                claimFiles.add(file);
             }
         }
         for (int i = 0; i < files.length; i++) {
             File file = files[i];
             if (file.isDirectory()) {
-                this.loadClaimData(file.listFiles(), world);
+                final File[] children = file.listFiles();
+                if (children != null) {
+                    this.collectClaimFiles(children, claimFiles);
+                }
             }
         }
     }
 
-    void loadClaimFile(File file, World world) {
-        if (file.isFile())
-        {
-            // the filename is the claim ID. try to parse it
-            UUID claimId;
+    // Parses claim files that another backend does not hold yet so they can be imported into it
+    List<PendingClaim> parseUnstoredClaimFiles(World world, Path claimDataPath, Predicate<UUID> isStored) throws Exception {
+        final File[] files = claimDataPath.toFile().listFiles();
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        final List<File> claimFiles = new ArrayList<>();
+        this.collectClaimFiles(files, claimFiles);
+        claimFiles.removeIf(file -> {
+            final UUID claimUniqueId = getClaimUniqueId(file.toPath());
+            return claimUniqueId == null || isStored.test(claimUniqueId);
+        });
+        if (claimFiles.isEmpty()) {
+            return new ArrayList<>();
+        }
 
+        return this.parseClaims(claimFiles, file -> {
             try {
-                final String fileName = file.getName();
-                // UUID's should always be 36 in length
-                if (fileName.length() != 36) {
-                    return;
-                }
-
-                claimId = UUID.fromString(fileName);
+                return this.parseClaim(file, world, getClaimUniqueId(file.toPath()));
             } catch (Exception e) {
-                GriefDefenderPlugin.getInstance().getLogger().severe("Could not read claim file " + file.getAbsolutePath());
-                return;
+                GriefDefenderPlugin.getInstance().getLogger().severe(file.getAbsolutePath() + " could not be imported.");
+                e.printStackTrace();
             }
+            return null;
+        }, world);
+    }
 
-            try {
-               this.loadClaim(file, world, claimId);
-            } catch (Exception e) {
-                GriefDefenderPlugin.getInstance().getLogger().severe(file.getAbsolutePath() + " failed to load.");
-                e.printStackTrace();
+    static UUID getClaimUniqueId(Path path) {
+        final String fileName = path.getFileName().toString();
+        // UUID's should always be 36 in length
+        if (fileName.length() != 36) {
+            return null;
+        }
+        try {
+            return UUID.fromString(fileName);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private PendingClaim parseClaimFile(File file, World world) {
+        // the filename is the claim ID. try to parse it
+        UUID claimId;
+
+        try {
+            final String fileName = file.getName();
+            // UUID's should always be 36 in length
+            if (fileName.length() != 36) {
+                return null;
             }
+
+            claimId = UUID.fromString(fileName);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().severe("Could not read claim file " + file.getAbsolutePath());
+            return null;
+        }
+
+        // wilderness is loaded separately
+        if (world.getUID().equals(claimId)) {
+            return null;
+        }
+
+        try {
+            return this.parseClaim(file, world, claimId);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().severe(file.getAbsolutePath() + " failed to load.");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private void registerPendingClaim(PendingClaim pendingClaim, Map<UUID, PendingClaim> pending, World world) {
+        if (pendingClaim.registered) {
+            return;
+        }
+        // Mark early so a corrupted parent cycle cannot recurse forever
+        pendingClaim.registered = true;
+        final UUID parent = pendingClaim.claimStorage.getConfig().getParent().orElse(null);
+        if (parent != null) {
+            final PendingClaim pendingParent = pending.get(parent);
+            if (pendingParent != null) {
+                this.registerPendingClaim(pendingParent, pending, world);
+            }
+        }
+
+        try {
+            this.registerClaim(pendingClaim, world);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().severe(pendingClaim.claimFile.getAbsolutePath() + " failed to load.");
+            e.printStackTrace();
         }
     }
 
@@ -359,14 +497,17 @@ void loadPlayerData(World world, File[] files) throws Exception {
 
     public GDClaim loadClaim(File claimFile, World world, UUID claimId)
             throws Exception {
-        GDClaim claim;
-
         final GDClaimManager claimManager = this.getClaimWorldManager(world.getUID());
         if (claimManager.getWildernessClaim() != null && claimManager.getWildernessClaim().getUniqueId().equals(claimId)) {
             return null;
         }
+
+        return this.registerClaim(this.parseClaim(claimFile, world, claimId), world);
+    }
+
+    // Reads and validates a claim file. Safe to call off the main thread.
+    PendingClaim parseClaim(File claimFile, World world, UUID claimId) throws Exception {
         boolean isTown = claimFile.toPath().getParent().endsWith("town");
-        boolean writeToStorage = false;
         ClaimStorageData claimStorage = null;
         if (isTown) {
             claimStorage = new TownStorageData(claimFile.toPath(), world.getUID());
@@ -375,12 +516,7 @@ public GDClaim loadClaim(File claimFile, World world, UUID claimId)
         }
 
         final ClaimType type = claimStorage.getConfig().getType();
-        final UUID parent = claimStorage.getConfig().getParent().orElse(null);
         final String fileName = claimFile.getName();
-        /*final World world = Sponge.getServer().loadWorld(worldProperties).orElse(null);
-        if (world == null) {
-            throw new Exception("World [Name: " + worldProperties.getWorldName() + "][UUID: " + world.getUID().toString() + "] is not loaded.");
-        }*/
 
         if (claimFile.getParentFile().getName().equalsIgnoreCase("claimdata")) {
             final Path newPath = claimStorage.filePath.getParent().resolve(type.getName().toLowerCase());
@@ -392,6 +528,13 @@ public GDClaim loadClaim(File claimFile, World world, UUID claimId)
             claimStorage = new ClaimStorageData(claimStorage.filePath, world.getUID());
         }
 
+        return this.validateClaim(claimStorage, claimFile, world, claimId);
+    }
+
+    // Checks parsed claim data before it is registered. Safe to call off the main thread.
+    PendingClaim validateClaim(ClaimStorageData claimStorage, File claimFile, World world, UUID claimId) throws Exception {
+        boolean writeToStorage = false;
+        final ClaimType type = claimStorage.getConfig().getType();
         // identify world the claim is in
         UUID worldUniqueId = claimStorage.getConfig().getWorldUniqueId();
         if (!world.getUID().equals(worldUniqueId)) {
@@ -401,16 +544,25 @@ public GDClaim loadClaim(File claimFile, World world, UUID claimId)
         }
 
         // boundaries
-        final boolean cuboid = claimStorage.getConfig().isCuboid();
-        Vector3i lesserCorner = claimStorage.getConfig().getLesserBoundaryCornerPos();
-        Vector3i greaterCorner = claimStorage.getConfig().getGreaterBoundaryCornerPos();
-        if (lesserCorner == null || greaterCorner == null) {
+        if (claimStorage.getConfig().getLesserBoundaryCornerPos() == null || claimStorage.getConfig().getGreaterBoundaryCornerPos() == null) {
             throw new Exception("Claim file '" + claimFile.getName() + "' has corrupted data and cannot be loaded. Skipping...");
         }
 
-        UUID ownerID = claimStorage.getConfig().getOwnerUniqueId();
+        return new PendingClaim(claimFile, claimId, claimStorage, writeToStorage);
+    }
+
+    // Creates the claim from parsed storage and adds it to the claim manager. Must run on the main thread.
+    GDClaim registerClaim(PendingClaim pendingClaim, World world) throws Exception {
+        final GDClaimManager claimManager = this.getClaimWorldManager(world.getUID());
+        final File claimFile = pendingClaim.claimFile;
+        final ClaimStorageData claimStorage = pendingClaim.claimStorage;
+        final UUID parent = claimStorage.getConfig().getParent().orElse(null);
+        final boolean cuboid = claimStorage.getConfig().isCuboid();
+        final Vector3i lesserCorner = claimStorage.getConfig().getLesserBoundaryCornerPos();
+        final Vector3i greaterCorner = claimStorage.getConfig().getGreaterBoundaryCornerPos();
+        final UUID ownerID = claimStorage.getConfig().getOwnerUniqueId();
 
-        claim = new GDClaim(world, lesserCorner, greaterCorner, claimId, claimStorage.getConfig().getType(), ownerID, cuboid);
+        final GDClaim claim = new GDClaim(world, lesserCorner, greaterCorner, pendingClaim.claimId, claimStorage.getConfig().getType(), ownerID, cuboid);
         claim.setClaimStorage(claimStorage);
         claim.setClaimData(claimStorage.getConfig());
         GDLoadClaimEvent.Pre preEvent = new GDLoadClaimEvent.Pre(claim);
@@ -430,13 +582,29 @@ public GDClaim loadClaim(File claimFile, World world, UUID claimId)
             claim.parent = parentClaim;
         }
 
-        claimManager.addClaim(claim, writeToStorage);
+        claimManager.addClaim(claim, pendingClaim.writeToStorage);
         this.claimLoadCount++;
         GDLoadClaimEvent.Post postEvent = new GDLoadClaimEvent.Post(claim);
         GriefDefender.getEventManager().post(postEvent);
         return claim;
     }
 
+    static final class PendingClaim {
+
+        final File claimFile;
+        final UUID claimId;
+        final ClaimStorageData claimStorage;
+        final boolean writeToStorage;
+        boolean registered;
+
+        PendingClaim(File claimFile, UUID claimId, ClaimStorageData claimStorage, boolean writeToStorage) {
+            this.claimFile = claimFile;
+            this.claimId = claimId;
+            this.claimStorage = claimStorage;
+            this.writeToStorage = writeToStorage;
+        }
+    }
+
     @Override
     public ClaimResult writeClaimToStorage(GDClaim claim) {
         try {
@@ -456,9 +624,7 @@ public ClaimResult writeClaimToStorage(GDClaim claim) {
     public ClaimResult deleteClaimFromStorage(GDClaim claim) {
         final GDPlayerData ownerData = claim.getOwnerPlayerData();
         try {
-            if (claim.getClaimStorage().filePath.toFile().exists()) {
-                Files.delete(claim.getClaimStorage().filePath);
-            }
+            this.deleteClaimData(claim);
             if (GriefDefenderPlugin.getInstance().getWorldEditProvider() != null) {
                 final Path schematicPath = GriefDefenderPlugin.getInstance().getWorldEditProvider().getSchematicWorldMap().get(claim.getWorldUniqueId());
                 if (schematicPath != null && Files.exists(schematicPath.resolve(claim.getUniqueId().toString()))) {
@@ -485,6 +651,13 @@ public ClaimResult deleteClaimFromStorage(GDClaim claim) {
         return new GDClaimResult(claim, ClaimResultType.FAILURE);
     }
 
+    void deleteClaimData(GDClaim claim) throws IOException {
+        claim.getClaimStorage().discardPendingWrite();
+        if (claim.getClaimStorage().filePath.toFile().exists()) {
+            Files.delete(claim.getClaimStorage().filePath);
+        }
+    }
+
     @Override
     GDPlayerData getPlayerDataFromStorage(UUID playerID) {
         return null;
@@ -0,0 +1,118 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.griefdefender.GriefDefenderPlugin;
+import com.griefdefender.api.claim.ClaimType;
+import com.griefdefender.claim.GDClaim;
+import com.griefdefender.configuration.ClaimDataConfig;
+import com.griefdefender.configuration.ClaimStorageData;
+import com.griefdefender.configuration.RecordClaimStorageData;
+import org.bukkit.World;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Base for storage backends keeping claims in a {@link ClaimRecordStore}
+ * per world instead of one file per claim.
+ *
+ * <p>World configs, migrators, templates and schematics are handled the same
+ * way as {@link FileStorage}. Claim files found in ClaimData that are not in
+ * the store yet are imported on load.</p>
+ */
+public abstract class RecordStorage extends FileStorage {
+
+    abstract ClaimRecordStore getStore(UUID worldUniqueId);
+
+    static Path getClaimDataPath(UUID worldUniqueId) {
+        return BaseStorage.worldConfigMap.get(worldUniqueId).getPath().getParent().resolve("ClaimData");
+    }
+
+    // Registers the stored wilderness claim, or creates one if there is none
+    void loadWilderness(World world, ClaimRecordStore.Record wildernessRecord) {
+        final PendingClaim wilderness = wildernessRecord == null ? null : this.parseRecord(wildernessRecord, this.getStore(world.getUID()), world);
+        if (wilderness != null) {
+            try {
+                this.registerClaim(wilderness, world);
+                return;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+        this.getClaimWorldManager(world.getUID()).createWildernessClaim(world);
+    }
+
+    PendingClaim parseRecord(ClaimRecordStore.Record record, ClaimRecordStore store, World world) {
+        final Path claimPath = store.getClaimDataPath().resolve(record.getRelativePath());
+        try {
+            final ClaimStorageData claimStorage = new RecordClaimStorageData(store, claimPath, world.getUID(), record.getRoot());
+            return this.validateClaim(claimStorage, claimPath.toFile(), world, record.getClaimUniqueId());
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().severe(claimPath + " failed to load.");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Brings claim files that are not in the store yet, such as the ones written by migrators, into the store
+    int importClaimFiles(World world, ClaimRecordStore store, Predicate<UUID> isStored) throws Exception {
+        final List<PendingClaim> imported = this.parseUnstoredClaimFiles(world, store.getClaimDataPath(), isStored);
+        for (PendingClaim pendingClaim : imported) {
+            final ClaimStorageData fileStorage = pendingClaim.claimStorage;
+            new RecordClaimStorageData(store, fileStorage.filePath, world.getUID(), fileStorage.getConfig()).save();
+        }
+        if (!imported.isEmpty()) {
+            GriefDefenderPlugin.getInstance().getLogger().info("[" + world.getName().toLowerCase() + "] Imported " + imported.size() + " claim files.");
+        }
+        return imported.size();
+    }
+
+    @Override
+    public ClaimStorageData createClaimStorage(Path path, UUID worldUniqueId, UUID ownerUniqueId, ClaimType type, boolean cuboid) {
+        return new RecordClaimStorageData(this.getStore(worldUniqueId), path, worldUniqueId, ownerUniqueId, type, cuboid);
+    }
+
+    @Override
+    public ClaimStorageData moveClaimStorage(ClaimStorageData claimStorage, Path newPath, UUID worldUniqueId, ClaimDataConfig claimData) throws IOException {
+        // Only the logical path changes so this is a single record write
+        final ClaimStorageData movedStorage = new RecordClaimStorageData(this.getStore(worldUniqueId), newPath, worldUniqueId, claimData);
+        movedStorage.save();
+        // The store is authoritative now, drop any claim file left at the old location
+        Files.deleteIfExists(claimStorage.filePath);
+        return movedStorage;
+    }
+
+    @Override
+    void deleteClaimData(GDClaim claim) throws IOException {
+        this.getStore(claim.getWorldUniqueId()).delete(claim.getUniqueId());
+        // Remove any claim file left from before the switch so it is not imported again
+        Files.deleteIfExists(claim.getClaimStorage().filePath);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.griefdefender.configuration.ClaimDataConfig;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The claims of one world in a {@link SqlDatabase}.
+ */
+public class SqlClaimStore implements ClaimRecordStore {
+
+    private final SqlDatabase database;
+    private final UUID worldUniqueId;
+    private final Path claimDataPath;
+
+    public SqlClaimStore(SqlDatabase database, UUID worldUniqueId, Path claimDataPath) {
+        this.database = database;
+        this.worldUniqueId = worldUniqueId;
+        this.claimDataPath = claimDataPath;
+    }
+
+    @Override
+    public Path getClaimDataPath() {
+        return this.claimDataPath;
+    }
+
+    @Override
+    public Record read(UUID claimUniqueId) throws IOException {
+        return this.database.readClaim(claimUniqueId);
+    }
+
+    @Override
+    public void put(UUID claimUniqueId, String relativePath, ClaimDataConfig claimData, CommentedConfigurationNode root) throws IOException {
+        final List<SqlDatabase.TrustRow> trusts = new ArrayList<>();
+        addUserTrusts(trusts, "accessor", claimData.getAccessors());
+        addUserTrusts(trusts, "builder", claimData.getBuilders());
+        addUserTrusts(trusts, "container", claimData.getContainers());
+        addUserTrusts(trusts, "manager", claimData.getManagers());
+        addGroupTrusts(trusts, "accessor", claimData.getAccessorGroups());
+        addGroupTrusts(trusts, "builder", claimData.getBuilderGroups());
+        addGroupTrusts(trusts, "container", claimData.getContainerGroups());
+        addGroupTrusts(trusts, "manager", claimData.getManagerGroups());
+        // The node is copied as rendering happens on the writer thread
+        this.database.queueClaim(claimUniqueId, new SqlDatabase.ClaimRow(this.worldUniqueId, claimData.getParent().orElse(null), claimData.getOwnerUniqueId(),
+                claimData.getType().getName().toLowerCase(), relativePath, root.copy(), trusts));
+    }
+
+    @Override
+    public void delete(UUID claimUniqueId) {
+        this.database.queueDelete(claimUniqueId);
+    }
+
+    private static void addUserTrusts(List<SqlDatabase.TrustRow> trusts, String trustType, List<UUID> users) {
+        for (UUID user : users) {
+            trusts.add(new SqlDatabase.TrustRow(trustType, user.toString(), false));
+        }
+    }
+
+    private static void addGroupTrusts(List<SqlDatabase.TrustRow> trusts, String trustType, List<String> groups) {
+        for (String group : groups) {
+            trusts.add(new SqlDatabase.TrustRow(trustType, group, true));
+        }
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JDBC access for {@link SqlStorage}.
+ *
+ * <p>Claim and player writes are queued and written by a single thread in
+ * batches, one transaction per batch. Only the latest queued write of a
+ * claim is kept. Reads check the queue and the batch being written first
+ * so callers always see their own writes. A failed batch is queued again
+ * and retried with a growing delay.</p>
+ */
+public class SqlDatabase implements Closeable {
+
+    // Player rows written with global player storage use this in place of a world UUID
+    public static final String GLOBAL_WORLD = "global";
+
+    private static final String INSERT_CLAIM = "INSERT INTO gd_claims (claim_id, world_id, parent_id, owner_id, claim_type, path, data) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_CLAIM = "DELETE FROM gd_claims WHERE claim_id = ?";
+    private static final String INSERT_TRUST = "INSERT INTO gd_claim_trusts (claim_id, trust_type, subject, is_group) VALUES (?, ?, ?, ?)";
+    private static final String DELETE_TRUSTS = "DELETE FROM gd_claim_trusts WHERE claim_id = ?";
+    private static final String INSERT_PLAYER = "INSERT INTO gd_players (player_id, world_id, accrued_blocks, bonus_blocks, last_seen) VALUES (?, ?, ?, ?, ?)";
+    private static final String DELETE_PLAYER = "DELETE FROM gd_players WHERE player_id = ? AND world_id = ?";
+    private static final String SELECT_CLAIM = "SELECT path, data FROM gd_claims WHERE claim_id = ?";
+    private static final String SELECT_WORLD_CLAIM_IDS = "SELECT claim_id FROM gd_claims WHERE world_id = ?";
+
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Logger logger;
+    private final Connection connection;
+    private final ScheduledThreadPoolExecutor writer;
+    private final Object queueLock = new Object();
+    // Latest queued write of each claim, null marks a delete
+    private final Map<UUID, ClaimRow> queuedClaims = new LinkedHashMap<>();
+    // Claims taken by the running flush, kept visible to reads until committed
+    private final Map<UUID, ClaimRow> flushingClaims = new HashMap<>();
+    private final Map<String, PlayerRow> queuedPlayers = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    // Failed flushes in a row, used for the retry delay
+    private int failedFlushes;
+
+    public SqlDatabase(String url, Logger logger) throws SQLException {
+        this.logger = logger;
+        loadDriver(url);
+        this.connection = DriverManager.getConnection(url);
+        this.connection.setAutoCommit(false);
+        this.createSchema();
+        this.writer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("GriefDefender SQL Writer").setDaemon(true).build());
+        // A pending retry must not hold up close, which flushes on its own
+        this.writer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    private static void loadDriver(String url) {
+        // Plugin class loaders are not scanned by DriverManager so bundled drivers are loaded by name
+        final String driver;
+        if (url.startsWith("jdbc:sqlite:")) {
+            driver = "org.sqlite.JDBC";
+        } else if (url.startsWith("jdbc:h2:")) {
+            driver = "org.h2.Driver";
+        } else if (url.startsWith("jdbc:mysql:")) {
+            driver = "com.mysql.jdbc.Driver";
+        } else {
+            return;
+        }
+        try {
+            Class.forName(driver);
+        } catch (ClassNotFoundException e) {
+            // DriverManager may still find one
+        }
+    }
+
+    private void createSchema() throws SQLException {
+        final DatabaseMetaData metaData = this.connection.getMetaData();
+        try (Statement statement = this.connection.createStatement()) {
+            if (!tableExists(metaData, "gd_claims")) {
+                statement.executeUpdate("CREATE TABLE gd_claims (claim_id VARCHAR(36) NOT NULL PRIMARY KEY, world_id VARCHAR(36) NOT NULL,"
+                        + " parent_id VARCHAR(36), owner_id VARCHAR(36), claim_type VARCHAR(32) NOT NULL, path VARCHAR(255) NOT NULL, data TEXT NOT NULL)");
+                statement.executeUpdate("CREATE INDEX gd_claims_world ON gd_claims (world_id)");
+                statement.executeUpdate("CREATE INDEX gd_claims_owner ON gd_claims (owner_id)");
+                statement.executeUpdate("CREATE INDEX gd_claims_parent ON gd_claims (parent_id)");
+            }
+            if (!tableExists(metaData, "gd_claim_trusts")) {
+                statement.executeUpdate("CREATE TABLE gd_claim_trusts (claim_id VARCHAR(36) NOT NULL, trust_type VARCHAR(16) NOT NULL,"
+                        + " subject VARCHAR(64) NOT NULL, is_group INT NOT NULL)");
+                statement.executeUpdate("CREATE INDEX gd_claim_trusts_claim ON gd_claim_trusts (claim_id)");
+                statement.executeUpdate("CREATE INDEX gd_claim_trusts_subject ON gd_claim_trusts (subject)");
+            }
+            if (!tableExists(metaData, "gd_players")) {
+                statement.executeUpdate("CREATE TABLE gd_players (player_id VARCHAR(36) NOT NULL, world_id VARCHAR(36) NOT NULL,"
+                        + " accrued_blocks INT NOT NULL, bonus_blocks INT NOT NULL, last_seen BIGINT NOT NULL, PRIMARY KEY (player_id, world_id))");
+            }
+        }
+        this.connection.commit();
+    }
+
+    private static boolean tableExists(DatabaseMetaData metaData, String table) throws SQLException {
+        // Some databases report table names in upper case
+        for (String name : new String[] {table, table.toUpperCase()}) {
+            try (ResultSet tables = metaData.getTables(null, null, name, null)) {
+                if (tables.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public void queueClaim(UUID claimUniqueId, ClaimRow row) {
+        synchronized (this.queueLock) {
+            this.queuedClaims.put(claimUniqueId, row);
+            this.scheduleFlush();
+        }
+    }
+
+    public void queueDelete(UUID claimUniqueId) {
+        this.queueClaim(claimUniqueId, null);
+    }
+
+    public void queuePlayer(UUID playerUniqueId, String worldId, int accruedBlocks, int bonusBlocks, long lastSeen) {
+        synchronized (this.queueLock) {
+            this.queuedPlayers.put(playerUniqueId + ":" + worldId, new PlayerRow(playerUniqueId, worldId, accruedBlocks, bonusBlocks, lastSeen));
+            this.scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (!this.flushScheduled) {
+            this.flushScheduled = true;
+            this.writer.execute(this::flush);
+        }
+    }
+
+    private void scheduleRetry() {
+        if (this.flushScheduled || this.writer.isShutdown()) {
+            return;
+        }
+        final long delay = Math.min(RETRY_DELAY_MILLIS << Math.min(this.failedFlushes - 1, 16), MAX_RETRY_DELAY_MILLIS);
+        this.flushScheduled = true;
+        this.writer.schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes everything queued so far. Called by the writer thread and by
+     * readers that need queued writes to be visible to a query.
+     */
+    public synchronized void flush() {
+        final List<Map.Entry<UUID, ClaimRow>> claims;
+        final List<PlayerRow> players;
+        synchronized (this.queueLock) {
+            this.flushScheduled = false;
+            if (this.queuedClaims.isEmpty() && this.queuedPlayers.isEmpty()) {
+                return;
+            }
+            this.flushingClaims.putAll(this.queuedClaims);
+            claims = new ArrayList<>(new LinkedHashMap<>(this.queuedClaims).entrySet());
+            players = new ArrayList<>(this.queuedPlayers.values());
+            this.queuedClaims.clear();
+            this.queuedPlayers.clear();
+        }
+
+        boolean committed = false;
+        try (PreparedStatement deleteClaim = this.connection.prepareStatement(DELETE_CLAIM);
+                PreparedStatement deleteTrusts = this.connection.prepareStatement(DELETE_TRUSTS);
+                PreparedStatement insertClaim = this.connection.prepareStatement(INSERT_CLAIM);
+                PreparedStatement insertTrust = this.connection.prepareStatement(INSERT_TRUST);
+                PreparedStatement deletePlayer = this.connection.prepareStatement(DELETE_PLAYER);
+                PreparedStatement insertPlayer = this.connection.prepareStatement(INSERT_PLAYER)) {
+            for (Map.Entry<UUID, ClaimRow> entry : claims) {
+                final String claimId = entry.getKey().toString();
+                deleteClaim.setString(1, claimId);
+                deleteClaim.addBatch();
+                deleteTrusts.setString(1, claimId);
+                deleteTrusts.addBatch();
+                final ClaimRow row = entry.getValue();
+                if (row == null) {
+                    continue;
+                }
+                insertClaim.setString(1, claimId);
+                insertClaim.setString(2, row.worldUniqueId.toString());
+                insertClaim.setString(3, row.parentUniqueId == null ? null : row.parentUniqueId.toString());
+                insertClaim.setString(4, row.ownerUniqueId == null ? null : row.ownerUniqueId.toString());
+                insertClaim.setString(5, row.type);
+                insertClaim.setString(6, row.relativePath);
+                insertClaim.setString(7, render(row.root));
+                insertClaim.addBatch();
+                for (TrustRow trust : row.trusts) {
+                    insertTrust.setString(1, claimId);
+                    insertTrust.setString(2, trust.trustType);
+                    insertTrust.setString(3, trust.subject);
+                    insertTrust.setInt(4, trust.group ? 1 : 0);
+                    insertTrust.addBatch();
+                }
+            }
+            for (PlayerRow row : players) {
+                deletePlayer.setString(1, row.playerUniqueId.toString());
+                deletePlayer.setString(2, row.worldId);
+                deletePlayer.addBatch();
+                insertPlayer.setString(1, row.playerUniqueId.toString());
+                insertPlayer.setString(2, row.worldId);
+                insertPlayer.setInt(3, row.accruedBlocks);
+                insertPlayer.setInt(4, row.bonusBlocks);
+                insertPlayer.setLong(5, row.lastSeen);
+                insertPlayer.addBatch();
+            }
+            deleteClaim.executeBatch();
+            deleteTrusts.executeBatch();
+            insertClaim.executeBatch();
+            insertTrust.executeBatch();
+            deletePlayer.executeBatch();
+            insertPlayer.executeBatch();
+            this.connection.commit();
+            committed = true;
+        } catch (Exception e) {
+            // Rendering a row can fail with more than SQL and IO errors
+            this.logger.log(Level.SEVERE, "Failed to write " + claims.size() + " claims and " + players.size() + " players to the database", e);
+            try {
+                this.connection.rollback();
+            } catch (SQLException e1) {
+                e1.printStackTrace();
+            }
+        } finally {
+            synchronized (this.queueLock) {
+                if (committed) {
+                    this.failedFlushes = 0;
+                } else {
+                    // Keep failed writes for the next flush unless a newer write replaced them
+                    for (Map.Entry<UUID, ClaimRow> entry : claims) {
+                        if (!this.queuedClaims.containsKey(entry.getKey())) {
+                            this.queuedClaims.put(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    for (PlayerRow row : players) {
+                        this.queuedPlayers.putIfAbsent(row.playerUniqueId + ":" + row.worldId, row);
+                    }
+                    this.failedFlushes++;
+                    this.scheduleRetry();
+                }
+                this.flushingClaims.clear();
+            }
+        }
+    }
+
+    public ClaimRecordStore.Record readClaim(UUID claimUniqueId) throws IOException {
+        synchronized (this.queueLock) {
+            final Map<UUID, ClaimRow> pending = this.queuedClaims.containsKey(claimUniqueId) ? this.queuedClaims
+                    : this.flushingClaims.containsKey(claimUniqueId) ? this.flushingClaims : null;
+            if (pending != null) {
+                final ClaimRow row = pending.get(claimUniqueId);
+                return row == null ? null : new ClaimRecordStore.Record(claimUniqueId, row.relativePath, row.root.copy());
+            }
+        }
+        final String data;
+        final String relativePath;
+        synchronized (this) {
+            try (PreparedStatement statement = this.connection.prepareStatement(SELECT_CLAIM)) {
+                statement.setString(1, claimUniqueId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    if (!result.next()) {
+                        return null;
+                    }
+                    relativePath = result.getString(1);
+                    data = result.getString(2);
+                }
+            } catch (SQLException e) {
+                throw new IOException(e);
+            }
+        }
+        return new ClaimRecordStore.Record(claimUniqueId, relativePath, parse(data));
+    }
+
+    // Only ids are listed, claim documents are read with readClaim by whoever parses them
+    public List<UUID> loadWorldClaimIds(UUID worldUniqueId) throws SQLException {
+        this.flush();
+        final List<UUID> claimIds = new ArrayList<>();
+        synchronized (this) {
+            try (PreparedStatement statement = this.connection.prepareStatement(SELECT_WORLD_CLAIM_IDS)) {
+                statement.setString(1, worldUniqueId.toString());
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        claimIds.add(UUID.fromString(result.getString(1)));
+                    }
+                }
+            }
+        }
+        return claimIds;
+    }
+
+    @Override
+    public void close() {
+        this.writer.shutdown();
+        try {
+            this.writer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.flush();
+        synchronized (this) {
+            try {
+                this.connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    static String render(CommentedConfigurationNode root) throws IOException {
+        final StringWriter writer = new StringWriter();
+        HoconConfigurationLoader.builder().setSink(() -> new BufferedWriter(writer)).build().save(root);
+        return writer.toString();
+    }
+
+    static CommentedConfigurationNode parse(String data) throws IOException {
+        return HoconConfigurationLoader.builder().setSource(() -> new BufferedReader(new StringReader(data))).build().load();
+    }
+
+    public static final class ClaimRow {
+
+        final UUID worldUniqueId;
+        final UUID parentUniqueId;
+        final UUID ownerUniqueId;
+        final String type;
+        final String relativePath;
+        final CommentedConfigurationNode root;
+        final List<TrustRow> trusts;
+
+        ClaimRow(UUID worldUniqueId, UUID parentUniqueId, UUID ownerUniqueId, String type, String relativePath, CommentedConfigurationNode root, List<TrustRow> trusts) {
+            this.worldUniqueId = worldUniqueId;
+            this.parentUniqueId = parentUniqueId;
+            this.ownerUniqueId = ownerUniqueId;
+            this.type = type;
+            this.relativePath = relativePath;
+            this.root = root;
+            this.trusts = trusts;
+        }
+    }
+
+    public static final class TrustRow {
+
+        final String trustType;
+        // Player UUID or group name
+        final String subject;
+        final boolean group;
+
+        TrustRow(String trustType, String subject, boolean group) {
+            this.trustType = trustType;
+            this.subject = subject;
+            this.group = group;
+        }
+    }
+
+    private static final class PlayerRow {
+
+        final UUID playerUniqueId;
+        final String worldId;
+        final int accruedBlocks;
+        final int bonusBlocks;
+        final long lastSeen;
+
+        PlayerRow(UUID playerUniqueId, String worldId, int accruedBlocks, int bonusBlocks, long lastSeen) {
+            this.playerUniqueId = playerUniqueId;
+            this.worldId = worldId;
+            this.accruedBlocks = accruedBlocks;
+            this.bonusBlocks = bonusBlocks;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
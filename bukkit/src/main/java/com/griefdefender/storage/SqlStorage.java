@@ -0,0 +1,125 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import com.griefdefender.GDPlayerData;
+import com.griefdefender.GriefDefenderPlugin;
+import org.bukkit.World;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Stores claims, trusts and player claim blocks in a SQL database.
+ *
+ * <p>An embedded SQLite database in the GriefDefender config folder is used
+ * unless a JDBC url is configured, which lets several servers share one
+ * database. World loads only list claim ids, each claim document is read
+ * and parsed by a loader thread. Owner lookups use the indexed owner column.</p>
+ */
+public class SqlStorage extends RecordStorage {
+
+    private final Map<UUID, SqlClaimStore> stores = new HashMap<>();
+    private SqlDatabase database;
+
+    @Override
+    public void initialize() throws Exception {
+        String url = GriefDefenderPlugin.getGlobalConfig().getConfig().storage.jdbcUrl;
+        if (url == null || url.isEmpty()) {
+            url = "jdbc:sqlite:" + BaseStorage.dataLayerFolderPath.resolve("claims.db").toAbsolutePath();
+        }
+        this.database = new SqlDatabase(url, GriefDefenderPlugin.getInstance().getLogger());
+        super.initialize();
+    }
+
+    @Override
+    void loadClaims(World world, Path claimDataPath) throws Exception {
+        final String worldName = world.getName().toLowerCase();
+        final SqlClaimStore store = this.getStore(world.getUID());
+        List<UUID> storedClaimIds = this.database.loadWorldClaimIds(world.getUID());
+        if (this.importClaimFiles(world, store, new HashSet<>(storedClaimIds)::contains) > 0) {
+            storedClaimIds = this.database.loadWorldClaimIds(world.getUID());
+        }
+
+        // Load wilderness claim first
+        this.loadWilderness(world, store.read(world.getUID()));
+
+        final List<UUID> claimIds = new ArrayList<>();
+        for (UUID claimUniqueId : storedClaimIds) {
+            if (!claimUniqueId.equals(world.getUID())) {
+                claimIds.add(claimUniqueId);
+            }
+        }
+        if (!claimIds.isEmpty()) {
+            this.registerClaims(this.parseClaims(claimIds, claimUniqueId -> this.readStoredClaim(claimUniqueId, store, world), world), world);
+        }
+        GriefDefenderPlugin.getInstance().getLogger().info("[" + worldName + "] " + claimIds.size() + " total claims loaded from the database.");
+    }
+
+    private PendingClaim readStoredClaim(UUID claimUniqueId, SqlClaimStore store, World world) {
+        try {
+            final ClaimRecordStore.Record record = store.read(claimUniqueId);
+            return record == null ? null : this.parseRecord(record, store, world);
+        } catch (Exception e) {
+            GriefDefenderPlugin.getInstance().getLogger().severe("Claim " + claimUniqueId + " failed to load.");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    SqlClaimStore getStore(UUID worldUniqueId) {
+        SqlClaimStore store = this.stores.get(worldUniqueId);
+        if (store == null) {
+            store = new SqlClaimStore(this.database, worldUniqueId, getClaimDataPath(worldUniqueId));
+            this.stores.put(worldUniqueId, store);
+        }
+        return store;
+    }
+
+    @Override
+    void overrideSavePlayerData(UUID playerID, GDPlayerData playerData) {
+        // Claim blocks stay in the permission provider, the row makes them queryable from other servers
+        final String worldId = BaseStorage.USE_GLOBAL_PLAYER_STORAGE ? SqlDatabase.GLOBAL_WORLD : playerData.worldUniqueId.toString();
+        this.database.queuePlayer(playerID, worldId, playerData.getAccruedClaimBlocks(), playerData.getBonusClaimBlocks(), System.currentTimeMillis());
+    }
+
+    @Override
+    public void unloadWorldData(World world) {
+        super.unloadWorldData(world);
+        this.stores.remove(world.getUID());
+    }
+
+    @Override
+    public void shutdown() {
+        this.database.close();
+        this.stores.clear();
+    }
+}
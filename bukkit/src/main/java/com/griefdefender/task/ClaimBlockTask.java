@@ -53,7 +53,7 @@ public void run() {
         for (World world : Bukkit.getServer().getWorlds()) {
             for (Player player : world.getPlayers()) {
                 final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
-                final GDClaim claim = GriefDefenderPlugin.getInstance().dataStore.getClaimAtPlayer(playerData, player.getLocation());
+                final GDClaim claim = playerData.getCurrentClaim(player);
                 final GDPermissionUser holder = PermissionHolderCache.getInstance().getOrCreateUser(player);
                 final int accrualPerHour = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), holder, Options.BLOCKS_ACCRUED_PER_HOUR, claim).intValue();
                 if (accrualPerHour > 0) {
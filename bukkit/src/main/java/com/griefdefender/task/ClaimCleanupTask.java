@@ -49,110 +49,214 @@
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashSet;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
 
+/**
+ * Removes claims that have expired from inactivity or unpaid taxes.
+ *
+ * <p>Every cleanup interval the claim metadata is snapshotted on the main
+ * thread and expiration dates are resolved asynchronously into a queue
+ * ordered by expiry. Each tick only the due claims are removed, limited by
+ * the configured claims per tick.</p>
+ */
 public class ClaimCleanupTask extends BukkitRunnable {
 
+    private final int planInterval;
+    private int ticksUntilPlan = 0;
+    private boolean planning = false;
+    private PriorityQueue<ScheduledExpiration> schedule = new PriorityQueue<>(Comparator.comparing(e -> e.expiresAt));
+    // Set by the planner once finished, swapped in on the main thread
+    private volatile PriorityQueue<ScheduledExpiration> plannedSchedule;
+
     public ClaimCleanupTask(int interval) {
-        this.runTaskTimer(GDBootstrap.getInstance(), 1L, interval * 20 * 60);
+        this.planInterval = interval * 20 * 60;
+        this.runTaskTimer(GDBootstrap.getInstance(), 1L, 1L);
     }
 
     @Override
     public void run() {
+        final PriorityQueue<ScheduledExpiration> planned = this.plannedSchedule;
+        if (planned != null) {
+            this.plannedSchedule = null;
+            this.schedule = planned;
+            this.planning = false;
+        }
+        if (!this.planning && --this.ticksUntilPlan <= 0) {
+            this.ticksUntilPlan = this.planInterval;
+            this.plan();
+        }
+        if (this.schedule.isEmpty()) {
+            return;
+        }
+
+        final Instant now = Instant.now();
+        int remaining = Math.max(1, GriefDefenderPlugin.getGlobalConfig().getConfig().claim.expirationCleanupClaimsPerTick);
+        while (remaining > 0 && !this.schedule.isEmpty() && this.schedule.peek().expiresAt.isBefore(now)) {
+            if (this.expire(this.schedule.poll())) {
+                remaining--;
+            }
+        }
+    }
+
+    private void plan() {
+        final List<ClaimSnapshot> snapshots = new ArrayList<>();
         for (World world : Bukkit.getServer().getWorlds()) {
             GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
-            Set<Claim> claimList = claimManager.getWorldClaims();
-            if (claimList.size() == 0) {
+            if (claimManager == null || claimManager.getWorldClaims().isEmpty()) {
                 continue;
             }
 
             final GriefDefenderConfig<?> activeConfig = GriefDefenderPlugin.getActiveConfig(world);
-            final boolean schematicRestore = activeConfig.getConfig().claim.claimAutoSchematicRestore;
-            Iterator<Claim> iterator = new HashSet<>(claimList).iterator();
-            while (iterator.hasNext()) {
-                GDClaim claim = (GDClaim) iterator.next();
+            int areaOfDefaultClaim = 0;
+            if (activeConfig.getConfig().claim.autoChestClaimBlockRadius >= 0) {
+                areaOfDefaultClaim = (int) Math.pow(activeConfig.getConfig().claim.autoChestClaimBlockRadius * 2 + 1, 2);
+            }
+            final boolean taxEnabled = activeConfig.getConfig().economy.taxSystem;
+            for (Claim worldClaim : claimManager.getWorldClaims()) {
+                final GDClaim claim = (GDClaim) worldClaim;
                 final GDPlayerData playerData = claim.getOwnerPlayerData();
                 if (claim.isAdminClaim() || !claim.getInternalClaimData().allowExpiration() || playerData == null) {
                     continue;
                 }
-
                 if (!playerData.dataInitialized) {
                     continue;
                 }
 
-                int areaOfDefaultClaim = 0;
-                if (activeConfig.getConfig().claim.autoChestClaimBlockRadius >= 0) {
-                    areaOfDefaultClaim = (int) Math.pow(activeConfig.getConfig().claim.autoChestClaimBlockRadius * 2 + 1, 2);
-                }
+                snapshots.add(new ClaimSnapshot(claim, claimManager, playerData, areaOfDefaultClaim, taxEnabled));
+            }
+        }
 
-                final GDPermissionUser subject = playerData.getSubject();
-                Instant claimLastActive = claim.getInternalClaimData().getDateLastActive();
-
-                final int claimExpirationChest = playerData.getChestClaimExpiration();
-                if (claim.getClaimBlocks() <= areaOfDefaultClaim && claimExpirationChest > 0) {
-                    if (claimLastActive.plus(Duration.ofDays(claimExpirationChest))
-                        .isBefore(Instant.now())) {
-                        playerData.useRestoreSchematic = schematicRestore;
-                        claimManager.deleteClaim(claim);
-                        playerData.useRestoreSchematic = false;
-                        final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.CLAIM_EXPIRED_INACTIVITY,
-                                ImmutableMap.of(
-                                "player", subject.getFriendlyName(),
-                                "uuid", claim.getUniqueId().toString()));
-                        GriefDefenderPlugin.getInstance().getLogger().info(PlainComponentSerializer.INSTANCE.serialize(message));
-                        if (!schematicRestore && activeConfig.getConfig().claim.claimAutoNatureRestore) {
-                            if (GriefDefenderPlugin.getMajorMinecraftVersion() <= 12 || GriefDefenderPlugin.getInstance().getWorldEditProvider() == null) {
-                                RestoreUtil.getInstance().restoreClaim(claim);
-                            } else {
-                                GriefDefenderPlugin.getInstance().getWorldEditProvider().regenerateClaim(claim);
-                            }
-                        }
-                        // remove all context permissions
-                        PermissionUtil.getInstance().clearPermissions(claim);
+        if (snapshots.isEmpty()) {
+            this.schedule.clear();
+            return;
+        }
+        this.planning = true;
+        GriefDefenderPlugin.getInstance().executor.execute(() -> {
+            final PriorityQueue<ScheduledExpiration> planned = new PriorityQueue<>(Comparator.comparing(e -> e.expiresAt));
+            try {
+                for (ClaimSnapshot snapshot : snapshots) {
+                    final ScheduledExpiration expiration = snapshot.getExpiration();
+                    if (expiration != null) {
+                        planned.add(expiration);
                     }
-                    continue;
                 }
+            } catch (Throwable t) {
+                GriefDefenderPlugin.getInstance().getLogger().warning("Could not plan claim expirations: " + t.getMessage());
+            }
+            this.plannedSchedule = planned;
+        });
+    }
 
-                if (!claim.isBasicClaim()) {
-                    continue;
-                }
-                final int optionValue = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), subject, Options.EXPIRATION, claim);
-                final int optionClaimExpirationBasic = optionValue;
-                if (optionClaimExpirationBasic > 0) {
-                    final Instant localNow = Instant.now();
-                    final boolean claimNotActive = claimLastActive.plus(Duration.ofDays(optionClaimExpirationBasic)).isBefore(localNow);
-                    if (!claimNotActive) {
-                        final boolean taxEnabled = activeConfig.getConfig().economy.taxSystem;
-                        if (!taxEnabled || !claim.getData().isExpired()) {
-                            continue;
-                        }
-                        final Instant taxPastDueDate = claim.getEconomyData().getTaxPastDueDate();
-                        if (taxPastDueDate == null) {
-                            continue;
-                        }
-
-                        final int taxExpirationDays = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), subject, Options.TAX_EXPIRATION, claim).intValue();
-                        final int expireDaysToKeep = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), subject, Options.TAX_EXPIRATION_DAYS_KEEP, claim).intValue();
-                        if (!taxPastDueDate.plus(Duration.ofDays(taxExpirationDays + expireDaysToKeep)).isBefore(localNow)) {
-                            continue;
-                        }
-                    }
+    private boolean expire(ScheduledExpiration expiration) {
+        final ClaimSnapshot snapshot = expiration.snapshot;
+        final GDClaim claim = snapshot.claim;
+        // Skip claims changed since planning, the next plan picks them up again
+        if (claim.getClaimManager() != snapshot.claimManager || !snapshot.claimManager.getClaimByUUID(claim.getUniqueId()).isPresent()) {
+            return false;
+        }
+        if (!snapshot.lastActive.equals(claim.getInternalClaimData().getDateLastActive()) || !claim.getInternalClaimData().allowExpiration()) {
+            return false;
+        }
+        if (expiration.taxExpiration && !claim.getData().isExpired()) {
+            return false;
+        }
 
-                    playerData.useRestoreSchematic = schematicRestore;
-                    claimManager.deleteClaim(claim);
-                    playerData.useRestoreSchematic = false;
-                    final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.CLAIM_EXPIRED_INACTIVITY,
-                            ImmutableMap.of(
-                            "player", subject.getFriendlyName(),
-                            "uuid", claim.getUniqueId().toString()));
-                    GriefDefenderPlugin.getInstance().getLogger().info(PlainComponentSerializer.INSTANCE.serialize(message));
-                    if (!schematicRestore && activeConfig.getConfig().claim.claimAutoNatureRestore) {
-                        RestoreUtil.getInstance().restoreClaim(claim);
-                    }
-                }
+        final GriefDefenderConfig<?> activeConfig = GriefDefenderPlugin.getActiveConfig(claim.getWorldUniqueId());
+        final boolean schematicRestore = activeConfig.getConfig().claim.claimAutoSchematicRestore;
+        final GDPlayerData playerData = snapshot.playerData;
+        final GDPermissionUser subject = playerData.getSubject();
+        playerData.useRestoreSchematic = schematicRestore;
+        snapshot.claimManager.deleteClaim(claim);
+        playerData.useRestoreSchematic = false;
+        final Component message = GriefDefenderPlugin.getInstance().messageData.getMessage(MessageStorage.CLAIM_EXPIRED_INACTIVITY,
+                ImmutableMap.of(
+                "player", subject.getFriendlyName(),
+                "uuid", claim.getUniqueId().toString()));
+        GriefDefenderPlugin.getInstance().getLogger().info(PlainComponentSerializer.INSTANCE.serialize(message));
+        if (!schematicRestore && activeConfig.getConfig().claim.claimAutoNatureRestore) {
+            if (expiration.chestExpiration && GriefDefenderPlugin.getMajorMinecraftVersion() > 12 && GriefDefenderPlugin.getInstance().getWorldEditProvider() != null) {
+                GriefDefenderPlugin.getInstance().getWorldEditProvider().regenerateClaim(claim);
+            } else {
+                RestoreUtil.getInstance().restoreClaim(claim);
+            }
+        }
+        if (expiration.chestExpiration) {
+            // remove all context permissions
+            PermissionUtil.getInstance().clearPermissions(claim);
+        }
+        return true;
+    }
+
+    // Claim metadata read on the main thread
+    private static class ClaimSnapshot {
+
+        private final GDClaim claim;
+        private final GDClaimManager claimManager;
+        private final GDPlayerData playerData;
+        private final int claimBlocks;
+        private final int areaOfDefaultClaim;
+        private final boolean basicClaim;
+        private final Instant lastActive;
+        private final boolean taxExpired;
+        private final Instant taxPastDueDate;
+
+        ClaimSnapshot(GDClaim claim, GDClaimManager claimManager, GDPlayerData playerData, int areaOfDefaultClaim, boolean taxEnabled) {
+            this.claim = claim;
+            this.claimManager = claimManager;
+            this.playerData = playerData;
+            this.claimBlocks = claim.getClaimBlocks();
+            this.areaOfDefaultClaim = areaOfDefaultClaim;
+            this.basicClaim = claim.isBasicClaim();
+            this.lastActive = claim.getInternalClaimData().getDateLastActive();
+            this.taxExpired = taxEnabled && claim.getData().isExpired();
+            this.taxPastDueDate = this.taxExpired && claim.getEconomyData() != null ? claim.getEconomyData().getTaxPastDueDate() : null;
+        }
+
+        // Resolves options, called from the planner thread
+        ScheduledExpiration getExpiration() {
+            final int claimExpirationChest = this.playerData.getChestClaimExpiration();
+            if (this.claimBlocks <= this.areaOfDefaultClaim && claimExpirationChest > 0) {
+                return new ScheduledExpiration(this, this.lastActive.plus(Duration.ofDays(claimExpirationChest)), true, false);
+            }
+            if (!this.basicClaim) {
+                return null;
+            }
+
+            final GDPermissionUser subject = this.playerData.getSubject();
+            final int optionClaimExpirationBasic = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), subject, Options.EXPIRATION, this.claim);
+            if (optionClaimExpirationBasic <= 0) {
+                return null;
+            }
+            final Instant inactiveDate = this.lastActive.plus(Duration.ofDays(optionClaimExpirationBasic));
+            if (this.taxPastDueDate == null) {
+                return new ScheduledExpiration(this, inactiveDate, false, false);
+            }
+
+            final int taxExpirationDays = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), subject, Options.TAX_EXPIRATION, this.claim).intValue();
+            final int expireDaysToKeep = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), subject, Options.TAX_EXPIRATION_DAYS_KEEP, this.claim).intValue();
+            final Instant taxDate = this.taxPastDueDate.plus(Duration.ofDays(taxExpirationDays + expireDaysToKeep));
+            if (taxDate.isBefore(inactiveDate)) {
+                return new ScheduledExpiration(this, taxDate, false, true);
             }
+            return new ScheduledExpiration(this, inactiveDate, false, false);
+        }
+    }
+
+    private static class ScheduledExpiration {
+
+        private final ClaimSnapshot snapshot;
+        private final Instant expiresAt;
+        private final boolean chestExpiration;
+        private final boolean taxExpiration;
+
+        ScheduledExpiration(ClaimSnapshot snapshot, Instant expiresAt, boolean chestExpiration, boolean taxExpiration) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+            this.chestExpiration = chestExpiration;
+            this.taxExpiration = taxExpiration;
         }
     }
 }
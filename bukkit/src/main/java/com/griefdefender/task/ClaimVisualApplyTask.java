@@ -27,7 +27,6 @@
 import com.griefdefender.GDBootstrap;
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
-import com.griefdefender.internal.block.BlockSnapshot;
 import com.griefdefender.internal.block.BlockTransaction;
 import com.griefdefender.internal.visual.GDClaimVisual;
 
@@ -70,10 +69,6 @@ public void run() {
             }
         }
 
-        for (BlockTransaction transaction : this.visualization.getVisualTransactions()) {
-            this.playerData.queuedVisuals.add(transaction.getFinal());
-        }
-
         if (this.visualization.getClaim() != null) {
             this.visualization.getClaim().playersWatching.add(this.player.getUniqueId());
         }
@@ -85,6 +80,7 @@ public void run() {
         } else {
             visualUniqueId = this.visualization.getClaim().getUniqueId();
         }
+        this.playerData.visualQueue.queueVisual(visualUniqueId, this.visualization.getVisualTransactions());
 
         final List<BlockTransaction> blockTransactions = this.playerData.visualClaimBlocks.get(visualUniqueId);
         if (blockTransactions == null) {
@@ -33,8 +33,6 @@
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.claim.GDClaim;
 import com.griefdefender.configuration.MessageStorage;
-import com.griefdefender.internal.block.BlockSnapshot;
-import com.griefdefender.internal.util.NMSUtil;
 import com.griefdefender.permission.GDPermissionManager;
 import com.griefdefender.permission.option.GDOptions;
 import com.griefdefender.text.action.GDCallbackHolder;
@@ -45,7 +43,7 @@
 import net.kyori.text.event.HoverEvent;
 import net.kyori.text.format.TextColor;
 
-import java.util.Iterator;
+import java.util.List;
 import java.util.function.Consumer;
 
 import org.bukkit.Bukkit;
@@ -63,64 +61,70 @@ public PlayerTickTask() {
 
     @Override
     public void run() {
+        final int visualsPerTick = GriefDefenderPlugin.getGlobalConfig().getConfig().visual.clientVisualsPerTick;
         for (World world : Bukkit.getServer().getWorlds()) {
-            for (Player player : world.getPlayers()) {
+            final List<Player> players = world.getPlayers();
+            if (players.isEmpty()) {
+                continue;
+            }
+            final long fullTime = world.getFullTime();
+            final boolean regenTick = fullTime % 100 == 0L && GDOptions.isOptionEnabled(Options.PLAYER_HEALTH_REGEN);
+            final boolean teleportTick = fullTime % 20 == 0L;
+            for (Player player : players) {
                 if (player.isDead()) {
                     continue;
                 }
-                final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(player.getWorld(), player.getUniqueId());
-                final GDClaim claim = GriefDefenderPlugin.getInstance().dataStore.getClaimAtPlayer(playerData, player.getLocation());
-                // send queued visuals
-                int count = 0;
-                final Iterator<BlockSnapshot> iterator = playerData.queuedVisuals.iterator();
-                while (iterator.hasNext()) {
-                    final BlockSnapshot snapshot = iterator.next();
-                    if (count > GriefDefenderPlugin.getGlobalConfig().getConfig().visual.clientVisualsPerTick) {
-                        break;
-                    }
-                    NMSUtil.getInstance().sendBlockChange(player, snapshot);
-                    iterator.remove();
-                    count++;
+                final GDPlayerData playerData = GriefDefenderPlugin.getInstance().dataStore.getOrCreatePlayerData(world, player.getUniqueId());
+                if (!playerData.visualQueue.isEmpty()) {
+                    // Matches the previous behavior of sending one more than the configured amount
+                    playerData.visualQueue.send(player, visualsPerTick + 1);
                 }
-
-                // chat capture
-                playerData.updateRecordChat();
-                // health regen
-                if (world.getFullTime() % 100 == 0L) {
-                    final GameMode gameMode = player.getGameMode();
-                    // Handle player health regen
-                    if (gameMode != GameMode.CREATIVE && gameMode != GameMode.SPECTATOR && GDOptions.isOptionEnabled(Options.PLAYER_HEALTH_REGEN)) {
-                        final double maxHealth = player.getMaxHealth();
-                        if (player.getHealth() < maxHealth) {
-                            final double regenAmount = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_HEALTH_REGEN, claim);
-                            if (regenAmount > 0) {
-                                final double newHealth = player.getHealth() + regenAmount;
-                                if (newHealth > maxHealth) {
-                                    player.setHealth(maxHealth);
-                                } else {
-                                    player.setHealth(newHealth);
-                                }
-                            }
-                        }
-                    }
+                if (playerData.recordChatTimestamp != null) {
+                    playerData.updateRecordChat();
                 }
-                // teleport delay
-                if (world.getFullTime() % 20 == 0L) {
-                    if (playerData.teleportDelay > 0) {
-                        final int delay = playerData.teleportDelay - 1;
-                        if (delay == 0) {
-                            playerData.teleportDelay = 0;
-                            player.teleport(playerData.teleportLocation);
-                            playerData.teleportLocation = null;
-                            playerData.teleportSourceLocation = null;
-                            continue;
-                        }
-                        TextAdapter.sendComponent(player, MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TELEPORT_DELAY_NOTICE, 
-                                ImmutableMap.of("delay", TextComponent.of(delay, TextColor.GOLD))));
-                        playerData.teleportDelay = delay;
-                    }
+                if (regenTick) {
+                    this.applyHealthRegen(player, playerData);
+                }
+                if (teleportTick && playerData.teleportDelay > 0) {
+                    this.updateTeleportDelay(player, playerData);
                 }
             }
         }
     }
+
+    private void applyHealthRegen(Player player, GDPlayerData playerData) {
+        final GameMode gameMode = player.getGameMode();
+        if (gameMode == GameMode.CREATIVE || gameMode == GameMode.SPECTATOR) {
+            return;
+        }
+        final double maxHealth = player.getMaxHealth();
+        if (player.getHealth() >= maxHealth) {
+            return;
+        }
+
+        final GDClaim claim = playerData.getCurrentClaim(player);
+        final double regenAmount = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), playerData.getSubject(), Options.PLAYER_HEALTH_REGEN, claim);
+        if (regenAmount > 0) {
+            final double newHealth = player.getHealth() + regenAmount;
+            if (newHealth > maxHealth) {
+                player.setHealth(maxHealth);
+            } else {
+                player.setHealth(newHealth);
+            }
+        }
+    }
+
+    private void updateTeleportDelay(Player player, GDPlayerData playerData) {
+        final int delay = playerData.teleportDelay - 1;
+        if (delay == 0) {
+            playerData.teleportDelay = 0;
+            player.teleport(playerData.teleportLocation);
+            playerData.teleportLocation = null;
+            playerData.teleportSourceLocation = null;
+            return;
+        }
+        TextAdapter.sendComponent(player, MessageStorage.MESSAGE_DATA.getMessage(MessageStorage.TELEPORT_DELAY_NOTICE, 
+                ImmutableMap.of("delay", TextComponent.of(delay, TextColor.GOLD))));
+        playerData.teleportDelay = delay;
+    }
 }
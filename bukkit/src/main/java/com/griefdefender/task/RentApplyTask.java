@@ -30,7 +30,6 @@
 import com.griefdefender.GDPlayerData;
 import com.griefdefender.GriefDefenderPlugin;
 import com.griefdefender.api.GriefDefender;
-import com.griefdefender.api.claim.Claim;
 import com.griefdefender.api.claim.ClaimSchematic;
 import com.griefdefender.api.economy.TransactionResultType;
 import com.griefdefender.api.economy.TransactionType;
@@ -62,9 +61,7 @@
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -80,42 +77,34 @@ public RentApplyTask() {
         }
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public void run() {
         if (this.economy == null) {
             this.economy = GriefDefenderPlugin.getInstance().getVaultProvider().getApi();
         }
+        final Instant now = Instant.now();
         for (World world : Bukkit.getWorlds()) {
             if (!GriefDefenderPlugin.getInstance().claimsEnabledForWorld(world.getUID())) {
                 continue;
             }
 
             GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
-            ArrayList<Claim> claimList = (ArrayList<Claim>) new ArrayList<>(claimManager.getWorldClaims());
-            if (claimList.size() == 0) {
-                return;
+            if (claimManager == null) {
+                continue;
             }
-    
-            Iterator<GDClaim> iterator = ((ArrayList) claimList.clone()).iterator();
-            while (iterator.hasNext()) {
-                GDClaim claim = iterator.next();
+            // Only rented claims with a payment due are returned
+            for (GDClaim claim : claimManager.getDueRentClaims(now)) {
                 if (claim.isWilderness()) {
                     continue;
                 }
-    
+
                 final List<UUID> renters = new ArrayList<>(claim.getEconomyData().getRenters());
                 for (UUID uuid : renters) {
                     final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(uuid);
                     handleClaimRent(claim, user);
                 }
-                final Set<Claim> children = claim.getChildren(true);
-                for (Claim child : children) {
-                    for (UUID uuid : child.getEconomyData().getRenters()) {
-                        final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(uuid);
-                        handleClaimRent((GDClaim) child, user);
-                    }
-                }
+                // Payment transactions move the due date forward
+                claimManager.updateRentSchedule(claim);
             }
         }
     }
@@ -56,6 +56,9 @@
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -70,26 +73,25 @@ public TaxApplyTask() {
         this.runTaskTimer(GDBootstrap.getInstance(), delay, 1728000L);
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public void run() {
         if (this.economy == null) {
             this.economy = GriefDefenderPlugin.getInstance().getVaultProvider().getApi();
         }
+        // Payer UUID -> taxed claims
+        final Map<UUID, List<TaxCharge>> charges = new LinkedHashMap<>();
         for (World world : Bukkit.getWorlds()) {
             if (!GriefDefenderPlugin.getInstance().claimsEnabledForWorld(world.getUID())) {
                 continue;
             }
 
             GDClaimManager claimManager = GriefDefenderPlugin.getInstance().dataStore.getClaimWorldManager(world.getUID());
-            ArrayList<Claim> claimList = (ArrayList<Claim>) new ArrayList<>(claimManager.getWorldClaims());
-            if (claimList.size() == 0) {
-                return;
+            if (claimManager == null) {
+                continue;
             }
-    
-            Iterator<GDClaim> iterator = ((ArrayList) claimList.clone()).iterator();
-            while (iterator.hasNext()) {
-                GDClaim claim = iterator.next();
+
+            for (Claim worldClaim : new ArrayList<>(claimManager.getWorldClaims())) {
+                final GDClaim claim = (GDClaim) worldClaim;
                 final GDPlayerData playerData = claim.getOwnerPlayerData();
                 if (claim.isWilderness()) {
                     continue;
@@ -107,77 +109,31 @@ public void run() {
                     final Set<Claim> children = claim.getChildren(false);
                     for (Claim child : children) {
                         if (child.isTown()) {
-                            handleTownTax((GDClaim) child, playerData);
+                            addTownTax(charges, (GDClaim) child, playerData);
                         } else if (child.isBasicClaim()) {
-                            handleClaimTax((GDClaim) child, playerData, false);
+                            addClaimTax(charges, (GDClaim) child, playerData, false);
                         }
                     }
                 } else {
                     if (claim.isTown()) {
-                        handleTownTax(claim, playerData);
+                        addTownTax(charges, claim, playerData);
                     } else if (claim.isBasicClaim()){
-                        handleClaimTax(claim, playerData, false);
+                        addClaimTax(charges, claim, playerData, false);
                     }
                 }
             }
         }
-    }
 
-    private void handleClaimTax(GDClaim claim, GDPlayerData playerData, boolean inTown) {
-        final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(playerData.getUniqueId());
-        final OfflinePlayer player = user.getOfflinePlayer();
-        double taxRate = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), user, Options.TAX_RATE, claim);
-        double taxOwed = claim.getEconomyData().getTaxBalance() + (claim.getClaimBlocks() * taxRate);
-        GDTaxClaimEvent event = new GDTaxClaimEvent(claim, taxRate, taxOwed);
-        GriefDefender.getEventManager().post(event);
-        if (event.cancelled()) {
-            return;
-        }
-        final double taxBalance = claim.getEconomyData().getTaxBalance();
-        taxRate = event.getTaxRate();
-        taxOwed = taxBalance + (claim.getClaimBlocks() * taxRate);
-        final EconomyResponse response = EconomyUtil.getInstance().withdrawFunds(player, taxOwed);
-        if (!response.transactionSuccess()) {
-            final Instant localNow = Instant.now();
-            Instant taxPastDueDate = claim.getEconomyData().getTaxPastDueDate();
-            if (taxPastDueDate == null) {
-                claim.getEconomyData().setTaxPastDueDate(Instant.now());
-            } else {
-                final int taxExpirationDays = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), user, Options.TAX_EXPIRATION, claim).intValue();
-                if (taxExpirationDays > 0) {
-                    claim.getInternalClaimData().setExpired(true);
-                    if (taxExpirationDays == 0) {
-                        claim.getInternalClaimData().setExpired(true);
-                        claim.getData().save();
-                    } else if (taxPastDueDate.plus(Duration.ofDays(taxExpirationDays)).isBefore(localNow)) {
-                        claim.getInternalClaimData().setExpired(true);
-                        claim.getData().save();
-                    }
-                }
-            }
-            final double totalTaxOwed = taxBalance + taxOwed;
-            claim.getEconomyData().setTaxBalance(totalTaxOwed);
-            claim.getEconomyData().addPaymentTransaction(new GDPaymentTransaction(TransactionType.TAX, TransactionResultType.FAIL, Instant.now(), taxOwed));
-        } else {
-            claim.getEconomyData().addPaymentTransaction(new GDPaymentTransaction(TransactionType.TAX, TransactionResultType.SUCCESS, Instant.now(), taxOwed));
-            claim.getEconomyData().setTaxPastDueDate(null);
-            claim.getEconomyData().setTaxBalance(0);
-            claim.getInternalClaimData().setExpired(false);
-
-            if (inTown) {
-                final GDClaim town = claim.getTownClaim();
-                town.getData()
-                    .getEconomyData()
-                    .addPaymentTransaction(new GDPaymentTransaction(TransactionType.TAX, TransactionResultType.SUCCESS, Instant.now(), taxOwed));
-                if (town.getEconomyAccountId().isPresent()) {
-                    this.economy.bankDeposit(town.getEconomyAccountId().get().toString(), taxOwed);
-                }
-            }
-            claim.getData().save();
+        for (List<TaxCharge> payerCharges : charges.values()) {
+            this.handlePayerTax(payerCharges);
         }
     }
 
-    private void handleTownTax(GDClaim town, GDPlayerData playerData) {
+    private void addClaimTax(Map<UUID, List<TaxCharge>> charges, GDClaim claim, GDPlayerData playerData, boolean inTown) {
+        charges.computeIfAbsent(playerData.getUniqueId(), k -> new ArrayList<>()).add(new TaxCharge(claim, playerData.getUniqueId(), inTown));
+    }
+
+    private void addTownTax(Map<UUID, List<TaxCharge>> charges, GDClaim town, GDPlayerData playerData) {
         final UUID townAccountId = town.getEconomyAccountId().orElse(null);
         if (townAccountId == null) {
             // Virtual Accounts not supported by Economy Plugin so ignore
@@ -187,11 +143,112 @@ private void handleTownTax(GDClaim town, GDPlayerData playerData) {
         for (Claim child : children) {
             // resident tax
             if (child.isBasicClaim()) {
-                handleClaimTax((GDClaim) child, playerData, true);
+                addClaimTax(charges, (GDClaim) child, playerData, true);
             }
         }
         if (town.getOwnerUniqueId().equals(playerData.playerID)) {
-            handleClaimTax(town, playerData, false);
+            addClaimTax(charges, town, playerData, false);
+        }
+    }
+
+    // All claims here are paid by the same player so try a single withdrawal first
+    private void handlePayerTax(List<TaxCharge> charges) {
+        final GDPermissionUser user = PermissionHolderCache.getInstance().getOrCreateUser(charges.get(0).payerUniqueId);
+        final OfflinePlayer player = user.getOfflinePlayer();
+        double totalTaxOwed = 0;
+        final Iterator<TaxCharge> iterator = charges.iterator();
+        while (iterator.hasNext()) {
+            final TaxCharge charge = iterator.next();
+            final GDClaim claim = charge.claim;
+            double taxRate = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Double.class), user, Options.TAX_RATE, claim);
+            double taxOwed = claim.getEconomyData().getTaxBalance() + (claim.getClaimBlocks() * taxRate);
+            GDTaxClaimEvent event = new GDTaxClaimEvent(claim, taxRate, taxOwed);
+            GriefDefender.getEventManager().post(event);
+            if (event.cancelled()) {
+                iterator.remove();
+                continue;
+            }
+            charge.taxBalance = claim.getEconomyData().getTaxBalance();
+            taxRate = event.getTaxRate();
+            charge.taxOwed = charge.taxBalance + (claim.getClaimBlocks() * taxRate);
+            totalTaxOwed += charge.taxOwed;
+        }
+        if (charges.isEmpty()) {
+            return;
+        }
+
+        if (charges.size() > 1 && EconomyUtil.getInstance().withdrawFunds(player, totalTaxOwed).transactionSuccess()) {
+            for (TaxCharge charge : charges) {
+                this.applyTaxPayment(charge);
+            }
+            return;
+        }
+        for (TaxCharge charge : charges) {
+            final EconomyResponse response = EconomyUtil.getInstance().withdrawFunds(player, charge.taxOwed);
+            if (response.transactionSuccess()) {
+                this.applyTaxPayment(charge);
+            } else {
+                this.applyTaxFailure(charge, user);
+            }
+        }
+    }
+
+    private void applyTaxFailure(TaxCharge charge, GDPermissionUser user) {
+        final GDClaim claim = charge.claim;
+        final Instant localNow = Instant.now();
+        Instant taxPastDueDate = claim.getEconomyData().getTaxPastDueDate();
+        if (taxPastDueDate == null) {
+            claim.getEconomyData().setTaxPastDueDate(Instant.now());
+        } else {
+            final int taxExpirationDays = GDPermissionManager.getInstance().getInternalOptionValue(TypeToken.of(Integer.class), user, Options.TAX_EXPIRATION, claim).intValue();
+            if (taxExpirationDays > 0) {
+                claim.getInternalClaimData().setExpired(true);
+                if (taxExpirationDays == 0) {
+                    claim.getInternalClaimData().setExpired(true);
+                    claim.getData().save();
+                } else if (taxPastDueDate.plus(Duration.ofDays(taxExpirationDays)).isBefore(localNow)) {
+                    claim.getInternalClaimData().setExpired(true);
+                    claim.getData().save();
+                }
+            }
+        }
+        final double totalTaxOwed = charge.taxBalance + charge.taxOwed;
+        claim.getEconomyData().setTaxBalance(totalTaxOwed);
+        claim.getEconomyData().addPaymentTransaction(new GDPaymentTransaction(TransactionType.TAX, TransactionResultType.FAIL, Instant.now(), charge.taxOwed));
+    }
+
+    private void applyTaxPayment(TaxCharge charge) {
+        final GDClaim claim = charge.claim;
+        final double taxOwed = charge.taxOwed;
+        claim.getEconomyData().addPaymentTransaction(new GDPaymentTransaction(TransactionType.TAX, TransactionResultType.SUCCESS, Instant.now(), taxOwed));
+        claim.getEconomyData().setTaxPastDueDate(null);
+        claim.getEconomyData().setTaxBalance(0);
+        claim.getInternalClaimData().setExpired(false);
+
+        if (charge.inTown) {
+            final GDClaim town = claim.getTownClaim();
+            town.getData()
+                .getEconomyData()
+                .addPaymentTransaction(new GDPaymentTransaction(TransactionType.TAX, TransactionResultType.SUCCESS, Instant.now(), taxOwed));
+            if (town.getEconomyAccountId().isPresent()) {
+                this.economy.bankDeposit(town.getEconomyAccountId().get().toString(), taxOwed);
+            }
+        }
+        claim.getData().save();
+    }
+
+    private static class TaxCharge {
+
+        private final GDClaim claim;
+        private final UUID payerUniqueId;
+        private final boolean inTown;
+        private double taxBalance;
+        private double taxOwed;
+
+        TaxCharge(GDClaim claim, UUID payerUniqueId, boolean inTown) {
+            this.claim = claim;
+            this.payerUniqueId = payerUniqueId;
+            this.inTown = inTown;
         }
     }
 }
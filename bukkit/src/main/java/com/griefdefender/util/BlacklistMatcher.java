@@ -0,0 +1,165 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.griefdefender.permission.GDPermissionManager;
+import it.unimi.dsi.fastutil.chars.Char2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of a blacklist id list.
+ *
+ * <p>Matches the same ids as {@link org.apache.commons.io.FilenameUtils#wildcardMatch(String, String)}
+ * against each entry, checking both the id and the id without meta.</p>
+ */
+public class BlacklistMatcher {
+
+    private final List<String> source;
+    private final int sourceSize;
+    private final Set<String> exact = new HashSet<>();
+    // Entries ending with a single '*' and no other wildcard
+    private final PrefixNode prefixes = new PrefixNode();
+    private boolean hasPrefixes = false;
+    // Remaining wildcard entries combined into one expression
+    private final Pattern wildcards;
+    private final Cache<String, Boolean> results = Caffeine.newBuilder().maximumSize(10000).build();
+
+    public BlacklistMatcher(List<String> source) {
+        this.source = source;
+        this.sourceSize = source.size();
+        final List<String> expressions = new ArrayList<>();
+        for (String entry : source) {
+            if (entry == null) {
+                continue;
+            }
+            final int wildcard = indexOfWildcard(entry, 0);
+            if (wildcard == -1) {
+                this.exact.add(entry);
+            } else if (wildcard == entry.length() - 1 && entry.charAt(wildcard) == '*') {
+                this.prefixes.add(entry, entry.length() - 1);
+                this.hasPrefixes = true;
+            } else {
+                expressions.add(toRegex(entry));
+            }
+        }
+        this.wildcards = expressions.isEmpty() ? null : Pattern.compile(String.join("|", expressions), Pattern.DOTALL);
+    }
+
+    // Whether this matcher was compiled from the current state of the list
+    public boolean isCompiledFrom(List<String> list) {
+        return this.source == list && this.sourceSize == list.size();
+    }
+
+    public boolean matches(String id) {
+        if (id == null) {
+            return false;
+        }
+        return this.results.get(id, key -> {
+            if (this.matchesId(key)) {
+                return true;
+            }
+            final String idNoMeta = GDPermissionManager.getInstance().getIdentifierWithoutMeta(key);
+            return !idNoMeta.equals(key) && this.matchesId(idNoMeta);
+        });
+    }
+
+    private boolean matchesId(String id) {
+        if (this.exact.contains(id)) {
+            return true;
+        }
+        if (this.hasPrefixes && this.prefixes.matches(id)) {
+            return true;
+        }
+        return this.wildcards != null && this.wildcards.matcher(id).matches();
+    }
+
+    private static int indexOfWildcard(String entry, int start) {
+        for (int i = start; i < entry.length(); i++) {
+            final char c = entry.charAt(i);
+            if (c == '*' || c == '?') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String toRegex(String entry) {
+        final StringBuilder regex = new StringBuilder("(?:");
+        int start = 0;
+        int wildcard;
+        while ((wildcard = indexOfWildcard(entry, start)) != -1) {
+            if (wildcard > start) {
+                regex.append(Pattern.quote(entry.substring(start, wildcard)));
+            }
+            regex.append(entry.charAt(wildcard) == '*' ? ".*" : ".");
+            start = wildcard + 1;
+        }
+        if (start < entry.length()) {
+            regex.append(Pattern.quote(entry.substring(start)));
+        }
+        return regex.append(')').toString();
+    }
+
+    private static class PrefixNode {
+
+        private final Char2ObjectOpenHashMap<PrefixNode> children = new Char2ObjectOpenHashMap<>();
+        private boolean terminal;
+
+        void add(String prefix, int length) {
+            PrefixNode node = this;
+            for (int i = 0; i < length; i++) {
+                final char c = prefix.charAt(i);
+                PrefixNode child = node.children.get(c);
+                if (child == null) {
+                    child = new PrefixNode();
+                    node.children.put(c, child);
+                }
+                node = child;
+            }
+            node.terminal = true;
+        }
+
+        boolean matches(String id) {
+            PrefixNode node = this;
+            for (int i = 0; i < id.length(); i++) {
+                if (node.terminal) {
+                    return true;
+                }
+                node = node.children.get(id.charAt(i));
+                if (node == null) {
+                    return false;
+                }
+            }
+            return node.terminal;
+        }
+    }
+}
@@ -40,6 +40,7 @@
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -277,7 +278,7 @@ public Set<Claim> getNearbyClaims(Location location, int blockDistance, boolean
                     }
                     org.bukkit.Chunk chunk = location.getWorld().getChunkAt(chunkX, chunkZ);
                     if (chunk != null) {
-                        Set<Claim> claimsInChunk = claimWorldManager.getInternalChunksToClaimsMap().get(NMSUtil.getInstance().getChunkCoordIntPair(chunkX, chunkZ));
+                        final Collection<Claim> claimsInChunk = claimWorldManager.getClaimsInChunk(chunkX, chunkZ);
                         if (claimsInChunk != null) {
                             for (Claim claim : claimsInChunk) {
                                 final GDClaim gdClaim = (GDClaim) claim;
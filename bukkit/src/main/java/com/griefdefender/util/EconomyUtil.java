@@ -45,6 +45,7 @@
 import com.griefdefender.cache.MessageCache;
 import com.griefdefender.cache.PermissionHolderCache;
 import com.griefdefender.claim.GDClaim;
+import com.griefdefender.claim.GDClaimManager;
 import com.griefdefender.claim.GDClaimResult;
 import com.griefdefender.command.CommandHelper;
 import com.griefdefender.configuration.MessageStorage;
@@ -556,6 +557,7 @@ private Consumer<CommandSender> createRentConsumerConfirmed(CommandSender src, C
             claim.removeUserTrust(player.getUniqueId(), TrustTypes.NONE);
             claim.getEconomyData().setForRent(false);
             claim.getEconomyData().getRenters().add(player.getUniqueId());
+            ((GDClaimManager) claim.getClaimManager()).updateRentSchedule((GDClaim) claim);
             claim.addUserTrust(player.getUniqueId(), TrustTypes.ACCESSOR);
             final Instant existingDate = claim.getEconomyData().getRentStartDate();
             claim.getEconomyData().setRentStartDate(Instant.now());
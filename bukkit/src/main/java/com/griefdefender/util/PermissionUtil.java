@@ -68,6 +68,10 @@ public PermissionUtil() {
         this.PERMISSION_PROVIDER = GriefDefenderPlugin.getInstance().getPermissionProvider();
     }
 
+    public PermissionProvider getPermissionProvider() {
+        return PERMISSION_PROVIDER;
+    }
+
     public String getServerName() {
         return PERMISSION_PROVIDER.getServerName();
     }
@@ -0,0 +1,126 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class GDLibraryManifestTest {
+
+    private static final String PLUGIN_VERSION = "1.0.0";
+    private static final String SERVER_VERSION = "1.15.2";
+    private static final List<String> RELOCATE_LIST = Collections.singletonList("org.fixture:fixture");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void missingOrUnreadableManifestIsMiss() throws Exception {
+        final Path path = this.folder.getRoot().toPath().resolve("manifest.json");
+        assertNull(GDLibraryManifest.read(path));
+
+        Files.write(path, "not a manifest".getBytes(StandardCharsets.UTF_8));
+        assertNull(GDLibraryManifest.read(path));
+    }
+
+    @Test
+    public void unchangedLibrariesAreHit() throws Exception {
+        final File input = this.writeJar("fixture.jar", "input");
+        final File shaded = this.writeJar("fixture-shaded.jar", "shaded");
+        final GDLibraryManifest manifest = this.writeAndRead(new GDLibraryManifest.Library("org.fixture:fixture:1.0", "sha1:rules", input, shaded));
+
+        assertTrue(manifest.isCurrent(PLUGIN_VERSION, SERVER_VERSION));
+        assertTrue(manifest.canReuse("org.fixture:fixture:1.0", "sha1:rules", shaded));
+        assertEquals(RELOCATE_LIST, manifest.getRelocateList());
+        assertEquals(1, manifest.getLibraries().size());
+    }
+
+    @Test
+    public void changedVersionsOrLibrariesAreMiss() throws Exception {
+        final File input = this.writeJar("fixture.jar", "input");
+        final File shaded = this.writeJar("fixture-shaded.jar", "shaded");
+        final GDLibraryManifest manifest = this.writeAndRead(new GDLibraryManifest.Library("org.fixture:fixture:1.0", "sha1:rules", input, shaded));
+
+        assertFalse(manifest.isCurrent("1.0.1", SERVER_VERSION));
+        assertFalse(manifest.isCurrent(PLUGIN_VERSION, "1.16.1"));
+        assertFalse(manifest.canReuse("org.fixture:fixture:1.0", "sha1:other", shaded));
+        assertFalse(manifest.canReuse("org.fixture:fixture:2.0", "sha1:rules", shaded));
+
+        this.writeJar("fixture.jar", "input with more content");
+        assertFalse(manifest.isCurrent(PLUGIN_VERSION, SERVER_VERSION));
+        assertFalse(manifest.canReuse("org.fixture:fixture:1.0", "sha1:rules", shaded));
+    }
+
+    @Test
+    public void missingShadedJarIsMiss() throws Exception {
+        final File input = this.writeJar("fixture.jar", "input");
+        final File shaded = this.writeJar("fixture-shaded.jar", "shaded");
+        final GDLibraryManifest manifest = this.writeAndRead(new GDLibraryManifest.Library("org.fixture:fixture:1.0", "sha1:rules", input, shaded));
+
+        assertTrue(shaded.delete());
+        assertFalse(manifest.isCurrent(PLUGIN_VERSION, SERVER_VERSION));
+        assertFalse(manifest.canReuse("org.fixture:fixture:1.0", "sha1:rules", shaded));
+    }
+
+    private GDLibraryManifest writeAndRead(GDLibraryManifest.Library library) throws IOException {
+        final Map<String, GDLibraryManifest.Library> libraries = new LinkedHashMap<>();
+        libraries.put(library.name, library);
+        final Path path = this.folder.getRoot().toPath().resolve("manifest.json");
+        new GDLibraryManifest(PLUGIN_VERSION, SERVER_VERSION, RELOCATE_LIST, libraries).write(path);
+        final GDLibraryManifest manifest = GDLibraryManifest.read(path);
+        assertNotNull(manifest);
+        return manifest;
+    }
+
+    private File writeJar(String name, String content) throws IOException {
+        final File file = new File(this.folder.getRoot(), name);
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file))) {
+            out.putNextEntry(new ZipEntry("fixture.txt"));
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            out.closeEntry();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+public class GDRelocatorTest {
+
+    private static final String LIBRARY = "org.fixture:fixture:1.0";
+    private static final String PLUGIN_VERSION = "1.0.0";
+    private static final String SERVER_VERSION = "1.15.2";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File input;
+    private File shaded;
+
+    @Before
+    public void writeFixture() throws IOException {
+        this.input = new File(this.folder.getRoot(), "fixture.jar");
+        this.shaded = new File(this.folder.getRoot(), "fixture-shaded.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(this.input))) {
+            out.putNextEntry(new ZipEntry("org/fixture/Fixture.class"));
+            out.write(fixtureClass());
+            out.closeEntry();
+        }
+    }
+
+    @Test
+    public void relocatesThroughTemporaryFile() throws Exception {
+        final Map<String, GDLibraryManifest.Library> libraries = new LinkedHashMap<>();
+        final List<GDLibraryManifest.Library> relocated = relocator("org.fixture:fixture").relocateStale(jarMap(), hashMap("sha1"), null, libraries);
+
+        assertEquals(1, relocated.size());
+        assertEquals(this.shaded, libraries.get(LIBRARY).shaded);
+        assertFalse(new File(this.shaded.getPath() + ".tmp").exists());
+        try (JarFile jar = new JarFile(this.shaded)) {
+            assertNotNull(jar.getEntry("com/griefdefender/lib/fixture/Fixture.class"));
+            assertNull(jar.getEntry("org/fixture/Fixture.class"));
+        }
+    }
+
+    @Test
+    public void failedRelocationKeepsPreviousShadedJar() throws Exception {
+        final byte[] previous = "previous shaded jar".getBytes(StandardCharsets.UTF_8);
+        Files.write(this.shaded.toPath(), previous);
+        Files.write(this.input.toPath(), "not a jar".getBytes(StandardCharsets.UTF_8));
+        try {
+            relocator("org.fixture:fixture").relocateStale(jarMap(), hashMap("sha1"), null, new LinkedHashMap<>());
+            fail("Relocating a corrupt jar should fail");
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        assertArrayEquals(previous, Files.readAllBytes(this.shaded.toPath()));
+        assertFalse(new File(this.shaded.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void changedRulesOrLibraryRelocateAgain() throws Exception {
+        final GDLibraryManifest previous = this.relocateAndRecord("org.fixture:fixture", "sha1");
+
+        final Map<String, GDLibraryManifest.Library> libraries = new LinkedHashMap<>();
+        assertTrue(relocator("org.fixture:fixture").relocateStale(jarMap(), hashMap("sha1"), previous, libraries).isEmpty());
+        assertEquals(previous.getLibraries().iterator().next().key, libraries.get(LIBRARY).key);
+
+        assertEquals(1, relocator("org.fixture:fixture").relocateStale(jarMap(), hashMap("sha2"), previous, new LinkedHashMap<>()).size());
+
+        final Map<String, GDLibraryManifest.Library> changed = new LinkedHashMap<>();
+        assertEquals(1, relocator("org.fixture:other").relocateStale(jarMap(), hashMap("sha1"), previous, changed).size());
+        assertNotEquals(previous.getLibraries().iterator().next().key, changed.get(LIBRARY).key);
+        try (JarFile jar = new JarFile(this.shaded)) {
+            assertNotNull(jar.getEntry("com/griefdefender/lib/other/Fixture.class"));
+            assertNull(jar.getEntry("com/griefdefender/lib/fixture/Fixture.class"));
+        }
+    }
+
+    private GDLibraryManifest relocateAndRecord(String rule, String sha1) throws IOException {
+        final Map<String, GDLibraryManifest.Library> libraries = new LinkedHashMap<>();
+        relocator(rule).relocateStale(jarMap(), hashMap(sha1), null, libraries);
+        final GDLibraryManifest manifest = new GDLibraryManifest(PLUGIN_VERSION, SERVER_VERSION, Collections.singletonList(rule), libraries);
+        manifest.write(this.folder.getRoot().toPath().resolve("manifest.json"));
+        return GDLibraryManifest.read(this.folder.getRoot().toPath().resolve("manifest.json"));
+    }
+
+    private static GDRelocator relocator(String rule) {
+        return new GDRelocator(Collections.singletonList(rule));
+    }
+
+    private Map<String, File> jarMap() {
+        return Collections.singletonMap(LIBRARY, this.input);
+    }
+
+    private static Map<String, String> hashMap(String sha1) {
+        return Collections.singletonMap(LIBRARY, sha1);
+    }
+
+    // A class referencing its own package so relocation has something to rewrite
+    private static byte[] fixtureClass() {
+        final ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, "org/fixture/Fixture", null, "java/lang/Object", null);
+        writer.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "instance", "Lorg/fixture/Fixture;", null, null).visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of GriefDefender, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) bloodmc
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.griefdefender.storage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+public class SqlDatabaseTest {
+
+    private static final UUID WORLD = UUID.randomUUID();
+    private static final UUID OWNER = UUID.randomUUID();
+    private static final Logger LOGGER = Logger.getLogger(SqlDatabaseTest.class.getName());
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String url;
+    private SqlDatabase database;
+
+    @Before
+    public void open() throws Exception {
+        this.url = "jdbc:sqlite:" + this.folder.getRoot().toPath().resolve("claims.db").toAbsolutePath();
+        this.database = new SqlDatabase(this.url, LOGGER);
+    }
+
+    @After
+    public void close() {
+        this.database.close();
+    }
+
+    @Test
+    public void readReturnsQueuedAndWrittenClaims() throws Exception {
+        final UUID claimId = UUID.randomUUID();
+        this.database.queueClaim(claimId, row(OWNER, null, "basic/" + claimId, "first"));
+        assertRecord(this.database.readClaim(claimId), "basic/" + claimId, "first");
+
+        this.database.flush();
+        assertRecord(this.database.readClaim(claimId), "basic/" + claimId, "first");
+
+        this.database.queueClaim(claimId, row(OWNER, null, "basic/" + claimId, "second"));
+        assertRecord(this.database.readClaim(claimId), "basic/" + claimId, "second");
+        this.database.flush();
+        assertRecord(this.database.readClaim(claimId), "basic/" + claimId, "second");
+    }
+
+    @Test
+    public void deleteRemovesClaim() throws Exception {
+        final UUID claimId = UUID.randomUUID();
+        this.database.queueClaim(claimId, row(OWNER, null, "basic/" + claimId, "claim"));
+        this.database.flush();
+
+        this.database.queueDelete(claimId);
+        assertNull(this.database.readClaim(claimId));
+        this.database.flush();
+        assertNull(this.database.readClaim(claimId));
+        assertTrue(this.database.loadWorldClaimIds(WORLD).isEmpty());
+    }
+
+    @Test
+    public void claimsSurviveReopen() throws Exception {
+        final UUID claimId = UUID.randomUUID();
+        final UUID deletedId = UUID.randomUUID();
+        this.database.queueClaim(claimId, row(OWNER, null, "town/" + claimId, "kept"));
+        this.database.queueClaim(deletedId, row(OWNER, null, "basic/" + deletedId, "deleted"));
+        this.database.queueDelete(deletedId);
+        this.database.close();
+
+        this.database = new SqlDatabase(this.url, LOGGER);
+        assertEquals(Collections.singletonList(claimId), this.database.loadWorldClaimIds(WORLD));
+        assertRecord(this.database.readClaim(claimId), "town/" + claimId, "kept");
+        assertNull(this.database.readClaim(deletedId));
+    }
+
+    @Test
+    public void failedFlushKeepsClaimsQueued() throws Exception {
+        final UUID claimId = UUID.randomUUID();
+        final UUID brokenId = UUID.randomUUID();
+        this.database.queueClaim(claimId, row(OWNER, null, "basic/" + claimId, "kept"));
+        // A null trust fails while the batch is written, rolling back the whole batch
+        this.database.queueClaim(brokenId, new SqlDatabase.ClaimRow(WORLD, null, OWNER, "basic", "basic/" + brokenId,
+                CommentedConfigurationNode.root(), Collections.singletonList(null)));
+        this.database.flush();
+        assertRecord(this.database.readClaim(claimId), "basic/" + claimId, "kept");
+        assertNotNull(this.database.readClaim(brokenId));
+
+        this.database.queueClaim(brokenId, row(OWNER, null, "basic/" + brokenId, "fixed"));
+        this.database.flush();
+        this.database.close();
+
+        this.database = new SqlDatabase(this.url, LOGGER);
+        assertRecord(this.database.readClaim(claimId), "basic/" + claimId, "kept");
+        assertRecord(this.database.readClaim(brokenId), "basic/" + brokenId, "fixed");
+    }
+
+    private static SqlDatabase.ClaimRow row(UUID owner, UUID parent, String path, String name) {
+        final CommentedConfigurationNode root = CommentedConfigurationNode.root();
+        root.getNode("GriefDefender", "name").setValue(name);
+        return new SqlDatabase.ClaimRow(WORLD, parent, owner, parent == null ? "basic" : "subdivision", path, root,
+                Collections.singletonList(new SqlDatabase.TrustRow("builder", UUID.randomUUID().toString(), false)));
+    }
+
+    private static void assertRecord(ClaimRecordStore.Record record, String path, String name) {
+        assertNotNull(record);
+        assertEquals(path, record.getRelativePath());
+        assertEquals(name, record.getRoot().getNode("GriefDefender", "name").getString());
+    }
+}